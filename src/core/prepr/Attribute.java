@@ -116,6 +116,16 @@ public class Attribute{
 		this.distinct_values = this.build_distinct_values(discretized_values, attr_values, this.str_intervals);
 	}
 	
+	/**
+	 * Restore the discretized values of a numeric attribute whose 'distinct_values' are already built,
+	 * e.g. when an attribute is loaded from a store file
+	 * @param discretized_values
+	 */
+	public void set_discretized_values(double[] discretized_values){
+		this.discretized_values = discretized_values;
+		this.str_intervals = (discretized_values == null) ? null : this.build_str_intervals(discretized_values);
+	}
+	
 	private Map<String, Selector> build_distinct_values_as_nominal_one(double[] attr_values){
 		Map<String, Selector> distinct_values = new HashMap<String, Selector>();
 		
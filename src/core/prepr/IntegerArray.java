@@ -63,6 +63,20 @@ public class IntegerArray {
  		this.size = new_size;
  	}
  	
+ 	/**
+ 	 * Remove all numbers but keep the allocated space
+ 	 */
+ 	public void clear(){
+ 		this.size = 0;
+ 	}
+ 	
+ 	/**
+ 	 * Remove the numbers from the index 'new_size' to the end of the list
+ 	 */
+ 	public void truncate(int new_size){
+ 		if(new_size < this.size) this.size = new_size;
+ 	}
+ 	
  	/**
  	 * Get the number at index
  	 */
@@ -0,0 +1,96 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ArenaPPCTree is a PPCTree whose nodes are stored in a NodeArena instead of PPCNode objects.
+ * </br>It generates the same Nlists of selectors as PPCTree with less memory for the tree nodes.
+ */
+public class ArenaPPCTree {
+	protected NodeArena arena;
+	protected int root;
+	
+	public ArenaPPCTree() {
+		this.arena = new NodeArena();
+		this.root = this.arena.new_root(-1, 0);
+	}
+	
+	public NodeArena getArena(){
+		return this.arena;
+	}
+	
+	/**
+	 * Free memory
+	 */
+	public void free(){
+		this.arena.free();
+		this.arena = null;
+	}
+	
+	/**
+	 * Insert a record of selector ids (in a pre-defined order) into the tree.
+	 * </br>The order of ids to insert into the tree is from right to left.
+	 * @param record an int array of selector IDs in a pre-defined order of selectors
+	 */
+	public void insert_record(int[] record){
+		this.arena.insert_record(this.root, record, record.length-1);
+	}
+	
+	/**
+	 * Traverse the tree with pre and post orders and assign two ordinal numbers for each node.
+	 */
+	public void assignPrePosOrderCode(){
+		this.arena.assignPrePosOrderCode(this.root, 0, 0);
+	}
+	
+	/**
+	 * This function will create an Nlist (using Nodelist implementation) for each selector (selector ID)
+	 * which was used to build the tree.
+	 * @param selector_count the number of selectors used to build the tree
+	 * @return array of Nlists of selectors
+	 */
+	public INlist[] create_Nlist_for_selectors_arr(int selector_count){
+		// Count the nodes of each selector by a scan over the arena (the root is at index 0),
+		// then add an empty Nodelist with the exact size for each selector.
+		// Note: selectorID of a selector is exactly its index in 'selector_nlists'
+		int[] node_counts = new int[selector_count];
+		this.arena.count_item_nodes(this.root+1, node_counts);
+		INlist[] selector_nlists = new INlist[selector_count];
+		for(int i=0; i<selector_count; i++){
+			selector_nlists[i] = new Nodelist(node_counts[i]);
+		}
+		
+		// Update selector_nlists, the root node is not associated with any selector
+		this.arena.update_nlists(this.root, false, selector_nlists);
+		
+		for(INlist nlist : selector_nlists) nlist.shrink();
+		
+		return selector_nlists;
+	}
+	
+	/**
+	 * All Nlists will be add to a map from string representation of each selector ID to the corresponding Nlist.
+	 * @param selector_nlists Nlists of selectors
+	 * @return The map structure from string representation of each selector ID to the corresponding Nlist
+	 */
+	public Map<String, INlist> create_selector_Nlist_map(INlist[] selector_nlists){
+		int total_selector_count = selector_nlists.length;
+		
+		Map<String, INlist> selector_nlist_map = new HashMap<String, INlist>(total_selector_count);
+		for(int i=0; i<total_selector_count; i++){
+			selector_nlist_map.put("["+i+"]", selector_nlists[i]);
+		}
+		
+		return selector_nlist_map;
+	}
+	
+	public int countNodes(){
+		return this.arena.size();
+	}
+}
@@ -0,0 +1,65 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.List;
+
+/**
+ * Worker thread which builds the subtrees below child nodes of the root of a PPCTree.
+ * </br>The records of a child node are a range of the index array of records, the range of the child node
+ * with item ID 'id' is from starts[id] to starts[id+1]. Child nodes are claimed one by one through 'globalIndex'.
+ * </br>New nodes are counted per item ID locally, the counts are added to the tree when the thread finishes.
+ */
+class BuildRootChildThread extends Thread{
+	private PPCTree tree;
+	private List<PPCNode> children;
+	private int[][] records;
+	private int[] order;
+	private int[] starts;
+	private int[] node_counts;
+	private IntHolder globalIndex;
+	
+	public BuildRootChildThread(PPCTree tree,
+								List<PPCNode> children,
+								int[][] records,
+								int[] order,
+								int[] starts,
+								int selector_count,
+								IntHolder globalIndex){
+		this.tree = tree;
+		this.children = children;
+		this.records = records;
+		this.order = order;
+		this.starts = starts;
+		this.node_counts = new int[selector_count];
+		this.globalIndex = globalIndex;
+	}
+	
+	public void run(){
+		int child_count = this.children.size();
+		int index, end;
+		PPCNode child;
+		int[] record;
+		while (true){
+			synchronized(this.globalIndex){
+				if(this.globalIndex.value >= child_count) break;
+				index = this.globalIndex.value;
+				this.globalIndex.value++;
+			}
+			
+			child = this.children.get(index);
+			end = this.starts[child.itemID+1];
+			for(int i=this.starts[child.itemID]; i<end; i++){
+				// the last id is the child node itself
+				record = this.records[this.order[i]];
+				this.tree.insert_suffix(child, record, record.length-2, this.node_counts);
+			}
+		}
+		
+		// node counts of this thread are added once
+		this.tree.add_node_counts(this.node_counts);
+	}
+}
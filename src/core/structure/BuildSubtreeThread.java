@@ -0,0 +1,66 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.List;
+
+/**
+ * Worker thread which builds subtrees at leaf nodes of the top part of a P3CTree
+ * and converts each subtree into a fragment with local pre-order and post-order codes.
+ */
+class BuildSubtreeThread extends Thread{
+	private P3CTree tree;
+	private List<PPCNode> leaf_nodes;
+	private SubtreeFragmentQueue queue;
+	private NodeStack stack = new NodeStack();
+	private PPCNodePool node_pool;
+	
+	/**
+	 * @param tree
+	 * @param leaf_nodes
+	 * @param queue
+	 * @param use_node_pool whether the thread recycles the nodes of its subtrees in its own pool
+	 */
+	public BuildSubtreeThread(P3CTree tree,
+							List<PPCNode> leaf_nodes,
+							SubtreeFragmentQueue queue,
+							boolean use_node_pool){
+		this.tree = tree;
+		this.leaf_nodes = leaf_nodes;
+		this.queue = queue;
+		this.node_pool = use_node_pool ? new PPCNodePool() : null;
+	}
+	
+	/**
+	 * Return the node pool of the thread, null if it does not use a pool
+	 */
+	public PPCNodePool getNodePool(){
+		return this.node_pool;
+	}
+	
+	public void run(){
+		try{
+			int index;
+			PPCNode leaf_node;
+			while((index = this.queue.claim()) != -1){
+				leaf_node = this.leaf_nodes.get(index);
+				
+				// Build a subtree with root at leaf_node
+				this.tree.buildSubtree(leaf_node, this.node_pool);
+				
+				// Collect the subtree nodes with their local codes, then release the subtree nodes into the pool of this thread,
+				// or drop them for the garbage collector without a pool. Only the fragment is kept until the splicing thread reaches it.
+				SubtreeFragment fragment = SubtreeFragment.extract(leaf_node, this.stack);
+				if(this.node_pool != null) this.node_pool.release_subtree(leaf_node);
+				else leaf_node.children.clear();
+				
+				this.queue.put(index, fragment);
+			}
+		}catch(Throwable e){
+			this.queue.fail(e);
+		}
+	}
+}
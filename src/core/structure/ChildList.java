@@ -0,0 +1,216 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * ChildList is the children list of a PPCNode, the child nodes are in ascending order of itemID.
+ * </br>A node with a small number of children keeps a sorted array and looks up a child by binary search.
+ * When the number of children exceeds WIDE_THRESHOLD, the list switches to an open-addressing hash table
+ * from itemID to child node, and a new child is appended at the end of the array without shifting.
+ * The array is sorted again lazily, when the children are accessed by index or iterated,
+ * e.g. when pre-order and post-order codes are assigned.
+ */
+public class ChildList extends AbstractList<PPCNode> {
+	private static final float allocate_rate = 1.75f;
+	private static final PPCNode[] EMPTY = new PPCNode[0];
+	private static final Comparator<PPCNode> ID_ORDER = new Comparator<PPCNode>(){
+		public int compare(PPCNode n1, PPCNode n2){
+			return Integer.compare(n1.itemID, n2.itemID);
+		}
+	};
+	
+	/**
+	 * The number of children from which the hash table is used
+	 */
+	public static final int WIDE_THRESHOLD = 32;
+	
+	private PPCNode[] nodes = EMPTY;
+	private int size = 0;
+	private boolean sorted = true;
+	
+	// Hash table from itemID to child node, null if the list is not wide
+	private int[] keys = null;
+	private PPCNode[] values = null;
+	private int mask;
+	
+	public ChildList(){}
+	
+	public int size(){
+		return this.size;
+	}
+	
+	/**
+	 * Return true if the children are looked up by the hash table
+	 */
+	public boolean isWide(){
+		return this.keys != null;
+	}
+	
+	/**
+	 * Return the child node at 'index' in ascending order of itemID
+	 */
+	public PPCNode get(int index){
+		if(index >= this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+		if(!this.sorted) this.sort();
+		return this.nodes[index];
+	}
+	
+	/**
+	 * Return the last child node, the one with the largest itemID
+	 */
+	public PPCNode last(){
+		return this.get(this.size-1);
+	}
+	
+	/**
+	 * Find the child node with 'item_id'
+	 * @param item_id
+	 * @return the child node, null if it does not exist
+	 */
+	public PPCNode find(int item_id){
+		if(this.keys != null){
+			int slot = hash(item_id) & this.mask;
+			int key;
+			while((key = this.keys[slot]) != -1){
+				if(key == item_id) return this.values[slot];
+				slot = (slot + 1) & this.mask;
+			}
+			return null;
+		}
+		
+		// Binary search on the id-based ordered children
+		int low = 0, high = this.size, mid;
+		PPCNode mid_child;
+		while (low < high) {
+			mid = (low + high) >>> 1;
+			mid_child = this.nodes[mid];
+			if (mid_child.itemID < item_id) low = mid + 1;
+			else if (mid_child.itemID > item_id) high = mid;
+			else return mid_child;
+		}
+		return null;
+	}
+	
+	/**
+	 * Insert a new child node, no child node with the same itemID may exist in the list
+	 * @param node
+	 */
+	public void insert(PPCNode node){
+		if(this.size == this.nodes.length) this.grow();
+		
+		if(this.keys != null){
+			this.nodes[this.size] = node;
+			this.size++;
+			if(this.sorted && node.itemID < this.nodes[this.size-2].itemID) this.sorted = false;
+			if(this.size*2 > this.keys.length) this.rehash(this.keys.length*2);
+			else this.put(node);
+			return;
+		}
+		
+		// position of the new node in the sorted array
+		int low = 0, high = this.size, mid;
+		while (low < high) {
+			mid = (low + high) >>> 1;
+			if (this.nodes[mid].itemID < node.itemID) low = mid + 1;
+			else high = mid;
+		}
+		System.arraycopy(this.nodes, low, this.nodes, low+1, this.size-low);
+		this.nodes[low] = node;
+		this.size++;
+		
+		if(this.size > WIDE_THRESHOLD) this.rehash(Integer.highestOneBit(this.size)*4);
+	}
+	
+	/**
+	 * Add a child node at 'index', for the compatibility with List.
+	 * </br>For a wide list, the index is ignored since the ascending order of itemID is restored lazily.
+	 */
+	public void add(int index, PPCNode node){
+		if(this.keys != null) this.insert(node);
+		else{
+			if(index < 0 || index > this.size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+			if(this.size == this.nodes.length) this.grow();
+			System.arraycopy(this.nodes, index, this.nodes, index+1, this.size-index);
+			this.nodes[index] = node;
+			this.size++;
+			if(this.size > WIDE_THRESHOLD) this.rehash(Integer.highestOneBit(this.size)*4);
+		}
+		this.modCount++;
+	}
+	
+	/**
+	 * Remove all child nodes and free the allocated space
+	 */
+	public void clear(){
+		this.nodes = EMPTY;
+		this.size = 0;
+		this.sorted = true;
+		this.keys = null;
+		this.values = null;
+		this.modCount++;
+	}
+	
+	/**
+	 * Remove all child nodes, a narrow array is kept for the next use of the list.
+	 * Used when the owner node is recycled by a PPCNodePool.
+	 */
+	void reset(){
+		if(this.nodes.length > WIDE_THRESHOLD) this.nodes = EMPTY;
+		else Arrays.fill(this.nodes, 0, this.size, null);
+		this.size = 0;
+		this.sorted = true;
+		this.keys = null;
+		this.values = null;
+		this.modCount++;
+	}
+	
+	/**
+	 * Put all child nodes into 'pool' from 'index', in any order
+	 * @return the next index of the pool
+	 */
+	int drainTo(PPCNodePool pool, int index){
+		for(int i=0; i<this.size; i++) index = pool.put(index, this.nodes[i]);
+		return index;
+	}
+	
+	/**
+	 * Restore the ascending order of itemID of the children
+	 */
+	public void sort(){
+		if(this.sorted) return;
+		Arrays.sort(this.nodes, 0, this.size, ID_ORDER);
+		this.sorted = true;
+	}
+	
+	private void grow(){
+		int new_capacity = (this.nodes.length == 0) ? 2 : (int)(this.nodes.length*allocate_rate) + 1;
+		this.nodes = Arrays.copyOf(this.nodes, new_capacity);
+	}
+	
+	private void rehash(int capacity){
+		this.keys = new int[capacity];
+		this.values = new PPCNode[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(this.keys, -1);
+		for(int i=0; i<this.size; i++) this.put(this.nodes[i]);
+	}
+	
+	private void put(PPCNode node){
+		int slot = hash(node.itemID) & this.mask;
+		while(this.keys[slot] != -1) slot = (slot + 1) & this.mask;
+		this.keys[slot] = node.itemID;
+		this.values[slot] = node;
+	}
+	
+	private static int hash(int item_id){
+		int h = item_id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+}
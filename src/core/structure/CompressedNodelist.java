@@ -0,0 +1,451 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.Arrays;
+
+/**
+ * A compressed implementation for Nlist, nodes are encoded in blocks of at most BLOCK_SIZE nodes.
+ * </br>In a block, the pre-code of a node is stored as the variable-byte delta to the previous pre-code
+ * (the pre-code of the first node is kept in 'block_pres'), the pos-code as the zigzag variable-byte difference pos-pre,
+ * and the support count with a fixed width of 1 to 4 bytes, the width is chosen by the largest count in the block.
+ * </br>New nodes are added to an open block of plain arrays which is encoded when it is full or the Nlist is shrunk.
+ * Nodes should be read sequentially by a cursor which decodes one block at a time, get(index, node) decodes
+ * a part of a block for each call.
+ * </br>The purpose is to reduce memory of Nlists, pre-codes are increasing and most counts are small.
+ */
+public class CompressedNodelist implements INlist {
+	/**
+	 * The max number of nodes in a block
+	 */
+	public static final int BLOCK_SIZE = 64;
+	private static final float allocate_rate = 1.75f;
+	// max bytes of an encoded node: two variable-byte ints and a 4-byte count
+	private static final int MAX_NODE_BYTES = 14;
+	
+	// encoded blocks
+	private byte[] data;
+	private int data_size = 0;
+	private int[] block_offsets;	// offset of each block in 'data'
+	private int[] block_starts;		// index of the first node of each block, block_starts[block_count] is the number of encoded nodes
+	private int[] block_pres;		// pre-code of the first node of each block
+	private int block_count = 0;
+	
+	// the open block, not encoded yet
+	private int[] open_pres = new int[BLOCK_SIZE];
+	private int[] open_poss = new int[BLOCK_SIZE];
+	private int[] open_counts = new int[BLOCK_SIZE];
+	private int open_size = 0;
+	
+	private int supportCount = -1;
+	
+	public CompressedNodelist(int capacity){
+		int block_capacity = capacity/BLOCK_SIZE + 2;
+		this.data = new byte[Math.max(16, capacity*4)];
+		this.block_offsets = new int[block_capacity];
+		this.block_starts = new int[block_capacity+1];
+		this.block_pres = new int[block_capacity];
+	}
+	
+	public CompressedNodelist(){
+		this(16);
+	}
+	
+	/**
+	 * Create a compressed copy of 'nlist'
+	 * @param nlist
+	 */
+	public CompressedNodelist(INlist nlist){
+		this(nlist.size());
+		NlistCursor cursor = NlistCursor.open(nlist);
+		Node node = new Node();
+		while(cursor.next(node)) this.add(node.pre, node.pos, node.count);
+		this.shrink();
+	}
+	
+	public int size(){
+		return this.block_starts[this.block_count] + this.open_size;
+	}
+	
+	/**
+	 * Return the number of nodes which can be stored before a new block is opened
+	 */
+	public int capacity(){
+		return this.block_starts[this.block_count] + BLOCK_SIZE;
+	}
+	
+	/**
+	 * Return the number of encoded blocks
+	 */
+	public int getBlockCount(){
+		return this.block_count;
+	}
+	
+	/**
+	 * Return the number of bytes allocated for the Nlist, without object headers
+	 */
+	public long getByteSize(){
+		return this.data.length + 4L*(this.block_offsets.length + this.block_starts.length + this.block_pres.length)
+				+ 3L*4*BLOCK_SIZE;
+	}
+	
+	/**
+	 * Return a cursor at the first node
+	 */
+	public NlistCursor cursor(){
+		return new Cursor();
+	}
+	
+	/**
+	 * Fill information of the node at position 'index' to the parameter 'node'
+	 * </br>Nodes of a block are decoded from the beginning of the block, use a cursor to read nodes sequentially.
+	 * @param index
+	 * @param node
+	 */
+	public void get(int index, Node node){
+		int encoded_size = this.block_starts[this.block_count];
+		if(index >= encoded_size){
+			index -= encoded_size;
+			node.pre = this.open_pres[index];
+			node.pos = this.open_poss[index];
+			node.count = this.open_counts[index];
+			return;
+		}
+		
+		// the block containing the node
+		int block = Arrays.binarySearch(this.block_starts, 0, this.block_count, index);
+		if(block < 0) block = -block - 2;
+		
+		byte[] data = this.data;
+		int p = this.block_offsets[block];
+		int width = data[p++];
+		int pre = this.block_pres[block];
+		int skip = index - this.block_starts[block];
+		for(int i=0; i<skip; i++){
+			// skip the pos-code and the count of a node, then add the pre delta of the next node
+			while(data[p++] < 0);
+			p += width;
+			int delta = 0, shift = 0, b;
+			do{
+				b = data[p++];
+				delta |= (b & 0x7F) << shift;
+				shift += 7;
+			}while(b < 0);
+			pre += delta;
+		}
+		
+		int value = 0, shift = 0, b;
+		do{
+			b = data[p++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		}while(b < 0);
+		node.pre = pre;
+		node.pos = pre + ((value >>> 1) ^ -(value & 1));
+		node.count = read_count(data, p, width);
+	}
+	
+	public int pre(int index){
+		Node node = new Node();
+		this.get(index, node);
+		return node.pre;
+	}
+	
+	public int pos(int index){
+		Node node = new Node();
+		this.get(index, node);
+		return node.pos;
+	}
+	
+	public int count(int index){
+		Node node = new Node();
+		this.get(index, node);
+		return node.count;
+	}
+	
+	/**
+	 * Return the sum of support counts of all nodes
+	 * @return 
+	 */
+	public int supportCount(){
+		if(this.supportCount == -1){
+			int sc = 0;
+			NlistCursor cursor = this.cursor();
+			Node node = new Node();
+			while(cursor.next(node)) sc += node.count;
+			return (this.supportCount = sc);
+		}
+		return this.supportCount;
+	}
+	
+	/**
+	 * Reset the support count
+	 */
+	public void resetSC() {
+		this.supportCount = -1;
+	}
+	
+	/**
+	 * Allocate the space for encoding about 'capacity' nodes
+	 * @param capacity
+	 */
+	public void allocate(int capacity){
+		this.ensure_data(capacity*4);
+		this.ensure_blocks(capacity/BLOCK_SIZE + 1);
+	}
+	
+	/**
+	 * This function should only be used when being sure that there will not be any new nodes added.
+	 * @param efficient_rate: if the used bytes < allocated bytes*efficient_rate, the shrink will be done.
+	 */
+	public CompressedNodelist shrink(float efficient_rate){
+		this.encode_open_block();
+		if(this.data_size < this.data.length*efficient_rate) this.shrink();
+		return this;
+	}
+	
+	/**
+	 * This function should only be used when being sure that there will not be any new nodes added.
+	 * </br> The open block is encoded and the allocated space is shrunk to the used space.
+	 */
+	public CompressedNodelist shrink(){
+		this.encode_open_block();
+		this.data = Arrays.copyOf(this.data, this.data_size);
+		this.block_offsets = Arrays.copyOf(this.block_offsets, this.block_count);
+		this.block_starts = Arrays.copyOf(this.block_starts, this.block_count+1);
+		this.block_pres = Arrays.copyOf(this.block_pres, this.block_count);
+		return this;
+	}
+	
+	/**
+	 * Return the string representation of the Nlist, just for testing
+	 */
+	public String toString(){
+		StringBuilder sb = new StringBuilder(200);
+		sb.append('{');
+		NlistCursor cursor = this.cursor();
+		Node node = new Node();
+		while(cursor.next(node)){
+			sb.append('<').append(node.pre).append(',')
+			.append(node.pos).append(">:")
+			.append(node.count).append("; ");
+		}
+		if (this.size() > 0) sb.setLength(sb.length()-2);	// not an empty list
+		sb.append("}, freq:").append(this.supportCount());
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Add a new node to the end of the node list
+	 * @param pre
+	 * @param pos
+	 * @param count
+	 */
+	public void add(int pre, int pos, int count){
+		if(this.open_size == BLOCK_SIZE) this.encode_open_block();
+		this.open_pres[this.open_size] = pre;
+		this.open_poss[this.open_size] = pos;
+		this.open_counts[this.open_size] = count;
+		this.open_size++;
+	}
+	
+	/**
+	 * Based on the information of parameter 'node', a new node is added to the end of the node list
+	 * @param node
+	 */
+	public void add(Node node){
+		this.add(node.pre, node.pos, node.count);
+	}
+	
+	/**
+	 * Add the 'supportCount' to the support count of node at the position 'index'.
+	 * </br>Only nodes of the open block can be updated, encoded nodes are read-only.
+	 * @param index
+	 * @param supportCount
+	 */
+	public void accSupportCount(int index, int supportCount){
+		int encoded_size = this.block_starts[this.block_count];
+		if(index < encoded_size){
+			System.err.println("accSupportCount(int index, int supportCount) method is not supported by CompressedNodelist for encoded nodes");
+			System.exit(0);
+		}
+		this.open_counts[index-encoded_size] += supportCount;
+	}
+	
+	public boolean isIdentical(INlist nlist) {
+		if (this.size() != nlist.size()) return false;
+		
+		NlistCursor cursor = this.cursor(), other = NlistCursor.open(nlist);
+		Node node = new Node(), other_node = new Node();
+		while(cursor.next(node)){
+			other.next(other_node);
+			if (node.pre != other_node.pre || node.pos != other_node.pos || node.count != other_node.count) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * CompressedNodelist does not support this method.
+	 */
+	public void add(PPCNode ppcNode) {
+		System.err.println("add(PPCNode ppcNode) method is not supported by CompressedNodelist");
+		System.exit(0);
+	}
+	
+	/**
+	 * CompressedNodelist does not support this method.
+	 */
+	public void insert(PPCNode ppcNode) {
+		System.err.println("insert(PPCNode ppcNode) method is not supported by CompressedNodelist");
+		System.exit(0);
+	}
+	
+	//////////////////////////////////////////////// ENCODING ////////////////////////////////////////////////
+	
+	private void encode_open_block(){
+		int n = this.open_size;
+		if(n == 0) return;
+		
+		int max_count = 0;
+		for(int i=0; i<n; i++) max_count |= this.open_counts[i];
+		int width = (max_count >>> 8 == 0) ? 1 : (max_count >>> 16 == 0) ? 2 : (max_count >>> 24 == 0) ? 3 : 4;
+		
+		this.ensure_blocks(this.block_count+1);
+		this.ensure_data(this.data_size + 1 + n*MAX_NODE_BYTES);
+		int block = this.block_count;
+		this.block_offsets[block] = this.data_size;
+		this.block_pres[block] = this.open_pres[0];
+		this.block_starts[block+1] = this.block_starts[block] + n;
+		
+		byte[] data = this.data;
+		int p = this.data_size;
+		data[p++] = (byte) width;
+		int pre, prev_pre = this.open_pres[0], count;
+		for(int i=0; i<n; i++){
+			pre = this.open_pres[i];
+			if(i > 0) p = write_varint(data, p, pre - prev_pre);
+			prev_pre = pre;
+			
+			// zigzag of pos-pre, a small negative difference is also a small number
+			int diff = this.open_poss[i] - pre;
+			p = write_varint(data, p, (diff << 1) ^ (diff >> 31));
+			
+			count = this.open_counts[i];
+			for(int k=0; k<width; k++){
+				data[p++] = (byte) count;
+				count >>>= 8;
+			}
+		}
+		
+		this.data_size = p;
+		this.block_count++;
+		this.open_size = 0;
+	}
+	
+	private static int write_varint(byte[] data, int p, int value){
+		while((value & ~0x7F) != 0){
+			data[p++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		data[p++] = (byte) value;
+		return p;
+	}
+	
+	private static int read_count(byte[] data, int p, int width){
+		int count = data[p] & 0xFF;
+		for(int k=1; k<width; k++) count |= (data[p+k] & 0xFF) << (8*k);
+		return count;
+	}
+	
+	private void ensure_data(int capacity){
+		if(capacity > this.data.length){
+			this.data = Arrays.copyOf(this.data, Math.max(capacity, (int)(this.data.length*allocate_rate)));
+		}
+	}
+	
+	private void ensure_blocks(int block_capacity){
+		if(block_capacity > this.block_offsets.length){
+			int new_capacity = Math.max(block_capacity, (int)(this.block_offsets.length*allocate_rate) + 1);
+			this.block_offsets = Arrays.copyOf(this.block_offsets, new_capacity);
+			this.block_starts = Arrays.copyOf(this.block_starts, new_capacity+1);
+			this.block_pres = Arrays.copyOf(this.block_pres, new_capacity);
+		}
+	}
+	
+	/**
+	 * Cursor which decodes a whole block into plain arrays, then reads the nodes from the arrays.
+	 * Nodes of the open block are read directly.
+	 */
+	private class Cursor extends NlistCursor {
+		private int[] pres = new int[BLOCK_SIZE];
+		private int[] poss = new int[BLOCK_SIZE];
+		private int[] counts = new int[BLOCK_SIZE];
+		private int size = 0;
+		private int index = 0;
+		private int next_block = 0;
+		private boolean open_block_read = false;
+		
+		public boolean next(Node node){
+			if(this.index == this.size && !this.load_next_block()) return false;
+			node.pre = this.pres[this.index];
+			node.pos = this.poss[this.index];
+			node.count = this.counts[this.index];
+			this.index++;
+			return true;
+		}
+		
+		private boolean load_next_block(){
+			CompressedNodelist nlist = CompressedNodelist.this;
+			if(this.next_block == nlist.block_count){
+				if(this.open_block_read || nlist.open_size == 0) return false;
+				this.pres = nlist.open_pres;
+				this.poss = nlist.open_poss;
+				this.counts = nlist.open_counts;
+				this.size = nlist.open_size;
+				this.index = 0;
+				this.open_block_read = true;
+				return true;
+			}
+			
+			int block = this.next_block;
+			int n = nlist.block_starts[block+1] - nlist.block_starts[block];
+			byte[] data = nlist.data;
+			int p = nlist.block_offsets[block];
+			int width = data[p++];
+			int pre = nlist.block_pres[block];
+			int value, shift, b;
+			for(int i=0; i<n; i++){
+				if(i > 0){
+					value = 0; shift = 0;
+					do{
+						b = data[p++];
+						value |= (b & 0x7F) << shift;
+						shift += 7;
+					}while(b < 0);
+					pre += value;
+				}
+				this.pres[i] = pre;
+				
+				value = 0; shift = 0;
+				do{
+					b = data[p++];
+					value |= (b & 0x7F) << shift;
+					shift += 7;
+				}while(b < 0);
+				this.poss[i] = pre + ((value >>> 1) ^ -(value & 1));
+				
+				this.counts[i] = read_count(data, p, width);
+				p += width;
+			}
+			
+			this.size = n;
+			this.index = 0;
+			this.next_block++;
+			return true;
+		}
+	}
+}
@@ -0,0 +1,215 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * ExternalSortNlistBuilder creates Nlists of selectors, identical to the ones of PPCTree, from records which do not fit in memory.
+ * </br>Records are added one by one and buffered, a full buffer is sorted in lexicographic order of the reversed records
+ * and spilled to a temporary file as a sorted run, each record is written in reversed order.
+ * At the end, the runs are merged (k-way) and the merged records are streamed through a PrefixSweeper.
+ * </br>Memory is bounded by the run buffer, the merge buffers (one record and one stream buffer per run),
+ * the prefix stack (the longest record) and the Nlists themselves.
+ */
+public class ExternalSortNlistBuilder {
+	private static final int STREAM_BUFFER_SIZE = 1 << 16;
+	
+	private int selector_count;
+	private File temp_dir;
+	
+	private int[][] run_buffer;
+	private int buffered_count = 0;
+	private List<File> run_files = new ArrayList<File>();
+	private long record_count = 0;
+	private int node_count = 0;
+	
+	/**
+	 * @param selector_count the number of selectors, all ids are less than this number
+	 * @param run_size the max number of records in memory, sorted and spilled together as one run
+	 * @param temp_dir directory of the temporary run files, null for the default temporary-file directory
+	 */
+	public ExternalSortNlistBuilder(int selector_count, int run_size, File temp_dir){
+		this.selector_count = selector_count;
+		this.temp_dir = temp_dir;
+		this.run_buffer = new int[Math.max(1, run_size)][];
+	}
+	
+	/**
+	 * Add a record, the record is referenced (not copied) until its run is spilled
+	 * @param record an int array of selector IDs in ascending order
+	 * @throws IOException
+	 */
+	public void add(int[] record) throws IOException{
+		if(this.buffered_count == this.run_buffer.length) this.spill();
+		this.run_buffer[this.buffered_count] = record;
+		this.buffered_count++;
+		this.record_count++;
+	}
+	
+	/**
+	 * Return the number of records added
+	 */
+	public long getRecordCount(){
+		return this.record_count;
+	}
+	
+	/**
+	 * Return the number of runs spilled to temporary files
+	 */
+	public int getRunCount(){
+		return this.run_files.size();
+	}
+	
+	/**
+	 * Return the number of nodes of the corresponding PPCTree (including the root node), known after the Nlists are created
+	 */
+	public int countNodes(){
+		return this.node_count;
+	}
+	
+	/**
+	 * Sort the buffered records and return their order
+	 */
+	private int[] sort_buffer(){
+		int count = this.buffered_count;
+		int[] order = new int[count];
+		for(int i=0; i<count; i++) order[i] = i;
+		if(count > 1){
+			RecordRadixSorter sorter = new RecordRadixSorter(this.run_buffer, order, new int[count], this.selector_count);
+			sorter.sort(0, count, 0);
+		}
+		return order;
+	}
+	
+	/**
+	 * Sort the buffered records and write them as a run to a temporary file
+	 */
+	private void spill() throws IOException{
+		int[] order = this.sort_buffer();
+		
+		File run_file = File.createTempFile("nlist_run", ".bin", this.temp_dir);
+		run_file.deleteOnExit();
+		this.run_files.add(run_file);
+		
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run_file), STREAM_BUFFER_SIZE));
+		try{
+			int[] record;
+			for(int index : order){
+				record = this.run_buffer[index];
+				// a record: its length and then its ids in reversed order
+				output.writeInt(record.length);
+				for(int i=record.length-1; i>-1; i--) output.writeInt(record[i]);
+			}
+		}finally{
+			output.close();
+		}
+		
+		// release the records of the run
+		for(int i=0; i<this.buffered_count; i++) this.run_buffer[i] = null;
+		this.buffered_count = 0;
+	}
+	
+	/**
+	 * Merge all runs and create an Nlist (using Nodelist implementation) for each selector.
+	 * If all records are still in the buffer, they are swept without any temporary file.
+	 * Temporary files are deleted afterward.
+	 * @return array of Nlists of selectors
+	 * @throws IOException
+	 */
+	public INlist[] create_Nlist_for_selectors_arr() throws IOException{
+		PrefixSweeper sweeper = new PrefixSweeper(this.selector_count);
+		
+		if(this.run_files.isEmpty()){
+			int[] order = this.sort_buffer();
+			for(int index : order) sweeper.add(this.run_buffer[index]);
+			this.run_buffer = null;
+			this.node_count = sweeper.countNodes();
+			return sweeper.finish();
+		}
+		
+		if(this.buffered_count > 0) this.spill();
+		this.run_buffer = null;
+		
+		// k-way merge of the runs
+		PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(this.run_files.size(), RunReader.ORDER);
+		try{
+			for(File run_file : this.run_files){
+				RunReader reader = new RunReader(run_file);
+				if(reader.next()) queue.add(reader);
+				else reader.close();
+			}
+			
+			RunReader reader;
+			while((reader = queue.poll()) != null){
+				sweeper.add_reversed(reader.record, reader.length);
+				if(reader.next()) queue.add(reader);
+				else reader.close();
+			}
+		}finally{
+			for(RunReader reader : queue) reader.close();
+			for(File run_file : this.run_files) run_file.delete();
+			this.run_files.clear();
+		}
+		
+		this.node_count = sweeper.countNodes();
+		return sweeper.finish();
+	}
+	
+	/**
+	 * Sequential reader of a run file, holds the current record in reversed order
+	 */
+	private static class RunReader {
+		static final Comparator<RunReader> ORDER = new Comparator<RunReader>(){
+			public int compare(RunReader r1, RunReader r2){
+				int[] record1 = r1.record, record2 = r2.record;
+				int length = Math.min(r1.length, r2.length);
+				for(int i=0; i<length; i++){
+					if(record1[i] != record2[i]) return (record1[i] < record2[i]) ? -1 : 1;
+				}
+				return Integer.compare(r1.length, r2.length);
+			}
+		};
+		
+		private DataInputStream input;
+		int[] record = new int[64];
+		int length = 0;
+		
+		RunReader(File run_file) throws IOException{
+			this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(run_file), STREAM_BUFFER_SIZE));
+		}
+		
+		/**
+		 * Read the next record, return false at the end of the run
+		 */
+		boolean next() throws IOException{
+			try{
+				this.length = this.input.readInt();
+			}catch(EOFException e){
+				return false;
+			}
+			if(this.length > this.record.length) this.record = new int[Math.max(this.length, this.record.length*2)];
+			for(int i=0; i<this.length; i++) this.record[i] = this.input.readInt();
+			return true;
+		}
+		
+		void close() throws IOException{
+			this.input.close();
+		}
+	}
+}
@@ -0,0 +1,156 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * A read-only view of an Nlist in the interleaved (pre, pos, count) array of a FrozenNlists.
+ * </br>The node at position 'index' is the triple at triples[3*(start+index)].
+ */
+public final class FrozenNlist implements INlist {
+	final int[] triples;
+	final int start;
+	private final int size;
+	private int supportCount = -1;
+	
+	FrozenNlist(int[] triples, int start, int size){
+		this.triples = triples;
+		this.start = start;
+		this.size = size;
+	}
+	
+	public int size(){
+		return this.size;
+	}
+	
+	public int capacity(){
+		return this.size;
+	}
+	
+	/**
+	 * Fill information of the node at position 'index' to the parameter 'node'
+	 * @param index
+	 * @param node
+	 */
+	public void get(int index, Node node){
+		int p = 3*(this.start+index);
+		node.pre = this.triples[p];
+		node.pos = this.triples[p+1];
+		node.count = this.triples[p+2];
+	}
+	
+	public int pre(int index){
+		return this.triples[3*(this.start+index)];
+	}
+	
+	public int pos(int index){
+		return this.triples[3*(this.start+index)+1];
+	}
+	
+	public int count(int index){
+		return this.triples[3*(this.start+index)+2];
+	}
+	
+	/**
+	 * Return the sum of support counts of all nodes
+	 * @return 
+	 */
+	public int supportCount(){
+		if(this.supportCount == -1){
+			int sc = 0, end = 3*(this.start+this.size);
+			for(int p=3*this.start+2; p<end; p+=3) sc += this.triples[p];
+			return (this.supportCount = sc);
+		}
+		return this.supportCount;
+	}
+	
+	/**
+	 * Reset the support count
+	 */
+	public void resetSC() {
+		this.supportCount = -1;
+	}
+	
+	/**
+	 * The view is read-only, nothing is allocated
+	 */
+	public void allocate(int capacity){}
+	
+	public FrozenNlist shrink(float efficient_rate){
+		return this;
+	}
+	
+	public FrozenNlist shrink(){
+		return this;
+	}
+	
+	/**
+	 * Return the string representation of the Nlist, just for testing
+	 */
+	public String toString(){
+		StringBuilder sb = new StringBuilder(200);
+		sb.append('{');
+		for(int i=0; i<this.size; i++){
+			sb.append('<').append(this.pre(i)).append(',')
+			.append(this.pos(i)).append(">:")
+			.append(this.count(i)).append("; ");
+		}
+		if (this.size > 0) sb.setLength(sb.length()-2);	// not an empty list
+		sb.append("}, freq:").append(this.supportCount());
+		
+		return sb.toString();
+	}
+	
+	public boolean isIdentical(INlist nlist) {
+		if (this.size != nlist.size()) return false;
+		
+		Node node = new Node();
+		for (int i=0; i<this.size; i++){
+			nlist.get(i, node);
+			if (this.pre(i) != node.pre || this.pos(i) != node.pos || this.count(i) != node.count) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * FrozenNlist does not support this method.
+	 */
+	public void add(int pre, int pos, int count){
+		System.err.println("add(int pre, int pos, int count) method is not supported by FrozenNlist");
+		System.exit(0);
+	}
+	
+	/**
+	 * FrozenNlist does not support this method.
+	 */
+	public void add(Node node){
+		System.err.println("add(Node node) method is not supported by FrozenNlist");
+		System.exit(0);
+	}
+	
+	/**
+	 * FrozenNlist does not support this method.
+	 */
+	public void accSupportCount(int index, int count){
+		System.err.println("accSupportCount(int index, int count) method is not supported by FrozenNlist");
+		System.exit(0);
+	}
+	
+	/**
+	 * FrozenNlist does not support this method.
+	 */
+	public void add(PPCNode ppcNode) {
+		System.err.println("add(PPCNode ppcNode) method is not supported by FrozenNlist");
+		System.exit(0);
+	}
+	
+	/**
+	 * FrozenNlist does not support this method.
+	 */
+	public void insert(PPCNode ppcNode) {
+		System.err.println("insert(PPCNode ppcNode) method is not supported by FrozenNlist");
+		System.exit(0);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * FrozenNlists packs the Nlists of all selectors into one contiguous CSR-style layout:
+ * a single int array of interleaved (pre, pos, count) triples and an array of offsets,
+ * the nodes of the Nlist at index i are the triples from offsets[i] to offsets[i+1].
+ * </br>The Nlist of each selector is a FrozenNlist, a lightweight read-only view over the layout.
+ * </br>The purpose is to remove the per-selector arrays and to keep the nodes of Nlists close in memory.
+ */
+public class FrozenNlists {
+	final int[] triples;
+	final int[] offsets;
+	private final FrozenNlist[] views;
+	
+	/**
+	 * Pack the nodes of 'nlists' in their order
+	 * @param nlists
+	 */
+	public FrozenNlists(INlist[] nlists){
+		long node_count = 0;
+		for(INlist nlist : nlists) node_count += nlist.size();
+		if(node_count*3 > Integer.MAX_VALUE-8)
+			throw new IllegalArgumentException("Too many nodes to freeze in one array: " + node_count);
+		
+		this.triples = new int[(int) node_count*3];
+		this.offsets = new int[nlists.length+1];
+		this.views = new FrozenNlist[nlists.length];
+		
+		int p = 0;
+		Node node = new Node();
+		for(int i=0; i<nlists.length; i++){
+			this.offsets[i] = p/3;
+			NlistCursor cursor = NlistCursor.open(nlists[i]);
+			while(cursor.next(node)){
+				this.triples[p] = node.pre;
+				this.triples[p+1] = node.pos;
+				this.triples[p+2] = node.count;
+				p += 3;
+			}
+			this.offsets[i+1] = p/3;
+			this.views[i] = new FrozenNlist(this.triples, this.offsets[i], this.offsets[i+1]-this.offsets[i]);
+		}
+	}
+	
+	/**
+	 * Return the number of Nlists
+	 */
+	public int size(){
+		return this.views.length;
+	}
+	
+	/**
+	 * Return the view of the Nlist at 'index'
+	 * @param index
+	 */
+	public FrozenNlist get(int index){
+		return this.views[index];
+	}
+	
+	/**
+	 * Return the number of bytes of the layout and the views, without object headers of the arrays
+	 */
+	public long getByteSize(){
+		// a view: object header, a reference, three ints
+		return 4L*this.triples.length + 4L*this.offsets.length + 4L*this.views.length + 32L*this.views.length;
+	}
+}
@@ -16,6 +16,7 @@ class Generate2SelectorSetsThread extends Thread{
 	private Matrix matrix;
 	private IntHolder globalIndex;
 	private int id;
+	private NodeStack stack = new NodeStack();
 	
 	public Generate2SelectorSetsThread(List<PPCNode> child_list,
 									Matrix matrix,
@@ -41,7 +42,7 @@ class Generate2SelectorSetsThread extends Thread{
 				globalIndex.value++;
 			}
 			
-			for(PPCNode l2_child : l1_child.children) update_recursive_supportcount_of_2selector_sets(l2_child);
+			update_supportcount_of_2selector_sets(l1_child);
 		}
 		
 		// Summary local support for 2selector_sets.
@@ -56,19 +57,29 @@ class Generate2SelectorSetsThread extends Thread{
 	}
 	
 	/**
-	 * This procedure accumulate the support count for 2-itemsets, the items are in item_Index
-	 * @param node
+	 * This procedure accumulate the support count for 2-itemsets, the items are in item_Index,
+	 * from all descendant nodes of 'l1_child' (excluding 'l1_child').
+	 * </br>The descendant nodes are visited in pre-order with the explicit stack.
+	 * @param l1_child
 	 */
-    private void update_recursive_supportcount_of_2selector_sets(PPCNode node){	
-    	PPCNode parentNode = node.parent;
-    	
-    	while(parentNode.parent != null){	// if parentNode.parent == null, parentNode is the root.
-    		// Note: node.itemID means selectorID
-    		matrix.add(node.itemID, parentNode.itemID, node.count);
-    		parentNode = parentNode.parent;
+    private void update_supportcount_of_2selector_sets(PPCNode l1_child){
+    	NodeStack stack = this.stack;
+    	PPCNode node, parentNode;
+    	stack.push(l1_child);
+    	while(!stack.isEmpty()){
+    		if((node = stack.next_child()) == null){
+    			stack.pop();
+    			continue;
+    		}
+    		
+    		parentNode = node.parent;
+    		while(parentNode.parent != null){	// if parentNode.parent == null, parentNode is the root.
+    			// Note: node.itemID means selectorID
+    			matrix.add(node.itemID, parentNode.itemID, node.count);
+    			parentNode = parentNode.parent;
+    		}
+    		
+    		stack.push(node);
     	}
-    	
-    	// If the current node is not a leaf node, traverse all its children
-    	for(PPCNode child : node.children) update_recursive_supportcount_of_2selector_sets(child);
     }
 }
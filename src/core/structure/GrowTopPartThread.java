@@ -0,0 +1,46 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.List;
+
+/**
+ * Worker thread which builds the top part of a P3CTree below nodes of a frontier, each node of the frontier
+ * is claimed through 'globalIndex' and its descendants are grown with the own partitioner of the thread.
+ */
+class GrowTopPartThread extends Thread{
+	private P3CTree tree;
+	private List<PPCNode> frontier;
+	private TopPartPartitioner partitioner;
+	private IntHolder globalIndex;
+	private int max_inst_count;
+	
+	public GrowTopPartThread(P3CTree tree,
+							List<PPCNode> frontier,
+							TopPartPartitioner partitioner,
+							IntHolder globalIndex,
+							int max_inst_count){
+		this.tree = tree;
+		this.frontier = frontier;
+		this.partitioner = partitioner;
+		this.globalIndex = globalIndex;
+		this.max_inst_count = max_inst_count;
+	}
+	
+	public void run(){
+		NodeStack stack = new NodeStack();
+		int size = this.frontier.size();
+		PPCNode node;
+		while (true){
+			synchronized(this.globalIndex){
+				if(this.globalIndex.value >= size) break;
+				node = this.frontier.get(this.globalIndex.value);
+				this.globalIndex.value++;
+			}
+			this.tree.growTopPart(node, this.max_inst_count, this.partitioner, stack);
+		}
+	}
+}
@@ -29,6 +29,24 @@ public interface INlist {
  	 */
  	public void get(int index, Node node);
  	
+ 	/**
+ 	 * Return the pre-order code of the node at position 'index'
+ 	 * @param index
+ 	 */
+ 	public int pre(int index);
+ 	
+ 	/**
+ 	 * Return the post-order code of the node at position 'index'
+ 	 * @param index
+ 	 */
+ 	public int pos(int index);
+ 	
+ 	/**
+ 	 * Return the support count of the node at position 'index'
+ 	 * @param index
+ 	 */
+ 	public int count(int index);
+ 	
  	/**
  	 * Return the sum of support counts of all nodes
  	 * @return 
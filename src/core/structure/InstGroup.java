@@ -1,13 +1,24 @@
 package core.structure;
 
-import java.util.List;
-
+/**
+ * A group of instances at a leaf node of the top part of a P3CTree,
+ * the range [offset, offset+length) of the index array of records of the tree.
+ * </br>Ids of an instance to build the subtree are from the index (instance.length - level) to the index 0.
+ */
 public class InstGroup {
 	public int level;
-	public List<int[]> instances;
+	public int offset;
+	public int length;
+	
+	/**
+	 * The estimated footprint in bytes of the subtree to build from the group, cached by P3CTree.estimate_subtree_bytes,
+	 * -1 if it is not estimated yet
+	 */
+	public long estimated_bytes = -1;
 	
-	public InstGroup(int level, List<int[]> instances){
+	public InstGroup(int level, int offset, int length){
 		this.level = level;
-		this.instances = instances;
+		this.offset = offset;
+		this.length = length;
 	}
 }
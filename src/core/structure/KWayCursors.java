@@ -0,0 +1,75 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * KWayCursors keeps the backing arrays, the indexes and the cursors of the k Nodelists of a k-way intersection
+ * in Supporter. It is scratch space reused by the queries of one thread, its arrays only grow with k.
+ * </br>The references to the Nlists are cleared after each query, so a thread does not keep them alive.
+ */
+final class KWayCursors {
+	int k = 0;
+	int[][] pres = new int[8][];
+	int[][] poss = new int[8][];
+	int[] counts0;
+	// support count of the first Nlist, set for the bounded intersection
+	int total0;
+	int[] sizes = new int[8];
+	int[] cursors = new int[8];
+	PreCodeBitmap[] bitmaps = new PreCodeBitmap[8];
+	SkipIndex[] skips = new SkipIndex[8];
+	
+	/**
+	 * Load the Nlists nlists[ids[0]], ..., nlists[ids[k-1]] (or all 'nlists' if 'ids' is null), all cursors are at 0
+	 * @param nlists
+	 * @param ids
+	 * @return false if some Nlist is not a Nodelist, nothing is loaded then
+	 */
+	boolean load(INlist[] nlists, int[] ids){
+		int k = (ids == null) ? nlists.length : ids.length;
+		for(int j=0; j<k; j++){
+			if(!(nlists[(ids == null) ? j : ids[j]] instanceof Nodelist)) return false;
+		}
+		if(k > this.sizes.length) this.grow(k);
+		
+		Nodelist nodelist;
+		for(int j=0; j<k; j++){
+			nodelist = (Nodelist) nlists[(ids == null) ? j : ids[j]];
+			this.pres[j] = nodelist.pres();
+			this.poss[j] = nodelist.poss();
+			this.sizes[j] = nodelist.size();
+			this.cursors[j] = 0;
+			this.bitmaps[j] = nodelist.preBitmap();
+			this.skips[j] = nodelist.skipIndex();
+			if(j == 0) this.counts0 = nodelist.counts();
+		}
+		this.k = k;
+		return true;
+	}
+	
+	private void grow(int k){
+		this.pres = new int[k][];
+		this.poss = new int[k][];
+		this.sizes = new int[k];
+		this.cursors = new int[k];
+		this.bitmaps = new PreCodeBitmap[k];
+		this.skips = new SkipIndex[k];
+	}
+	
+	/**
+	 * Drop the references to the loaded Nlists
+	 */
+	void clear(){
+		for(int j=0; j<this.k; j++){
+			this.pres[j] = null;
+			this.poss[j] = null;
+			this.bitmaps[j] = null;
+			this.skips[j] = null;
+		}
+		this.counts0 = null;
+		this.k = 0;
+	}
+}
@@ -0,0 +1,132 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * MappedNlists serves the Nlists of a section of a file, written by write(...), directly from memory-mapped regions.
+ * </br>The section is a table of (count+1) long node offsets followed by the (pre, pos, count) triples of all Nlists,
+ * the numbers are little-endian. The nodes of the Nlist at index i are the triples from offsets[i] to offsets[i+1].
+ * </br>Each Nlist is a read-only OffHeapNlist over a mapped region, nothing is copied into the heap.
+ * A region is smaller than 2GB and contains only whole Nlists.
+ */
+public class MappedNlists {
+	/**
+	 * Max bytes of a mapped region, a multiple of the node size
+	 */
+	public static final int MAX_REGION_BYTES = Integer.MAX_VALUE/OffHeapNlist.NODE_BYTES*OffHeapNlist.NODE_BYTES;
+	
+	private static final int WRITE_BUFFER_BYTES = 1 << 20;
+	
+	private final OffHeapNlist[] views;
+	private final long byte_size;
+	
+	/**
+	 * Map the section of Nlists starting at 'position' in 'channel'.
+	 * </br>The mapping is kept valid after the channel is closed.
+	 * @param channel a channel opened for reading
+	 * @param position
+	 * @param nlist_count the number of Nlists in the section
+	 * @throws IOException
+	 */
+	public MappedNlists(FileChannel channel, long position, int nlist_count) throws IOException{
+		long table_bytes = 8L*(nlist_count+1);
+		ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, position, table_bytes).order(ByteOrder.LITTLE_ENDIAN);
+		long[] offsets = new long[nlist_count+1];
+		for(int i=0; i<=nlist_count; i++) offsets[i] = table.getLong(8*i);
+		
+		long nodes_position = position + table_bytes;
+		if(offsets[0] != 0 || nodes_position + offsets[nlist_count]*OffHeapNlist.NODE_BYTES > channel.size())
+			throw new IOException("The section of Nlists is corrupted");
+		
+		this.views = new OffHeapNlist[nlist_count];
+		int i = 0;
+		while(i < nlist_count){
+			// the region starts at the Nlist i and takes as many whole Nlists as possible
+			long region_start = offsets[i];
+			int j = i;
+			while(j < nlist_count && (offsets[j+1]-region_start)*OffHeapNlist.NODE_BYTES <= MAX_REGION_BYTES) j++;
+			if(j == i) throw new IOException("Nlist is too long to be mapped: " + (offsets[i+1]-offsets[i]));
+			
+			MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY,
+					nodes_position + region_start*OffHeapNlist.NODE_BYTES,
+					(offsets[j]-region_start)*OffHeapNlist.NODE_BYTES);
+			region.order(ByteOrder.LITTLE_ENDIAN);
+			for(; i<j; i++){
+				this.views[i] = new OffHeapNlist(null, region, (int) (offsets[i]-region_start)*OffHeapNlist.NODE_BYTES, true);
+				this.views[i].setSize((int) (offsets[i+1]-offsets[i]));
+			}
+		}
+		this.byte_size = table_bytes + offsets[nlist_count]*OffHeapNlist.NODE_BYTES;
+	}
+	
+	/**
+	 * Write the section of 'nlists' at the current position of 'channel'
+	 * @param nlists
+	 * @param channel a channel opened for writing
+	 * @return the number of written bytes
+	 * @throws IOException
+	 */
+	public static long write(INlist[] nlists, FileChannel channel) throws IOException{
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		long bytes = 0, offset = 0;
+		
+		buffer.putLong(offset);
+		for(INlist nlist : nlists){
+			if(buffer.remaining() < 8) bytes += flush(buffer, channel);
+			offset += nlist.size();
+			buffer.putLong(offset);
+		}
+		
+		Node node = new Node();
+		for(INlist nlist : nlists){
+			NlistCursor cursor = NlistCursor.open(nlist);
+			while(cursor.next(node)){
+				if(buffer.remaining() < OffHeapNlist.NODE_BYTES) bytes += flush(buffer, channel);
+				buffer.putInt(node.pre);
+				buffer.putInt(node.pos);
+				buffer.putInt(node.count);
+			}
+		}
+		bytes += flush(buffer, channel);
+		return bytes;
+	}
+	
+	private static int flush(ByteBuffer buffer, FileChannel channel) throws IOException{
+		buffer.flip();
+		int bytes = buffer.remaining();
+		while(buffer.hasRemaining()) channel.write(buffer);
+		buffer.clear();
+		return bytes;
+	}
+	
+	/**
+	 * Return the number of Nlists
+	 */
+	public int size(){
+		return this.views.length;
+	}
+	
+	/**
+	 * Return the view of the Nlist at 'index'
+	 * @param index
+	 */
+	public OffHeapNlist get(int index){
+		return this.views[index];
+	}
+	
+	/**
+	 * Return the number of mapped bytes of the section
+	 */
+	public long getByteSize(){
+		return this.byte_size;
+	}
+}
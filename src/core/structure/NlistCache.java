@@ -0,0 +1,219 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * NlistCache keeps the Nlists of itemsets (sorted arrays of selector IDs), bounded by the bytes of the entries.
+ * The bytes of an entry are the bytes of its Nlist, the copy of its itemset and ENTRY_OVERHEAD, so empty or tiny Nlists are not free.
+ * </br>When a new Nlist does not fit, the entries of lowest priority are evicted. The priority depends on the eviction policy:
+ * <ul>
+ * <li>LRU: the time of the last access</li>
+ * <li>GREEDY_DUAL: L + cost/bytes (GreedyDual-Size), 'L' is raised to the priority of each evicted entry,
+ * so Nlists which are expensive to compute for their size stay longer, and entries not accessed for a while age out</li>
+ * </ul>
+ * The methods are synchronized, the cache can be shared by query threads. The cached Nlists are shared too,
+ * they must not be changed by the callers.
+ */
+public class NlistCache {
+	public static enum EVICTION {LRU, GREEDY_DUAL};
+	
+	/**
+	 * Estimated bytes of an entry besides its Nlist and itemset: the key, the entry and the nodes of the hash map and the priority queue
+	 */
+	public static final int ENTRY_OVERHEAD = 96;
+	
+	private final long max_bytes;
+	private final EVICTION policy;
+	private final Map<Key, Entry> entries = new HashMap<Key, Entry>();
+	// entries in ascending order of priority, the first one is evicted first
+	private final TreeSet<Entry> queue = new TreeSet<Entry>();
+	
+	private long bytes = 0;
+	private long tick = 0;
+	private double inflation = 0;	// 'L' of GreedyDual
+	
+	private long hit_count = 0;
+	private long miss_count = 0;
+	private long eviction_count = 0;
+	
+	/**
+	 * @param max_bytes max bytes of the cached entries
+	 * @param policy
+	 */
+	public NlistCache(long max_bytes, EVICTION policy){
+		this.max_bytes = max_bytes;
+		this.policy = policy;
+	}
+	
+	/**
+	 * Return the cached Nlist of the itemset itemset[0], ..., itemset[length-1], null if it is not cached
+	 * @param itemset
+	 * @param length
+	 */
+	public synchronized INlist get(int[] itemset, int length){
+		Entry entry = this.entries.get(new Key(itemset, length));
+		if(entry == null){
+			this.miss_count++;
+			return null;
+		}
+		this.hit_count++;
+		this.queue.remove(entry);
+		this.prioritize(entry);
+		this.queue.add(entry);
+		return entry.nlist;
+	}
+	
+	/**
+	 * Cache the Nlist of the itemset itemset[0], ..., itemset[length-1], evicting entries until it fits.
+	 * </br>Nothing is cached if the entry alone is larger than the cache or the itemset is cached already
+	 * (e.g. computed by another thread meanwhile).
+	 * @param itemset
+	 * @param length
+	 * @param nlist
+	 * @param cost cost of computing the Nlist, e.g. the number of nodes of the intersected Nlists, used by GREEDY_DUAL
+	 * @return true if the Nlist is cached
+	 */
+	public synchronized boolean put(int[] itemset, int length, INlist nlist, long cost){
+		long entry_bytes = byte_size(nlist) + 4L*length + ENTRY_OVERHEAD;
+		if(entry_bytes > this.max_bytes) return false;
+		Key key = new Key(Arrays.copyOf(itemset, length), length);
+		if(this.entries.containsKey(key)) return false;
+		
+		while(this.bytes + entry_bytes > this.max_bytes){
+			Entry victim = this.queue.pollFirst();
+			this.entries.remove(victim.key);
+			this.bytes -= victim.bytes;
+			this.eviction_count++;
+			if(this.policy == EVICTION.GREEDY_DUAL) this.inflation = victim.priority;
+		}
+		
+		Entry entry = new Entry(key, nlist, entry_bytes, cost);
+		this.prioritize(entry);
+		this.entries.put(key, entry);
+		this.queue.add(entry);
+		this.bytes += entry_bytes;
+		return true;
+	}
+	
+	private void prioritize(Entry entry){
+		entry.sequence = ++this.tick;
+		if(this.policy == EVICTION.LRU) entry.priority = entry.sequence;
+		else entry.priority = this.inflation + (double) entry.cost / entry.bytes;
+	}
+	
+	/**
+	 * Remove all entries, the counters are kept
+	 */
+	public synchronized void clear(){
+		this.entries.clear();
+		this.queue.clear();
+		this.bytes = 0;
+		this.inflation = 0;
+	}
+	
+	/**
+	 * Return the estimated bytes of the arrays of an Nlist
+	 * @param nlist
+	 */
+	public static long byte_size(INlist nlist){
+		if(nlist instanceof CompressedNodelist) return ((CompressedNodelist) nlist).getByteSize();
+		if(nlist instanceof WideNodelist) return 20L*nlist.capacity();
+		return 12L*nlist.capacity();
+	}
+	
+	public EVICTION getPolicy(){
+		return this.policy;
+	}
+	
+	public long getMaxBytes(){
+		return this.max_bytes;
+	}
+	
+	public synchronized long getBytes(){
+		return this.bytes;
+	}
+	
+	public synchronized int size(){
+		return this.entries.size();
+	}
+	
+	public synchronized long getHitCount(){
+		return this.hit_count;
+	}
+	
+	public synchronized long getMissCount(){
+		return this.miss_count;
+	}
+	
+	public synchronized long getEvictionCount(){
+		return this.eviction_count;
+	}
+	
+	/**
+	 * Return the string of the counters, for reports
+	 */
+	public synchronized String toString(){
+		return this.policy + " cache: " + this.entries.size() + " Nlists, " + this.bytes + "/" + this.max_bytes + " bytes, "
+				+ this.hit_count + " hits, " + this.miss_count + " misses, " + this.eviction_count + " evictions";
+	}
+	
+	/**
+	 * A prefix of a sorted array of selector IDs as a hash key
+	 */
+	private static final class Key {
+		final int[] itemset;
+		final int length;
+		final int hash;
+		
+		Key(int[] itemset, int length){
+			this.itemset = itemset;
+			this.length = length;
+			int hash = 1;
+			for(int i=0; i<length; i++) hash = 31*hash + itemset[i];
+			this.hash = hash;
+		}
+		
+		public int hashCode(){
+			return this.hash;
+		}
+		
+		public boolean equals(Object obj){
+			if(!(obj instanceof Key)) return false;
+			Key other = (Key) obj;
+			if(this.length != other.length || this.hash != other.hash) return false;
+			for(int i=0; i<this.length; i++){
+				if(this.itemset[i] != other.itemset[i]) return false;
+			}
+			return true;
+		}
+	}
+	
+	private static final class Entry implements Comparable<Entry> {
+		final Key key;
+		final INlist nlist;
+		final long bytes;
+		final long cost;
+		double priority;
+		long sequence;	// unique, orders the entries of the same priority by their last access
+		
+		Entry(Key key, INlist nlist, long bytes, long cost){
+			this.key = key;
+			this.nlist = nlist;
+			this.bytes = bytes;
+			this.cost = cost;
+		}
+		
+		public int compareTo(Entry other){
+			int result = Double.compare(this.priority, other.priority);
+			return (result != 0) ? result : Long.compare(this.sequence, other.sequence);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * NlistCursor reads the nodes of an Nlist one by one in their order.
+ * </br>The default cursor reads a node by INlist.get, an Nlist which is expensive to access by index
+ * (e.g. CompressedNodelist) provides its own cursor which decodes the nodes in blocks.
+ */
+public class NlistCursor {
+	private INlist nlist;
+	private int size;
+	private int index = 0;
+	
+	public NlistCursor(INlist nlist){
+		this.nlist = nlist;
+		this.size = nlist.size();
+	}
+	
+	protected NlistCursor(){}
+	
+	/**
+	 * Fill information of the next node to the parameter 'node'
+	 * @param node
+	 * @return false if there is no more node, 'node' is not changed
+	 */
+	public boolean next(Node node){
+		if(this.index == this.size) return false;
+		this.nlist.get(this.index, node);
+		this.index++;
+		return true;
+	}
+	
+	/**
+	 * Return a cursor at the first node of 'nlist', the most efficient one for its implementation
+	 * @param nlist
+	 */
+	public static NlistCursor open(INlist nlist){
+		if(nlist instanceof CompressedNodelist) return ((CompressedNodelist) nlist).cursor();
+		return new NlistCursor(nlist);
+	}
+}
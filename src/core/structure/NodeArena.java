@@ -0,0 +1,404 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.Arrays;
+
+/**
+ * NodeArena is a struct-of-arrays storage for nodes of a PPCTree.
+ * </br>A node is an int index into primitive arrays: itemID, count, pre-code, pos-code, parent, first child and next sibling.
+ * Children of a node are linked in ascending order of itemID through the next-sibling array.
+ * </br>A node with more than ChildList.WIDE_THRESHOLD children is wide: its children are looked up in an open-addressing
+ * hash table keyed by (parent, itemID), and a new child is linked at the head of the list without scanning.
+ * The ascending order of the children of wide nodes is restored when pre-order and post-order codes are assigned.
+ * </br>The purpose is to avoid the object header, the parent reference and the children list of each PPCNode.
+ * The arrays are kept by reset(), so the same arena can be recycled for building subtrees one after another.
+ */
+public class NodeArena {
+	private static final float allocate_rate = 1.75f;
+	
+	/**
+	 * Index of no node, e.g. the parent of the root node
+	 */
+	public static final int NULL = -1;
+	
+	int[] itemIDs;
+	int[] counts;
+	int[] pres;
+	int[] poss;
+	int[] parents;
+	int[] firstChilds;
+	int[] nextSiblings;
+	int[] childCounts;
+	private int size = 0;
+	
+	// Hash table from (parent, itemID) to child node for the children of wide nodes, null until a node becomes wide
+	private long[] edge_keys = null;
+	private int[] edge_values = null;
+	private int edge_mask;
+	private int edge_count = 0;
+	private int[] wide_nodes = new int[16];
+	private int wide_count = 0;
+	
+	public NodeArena(int capacity){
+		capacity = Math.max(16, capacity);
+		this.itemIDs = new int[capacity];
+		this.counts = new int[capacity];
+		this.pres = new int[capacity];
+		this.poss = new int[capacity];
+		this.parents = new int[capacity];
+		this.firstChilds = new int[capacity];
+		this.nextSiblings = new int[capacity];
+		this.childCounts = new int[capacity];
+	}
+	
+	public NodeArena(){
+		this(1024);
+	}
+	
+	/**
+	 * Return the number of nodes
+	 */
+	public int size(){
+		return this.size;
+	}
+	
+	/**
+	 * Return the number of nodes can be stored without allocating new space
+	 */
+	public int capacity(){
+		return this.itemIDs.length;
+	}
+	
+	/**
+	 * Remove all nodes but keep the allocated space for the next use
+	 */
+	public void reset(){
+		this.size = 0;
+		if(this.edge_count > 0) Arrays.fill(this.edge_keys, -1L);
+		this.edge_count = 0;
+		this.wide_count = 0;
+	}
+	
+	/**
+	 * Free the allocated space
+	 */
+	public void free(){
+		this.size = 0;
+		this.itemIDs = this.counts = this.pres = this.poss = null;
+		this.parents = this.firstChilds = this.nextSiblings = this.childCounts = null;
+		this.edge_keys = null;
+		this.edge_values = null;
+		this.edge_count = 0;
+		this.wide_count = 0;
+	}
+	
+	/**
+	 * Return the number of bytes allocated for the arrays of the arena, including the hash table of wide nodes
+	 */
+	public long allocatedBytes(){
+		long bytes = 8L*4*this.itemIDs.length + 4L*this.wide_nodes.length;
+		if(this.edge_keys != null) bytes += 12L*this.edge_keys.length;
+		return bytes;
+	}
+	
+	public int itemID(int node){
+		return this.itemIDs[node];
+	}
+	
+	public int count(int node){
+		return this.counts[node];
+	}
+	
+	public int pre(int node){
+		return this.pres[node];
+	}
+	
+	public int pos(int node){
+		return this.poss[node];
+	}
+	
+	public int parent(int node){
+		return this.parents[node];
+	}
+	
+	public int firstChild(int node){
+		return this.firstChilds[node];
+	}
+	
+	public int nextSibling(int node){
+		return this.nextSiblings[node];
+	}
+	
+	/**
+	 * Increase node_counts[itemID] by one for each node from the index 'first_node' to the last node
+	 * @param first_node
+	 * @param node_counts indexed by itemID
+	 */
+	public void count_item_nodes(int first_node, int[] node_counts){
+		int[] itemIDs = this.itemIDs;
+		for(int node=first_node; node<this.size; node++) node_counts[itemIDs[node]]++;
+	}
+	
+	/**
+	 * Create a root node, a node without parent
+	 * @param item_id -1 for the root of a whole tree
+	 * @param count
+	 * @return index of the new node
+	 */
+	public int new_root(int item_id, int count){
+		return this.new_node(item_id, NULL, count);
+	}
+	
+	private int new_node(int item_id, int parent, int count){
+		if(this.size == this.itemIDs.length) this.grow();
+		int node = this.size;
+		this.itemIDs[node] = item_id;
+		this.counts[node] = count;
+		this.pres[node] = -1;
+		this.poss[node] = -1;
+		this.parents[node] = parent;
+		this.firstChilds[node] = NULL;
+		this.nextSiblings[node] = NULL;
+		this.childCounts[node] = 0;
+		this.size++;
+		return node;
+	}
+	private void grow(){
+		int new_capacity = (int)(this.itemIDs.length*allocate_rate) + 1;
+		this.itemIDs = copy(this.itemIDs, new_capacity, this.size);
+		this.counts = copy(this.counts, new_capacity, this.size);
+		this.pres = copy(this.pres, new_capacity, this.size);
+		this.poss = copy(this.poss, new_capacity, this.size);
+		this.parents = copy(this.parents, new_capacity, this.size);
+		this.firstChilds = copy(this.firstChilds, new_capacity, this.size);
+		this.nextSiblings = copy(this.nextSiblings, new_capacity, this.size);
+		this.childCounts = copy(this.childCounts, new_capacity, this.size);
+	}
+	private static int[] copy(int[] array, int new_capacity, int size){
+		int[] new_space = new int[new_capacity];
+		System.arraycopy(array, 0, new_space, 0, size);
+		return new_space;
+	}
+	
+	/**
+	 * Increase the count of the child node of 'parent' with 'item_id' by one,
+	 * the child node is created if it does not exist.
+	 * </br>The children list of a narrow node is scanned linearly, it is kept in ascending order of itemID.
+	 * The child of a wide node is looked up in the hash table.
+	 * @param parent
+	 * @param item_id
+	 * @return index of the child node
+	 */
+	public int add_child(int parent, int item_id){
+		if(this.childCounts[parent] > ChildList.WIDE_THRESHOLD){
+			int child = this.find_edge(parent, item_id);
+			if(child != NULL){
+				this.counts[child]++;
+				return child;
+			}
+			
+			// linked at the head, the order is restored by sort_wide_children()
+			int new_node = this.new_node(item_id, parent, 1);
+			this.nextSiblings[new_node] = this.firstChilds[parent];
+			this.firstChilds[parent] = new_node;
+			this.childCounts[parent]++;
+			this.put_edge(parent, item_id, new_node);
+			return new_node;
+		}
+		
+		int prev = NULL, child = this.firstChilds[parent];
+		while(child != NULL && this.itemIDs[child] < item_id){
+			prev = child;
+			child = this.nextSiblings[child];
+		}
+		
+		if(child != NULL && this.itemIDs[child] == item_id){
+			this.counts[child]++;
+			return child;
+		}
+		
+		int new_node = this.new_node(item_id, parent, 1);
+		this.nextSiblings[new_node] = child;
+		if(prev == NULL) this.firstChilds[parent] = new_node;
+		else this.nextSiblings[prev] = new_node;
+		this.childCounts[parent]++;
+		if(this.childCounts[parent] > ChildList.WIDE_THRESHOLD) this.widen(parent);
+		return new_node;
+	}
+	
+	/**
+	 * Put all children of 'parent' into the hash table, 'parent' becomes a wide node
+	 */
+	private void widen(int parent){
+		if(this.wide_count == this.wide_nodes.length) this.wide_nodes = Arrays.copyOf(this.wide_nodes, this.wide_count*2);
+		this.wide_nodes[this.wide_count] = parent;
+		this.wide_count++;
+		for(int child = this.firstChilds[parent]; child != NULL; child = this.nextSiblings[child]){
+			this.put_edge(parent, this.itemIDs[child], child);
+		}
+	}
+	
+	private int find_edge(int parent, int item_id){
+		long key = edge_key(parent, item_id), slot_key;
+		int slot = edge_hash(parent, item_id) & this.edge_mask;
+		while((slot_key = this.edge_keys[slot]) != -1L){
+			if(slot_key == key) return this.edge_values[slot];
+			slot = (slot + 1) & this.edge_mask;
+		}
+		return NULL;
+	}
+	
+	private void put_edge(int parent, int item_id, int child){
+		if(this.edge_keys == null) this.rehash_edges(1024);
+		else if((this.edge_count+1)*2 > this.edge_keys.length) this.rehash_edges(this.edge_keys.length*2);
+		this.insert_edge(edge_key(parent, item_id), edge_hash(parent, item_id), child);
+		this.edge_count++;
+	}
+	
+	private void insert_edge(long key, int hash, int child){
+		int slot = hash & this.edge_mask;
+		while(this.edge_keys[slot] != -1L) slot = (slot + 1) & this.edge_mask;
+		this.edge_keys[slot] = key;
+		this.edge_values[slot] = child;
+	}
+	
+	private void rehash_edges(int capacity){
+		long[] old_keys = this.edge_keys;
+		int[] old_values = this.edge_values;
+		this.edge_keys = new long[capacity];
+		this.edge_values = new int[capacity];
+		this.edge_mask = capacity - 1;
+		Arrays.fill(this.edge_keys, -1L);
+		if(old_keys == null || this.edge_count == 0) return;
+		long key;
+		for(int i=0; i<old_keys.length; i++){
+			if((key = old_keys[i]) == -1L) continue;
+			this.insert_edge(key, edge_hash((int)(key >>> 32), (int) key), old_values[i]);
+		}
+	}
+	
+	private static long edge_key(int parent, int item_id){
+		return ((long) parent << 32) | (item_id & 0xFFFFFFFFL);
+	}
+	
+	private static int edge_hash(int parent, int item_id){
+		int h = parent * 0x9E3779B9 + item_id * 0x85EBCA6B;
+		return h ^ (h >>> 16);
+	}
+	
+	/**
+	 * Restore the ascending order of itemID of the children of wide nodes
+	 */
+	private void sort_wide_children(){
+		long[] buffer = null;
+		for(int i=0; i<this.wide_count; i++){
+			int parent = this.wide_nodes[i];
+			int child_count = this.childCounts[parent];
+			if(buffer == null || buffer.length < child_count) buffer = new long[child_count];
+			
+			boolean sorted = true;
+			int n = 0;
+			for(int child = this.firstChilds[parent]; child != NULL; child = this.nextSiblings[child]){
+				buffer[n] = ((long) this.itemIDs[child] << 32) | child;
+				if(n > 0 && buffer[n] < buffer[n-1]) sorted = false;
+				n++;
+			}
+			if(sorted) continue;
+			
+			Arrays.sort(buffer, 0, n);
+			this.firstChilds[parent] = (int) buffer[0];
+			for(int j=1; j<n; j++) this.nextSiblings[(int) buffer[j-1]] = (int) buffer[j];
+			this.nextSiblings[(int) buffer[n-1]] = NULL;
+		}
+	}
+	
+	/**
+	 * Insert the ids of a record into the subtree with root at 'sub_root', the order of ids to insert is from
+	 * the index 'from' to the index 0 of the record
+	 * @param sub_root
+	 * @param record an int array of selector IDs in a pre-defined order of selectors
+	 * @param from
+	 */
+	public void insert_record(int sub_root, int[] record, int from){
+		int node = sub_root;
+		for(int i = from; i>-1; i--){
+			node = this.add_child(node, record[i]);
+		}
+	}
+	
+	/**
+	 * Traverse the subtree with root at 'sub_root' with pre&post-order and assign two ordinal numbers for each node.
+	 * The traversal is iterative by following the parent, first-child and next-sibling links,
+	 * the children of wide nodes are sorted by itemID beforehand.
+	 * @param sub_root
+	 * @param start_pre the pre-order code of 'sub_root'
+	 * @param start_pos the smallest post-order code in the subtree
+	 * @return the number of nodes in the subtree
+	 */
+	public int assignPrePosOrderCode(int sub_root, int start_pre, int start_pos){
+		this.sort_wide_children();
+		int[] pres = this.pres, poss = this.poss;
+		int[] firstChilds = this.firstChilds, nextSiblings = this.nextSiblings, parents = this.parents;
+		int pre = start_pre, pos = start_pos;
+		int node = sub_root;
+		
+		while(true){
+			pres[node] = pre;
+			pre++;
+			
+			if(firstChilds[node] != NULL){
+				node = firstChilds[node];
+				continue;
+			}
+			
+			// 'node' is a leaf node, assign post-order codes on the way back to the next unvisited node
+			while(true){
+				poss[node] = pos;
+				pos++;
+				if(node == sub_root) return pre - start_pre;
+				if(nextSiblings[node] != NULL){
+					node = nextSiblings[node];
+					break;
+				}
+				node = parents[node];
+			}
+		}
+	}
+	
+	/**
+	 * Add nodes of the subtree with root at 'sub_root' to the Nlists of the corresponding selectors, in pre-order.
+	 * </br>The root node is added only if 'include_root' is true
+	 * @param sub_root
+	 * @param include_root
+	 * @param selector_nlists
+	 */
+	public void update_nlists(int sub_root, boolean include_root, INlist[] selector_nlists){
+		int[] firstChilds = this.firstChilds, nextSiblings = this.nextSiblings, parents = this.parents;
+		int node = sub_root;
+		
+		if(include_root) selector_nlists[this.itemIDs[node]].add(this.pres[node], this.poss[node], this.counts[node]);
+		if(firstChilds[node] == NULL) return;
+		node = firstChilds[node];
+		
+		while(true){
+			// itemID of a node means Selector.selectorID
+			selector_nlists[this.itemIDs[node]].add(this.pres[node], this.poss[node], this.counts[node]);
+			
+			if(firstChilds[node] != NULL){
+				node = firstChilds[node];
+				continue;
+			}
+			
+			// go to the next sibling of the nearest ancestor having one
+			while(nextSiblings[node] == NULL){
+				node = parents[node];
+				if(node == sub_root) return;
+			}
+			node = nextSiblings[node];
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * NodeStack is an explicit stack for depth-first traversals of a PPCTree without recursive calls.
+ * </br>Each entry is a node and the index of its next child to visit, so a traversal needs
+ * as many entries as the height of the tree, not as many Java stack frames.
+ * The stack keeps its allocated space after a traversal and can be reused for the next one.
+ */
+public class NodeStack {
+	private static final float allocate_rate = 1.75f;
+	
+	private PPCNode[] nodes;
+	private int[] indices;
+	private int size = 0;
+	
+	public NodeStack(int capacity){
+		capacity = Math.max(16, capacity);
+		this.nodes = new PPCNode[capacity];
+		this.indices = new int[capacity];
+	}
+	
+	public NodeStack(){
+		this(64);
+	}
+	
+	public boolean isEmpty(){
+		return this.size == 0;
+	}
+	
+	public int size(){
+		return this.size;
+	}
+	
+	/**
+	 * Push a node whose children are not visited yet
+	 * @param node
+	 */
+	public void push(PPCNode node){
+		if(this.size == this.nodes.length){
+			int new_capacity = (int)(this.size*allocate_rate) + 1;
+			PPCNode[] new_nodes = new PPCNode[new_capacity];
+			System.arraycopy(this.nodes, 0, new_nodes, 0, this.size);
+			this.nodes = new_nodes;
+			int[] new_indices = new int[new_capacity];
+			System.arraycopy(this.indices, 0, new_indices, 0, this.size);
+			this.indices = new_indices;
+		}
+		this.nodes[this.size] = node;
+		this.indices[this.size] = 0;
+		this.size++;
+	}
+	
+	/**
+	 * Return the node on the top of the stack
+	 */
+	public PPCNode peek(){
+		return this.nodes[this.size-1];
+	}
+	
+	/**
+	 * Remove and return the node on the top of the stack
+	 */
+	public PPCNode pop(){
+		this.size--;
+		PPCNode node = this.nodes[this.size];
+		this.nodes[this.size] = null;	// the stack does not keep a freed subtree alive
+		return node;
+	}
+	
+	/**
+	 * Return the next unvisited child of the node on the top of the stack and mark it visited
+	 * @return the child node, null if all children of the top node were visited
+	 */
+	public PPCNode next_child(){
+		int top = this.size-1;
+		ChildList children = this.nodes[top].children;
+		int index = this.indices[top];
+		if(children == null || index >= children.size()) return null;
+		this.indices[top] = index + 1;
+		return children.get(index);
+	}
+	
+	/**
+	 * Remove all entries but keep the allocated space
+	 */
+	public void clear(){
+		while(this.size > 0) this.pop();
+	}
+}
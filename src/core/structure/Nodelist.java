@@ -14,6 +14,8 @@ public class Nodelist implements INlist {
 	private int[][] ppc;
 	private int size = 0;
 	private int supportCount = -1;
+	private SkipIndex skip_index = null;
+	private PreCodeBitmap pre_bitmap = null;
 	
  	public Nodelist(int capacity){
 		// ppc[0] for pre-codes, ppc[1] for pos-codes, ppc[2] for support counts
@@ -31,6 +33,14 @@ public class Nodelist implements INlist {
  	 */
  	public Nodelist(boolean isEmpty){}
  	
+ 	/**
+ 	 * New a Nodelist on the given arrays of pre-codes, pos-codes and support counts without copying
+ 	 */
+ 	Nodelist(int[] pres, int[] poss, int[] counts, int size){
+ 		this.ppc = new int[][]{pres, poss, counts};
+ 		this.size = size;
+ 	}
+ 	
  	public int size(){
  		return this.size;
  	}
@@ -50,6 +60,71 @@ public class Nodelist implements INlist {
  		node.count = this.ppc[2][index];
  	}
  	
+ 	public int pre(int index){
+ 		return this.ppc[0][index];
+ 	}
+ 	
+ 	public int pos(int index){
+ 		return this.ppc[1][index];
+ 	}
+ 	
+ 	public int count(int index){
+ 		return this.ppc[2][index];
+ 	}
+ 	
+ 	/**
+ 	 * Bulk views of the backing arrays, valid up to size() and until a new node is added
+ 	 */
+ 	int[] pres(){
+ 		return this.ppc[0];
+ 	}
+ 	
+ 	int[] poss(){
+ 		return this.ppc[1];
+ 	}
+ 	
+ 	int[] counts(){
+ 		return this.ppc[2];
+ 	}
+ 	
+ 	/**
+ 	 * Build the skip index over blocks of the nodes, used by the intersections with a much shorter Nlist.
+ 	 * </br>It is dropped when a new node is added.
+ 	 */
+ 	public void buildSkipIndex(){
+ 		this.skip_index = new SkipIndex(this.ppc[0], this.ppc[1], this.size);
+ 	}
+ 	
+ 	public boolean hasSkipIndex(){
+ 		return this.skip_index != null;
+ 	}
+ 	
+ 	SkipIndex skipIndex(){
+ 		return this.skip_index;
+ 	}
+ 	
+ 	/**
+ 	 * Build the bitmap of pre-codes with ranks if there is at most 'max_span_per_node' pre-codes per node in the range
+ 	 * of pre-codes of the Nodelist. The intersections with this Nodelist as the ancestor side then find the only possible
+ 	 * ancestor of a node by one rank lookup instead of a merge.
+ 	 * </br>It is dropped when a new node is added.
+ 	 * @param max_span_per_node
+ 	 * @return true if the bitmap is built
+ 	 */
+ 	public boolean buildPreBitmap(int max_span_per_node){
+ 		if(this.size == 0 || PreCodeBitmap.span_per_node(this.ppc[0], this.size) > max_span_per_node) return false;
+ 		this.pre_bitmap = new PreCodeBitmap(this.ppc[0], this.size);
+ 		return true;
+ 	}
+ 	
+ 	public boolean hasPreBitmap(){
+ 		return this.pre_bitmap != null;
+ 	}
+ 	
+ 	PreCodeBitmap preBitmap(){
+ 		return this.pre_bitmap;
+ 	}
+ 	
  	/**
  	 * Return the sum of support counts of all nodes
  	 * @return 
@@ -71,7 +146,8 @@ public class Nodelist implements INlist {
 	}
  	
  	/**
- 	 * This method is associated with the constructor Nodelist(boolean isEmpty)
+ 	 * This method is associated with the constructor Nodelist(boolean isEmpty).
+ 	 * </br>For an allocated Nodelist, the space is enlarged to 'capacity' if it is smaller.
  	 * @param capacity
  	 */
  	public void allocate(int capacity){
@@ -79,6 +155,13 @@ public class Nodelist implements INlist {
  			this.size = 0;
  			// ppc[0] for pre-codes, ppc[1] for pos-codes, ppc[2] for support counts
  			this.ppc = new int[3][capacity];
+ 		}else if(capacity > this.ppc[0].length){
+ 			int[][] new_space = new int[3][capacity];
+ 			// Copy
+ 			System.arraycopy(this.ppc[0], 0, new_space[0], 0, size);
+ 			System.arraycopy(this.ppc[1], 0, new_space[1], 0, size);
+ 			System.arraycopy(this.ppc[2], 0, new_space[2], 0, size);
+ 			this.ppc = new_space;
  		}
  	}
  	
@@ -102,9 +185,11 @@ public class Nodelist implements INlist {
  	
  	/**
  	 * This function should only be used when being sure that there will not be any new nodes added.
- 	 * </br> Shrink the capacity to the size.
+ 	 * </br> Shrink the capacity to the size, nothing is copied if the Nodelist is full, e.g. allocated with the exact size.
  	 */
  	public Nodelist shrink(){
+		if(this.size == this.ppc[0].length) return this;
+		
 		int[][] new_space = new int[3][size];
 		// Copy
 		System.arraycopy(this.ppc[0], 0, new_space[0], 0, size);
@@ -142,7 +227,8 @@ public class Nodelist implements INlist {
  		int current_capacity = this.ppc[0].length;
  		if(this.size == current_capacity){
  			// No spare room for new node, allocate new space
- 			current_capacity = (int)(current_capacity*allocate_rate);
+ 			// +1: a list of capacity 0 or 1 must still grow
+ 			current_capacity = (int)(current_capacity*allocate_rate) + 1;
  			int[][] new_space = new int[3][current_capacity];
  			// Copy
  			System.arraycopy(this.ppc[0], 0, new_space[0], 0, size);
@@ -151,6 +237,8 @@ public class Nodelist implements INlist {
  			this.ppc = new_space;
  		}
  		// Add new node
+ 		this.skip_index = null;
+ 		this.pre_bitmap = null;
  		this.ppc[0][size] = pre;
  		this.ppc[1][size] = pos;
  		this.ppc[2][size] = count;
@@ -165,7 +253,8 @@ public class Nodelist implements INlist {
  		int current_capacity = this.ppc[0].length;
  		if(this.size == current_capacity){
  			// No spare room for new node, allocate new space
- 			current_capacity = (int)(current_capacity*allocate_rate);
+ 			// +1: a list of capacity 0 or 1 must still grow
+ 			current_capacity = (int)(current_capacity*allocate_rate) + 1;
  			int[][] new_space = new int[3][current_capacity];
  			// Copy
  			System.arraycopy(this.ppc[0], 0, new_space[0], 0, size);
@@ -174,6 +263,8 @@ public class Nodelist implements INlist {
  			this.ppc = new_space;
  		}
  		// Add new node
+ 		this.skip_index = null;
+ 		this.pre_bitmap = null;
  		this.ppc[0][size] = node.pre;
  		this.ppc[1][size] = node.pos;
  		this.ppc[2][size] = node.count;
@@ -191,6 +282,8 @@ public class Nodelist implements INlist {
  	
  	public boolean isIdentical(INlist nlist) {
 		if (this.size != nlist.size()) return false;
+		// the codes of a WideNodelist may not fit the Node
+		if (nlist instanceof WideNodelist) return nlist.isIdentical(this);
 		
 		int size = this.size;
 		Node node = new Node();
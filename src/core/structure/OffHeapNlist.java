@@ -0,0 +1,234 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An off-heap implementation for Nlist, the (pre, pos, count) triples of the nodes are stored in a direct ByteBuffer
+ * owned by an OffHeapNlistArena, or in a read-only region mapped from a file by MappedNlists.
+ * </br>A growable Nlist has its own buffer which is replaced by a larger one when it is full,
+ * a frozen Nlist is a read-only region in a chunk shared with other frozen Nlists.
+ * </br>The purpose is to keep large sets of Nlists out of the heap which is marked by the garbage collector.
+ */
+public class OffHeapNlist implements INlist {
+	static final int NODE_BYTES = 12;
+	private static final float allocate_rate = 1.75f;
+	/**
+	 * The max number of nodes of a growable Nlist, its buffer is at most Integer.MAX_VALUE bytes
+	 */
+	static final int MAX_CAPACITY = Integer.MAX_VALUE/NODE_BYTES;
+	
+	private final OffHeapNlistArena arena;
+	private final boolean frozen;
+	private ByteBuffer buffer;
+	private final int base;
+	private int size = 0;
+	private int supportCount = -1;
+	
+	OffHeapNlist(OffHeapNlistArena arena, ByteBuffer buffer, int base, boolean frozen){
+		this.arena = arena;
+		this.buffer = buffer;
+		this.base = base;
+		this.frozen = frozen;
+	}
+	
+	void setSize(int size){
+		this.size = size;
+	}
+	
+	/**
+	 * Drop the reference to the off-heap memory, called when the arena is closed
+	 */
+	void release(){
+		this.buffer = null;
+		this.size = 0;
+	}
+	
+	public int size(){
+		return this.size;
+	}
+	
+	public int capacity(){
+		return this.frozen ? this.size : this.buffer.capacity()/NODE_BYTES;
+	}
+	
+	/**
+	 * Return true if the Nlist is a read-only region of a chunk
+	 */
+	public boolean isFrozen(){
+		return this.frozen;
+	}
+	
+	/**
+	 * Fill information of the node at position 'index' to the parameter 'node'
+	 * @param index
+	 * @param node
+	 */
+	public void get(int index, Node node){
+		int p = this.base + index*NODE_BYTES;
+		node.pre = this.buffer.getInt(p);
+		node.pos = this.buffer.getInt(p+4);
+		node.count = this.buffer.getInt(p+8);
+	}
+	
+	public int pre(int index){
+		return this.buffer.getInt(this.base + index*NODE_BYTES);
+	}
+	
+	public int pos(int index){
+		return this.buffer.getInt(this.base + index*NODE_BYTES + 4);
+	}
+	
+	public int count(int index){
+		return this.buffer.getInt(this.base + index*NODE_BYTES + 8);
+	}
+	
+	/**
+	 * Return the sum of support counts of all nodes
+	 * @return 
+	 */
+	public int supportCount(){
+		if(this.supportCount == -1){
+			int sc = 0;
+			for(int i=0; i<this.size; i++) sc += this.count(i);
+			return (this.supportCount = sc);
+		}
+		return this.supportCount;
+	}
+	
+	/**
+	 * Reset the support count
+	 */
+	public void resetSC() {
+		this.supportCount = -1;
+	}
+	
+	/**
+	 * Ensure the space for 'capacity' nodes
+	 * @param capacity
+	 */
+	public void allocate(int capacity){
+		if(!this.frozen && capacity > this.capacity()) this.resize(capacity);
+	}
+	
+	/**
+	 * This function should only be used when being sure that there will not be any new nodes added.
+	 * @param efficient_rate: if the size < capacity*efficient_rate, the shrink will be done.
+	 */
+	public OffHeapNlist shrink(float efficient_rate){
+		if(!this.frozen && this.size < this.capacity()*efficient_rate) this.resize(this.size);
+		return this;
+	}
+	
+	/**
+	 * This function should only be used when being sure that there will not be any new nodes added.
+	 * </br> Shrink the capacity to the size.
+	 */
+	public OffHeapNlist shrink(){
+		if(!this.frozen && this.size < this.capacity()) this.resize(this.size);
+		return this;
+	}
+	
+	private void resize(int capacity){
+		if(capacity > MAX_CAPACITY) throw new IllegalArgumentException("Nlist is too long to be stored off-heap: " + capacity);
+		ByteBuffer new_space = this.arena.allocate(Math.max(1, capacity)*NODE_BYTES);
+		ByteBuffer nodes = this.buffer.duplicate();
+		nodes.position(0);
+		nodes.limit(this.size*NODE_BYTES);
+		new_space.put(nodes);
+		this.buffer = new_space;
+	}
+	
+	/**
+	 * Return the string representation of the Nlist, just for testing
+	 */
+	public String toString(){
+		StringBuilder sb = new StringBuilder(200);
+		sb.append('{');
+		for(int i=0; i<this.size; i++){
+			sb.append('<').append(this.pre(i)).append(',')
+			.append(this.pos(i)).append(">:")
+			.append(this.count(i)).append("; ");
+		}
+		if (this.size > 0) sb.setLength(sb.length()-2);	// not an empty list
+		sb.append("}, freq:").append(this.supportCount());
+		
+		return sb.toString();
+	}
+	
+	/**
+	 * Add a new node to the end of the node list, a frozen Nlist does not support this method
+	 * @param pre
+	 * @param pos
+	 * @param count
+	 */
+	public void add(int pre, int pos, int count){
+		if(this.frozen){
+			System.err.println("add(int pre, int pos, int count) method is not supported by a frozen OffHeapNlist");
+			System.exit(0);
+		}
+		if(this.size == this.capacity()){
+			// grow in long, a full list of MAX_CAPACITY nodes fails by resize
+			long grown = (long)(this.size*(double)allocate_rate) + 1;
+			this.resize((this.size == MAX_CAPACITY) ? this.size+1 : (int) Math.min(grown, MAX_CAPACITY));
+		}
+		int p = this.size*NODE_BYTES;
+		this.buffer.putInt(p, pre);
+		this.buffer.putInt(p+4, pos);
+		this.buffer.putInt(p+8, count);
+		this.size++;
+	}
+	
+	/**
+	 * Based on the information of parameter 'node', a new node is added to the end of the node list
+	 * @param node
+	 */
+	public void add(Node node){
+		this.add(node.pre, node.pos, node.count);
+	}
+	
+	/**
+	 * Add the 'supportCount' to the support count of node at the position 'index'
+	 * @param index
+	 * @param supportCount
+	 */
+	public void accSupportCount(int index, int supportCount){
+		if(this.frozen){
+			System.err.println("accSupportCount(int index, int supportCount) method is not supported by a frozen OffHeapNlist");
+			System.exit(0);
+		}
+		int p = index*NODE_BYTES + 8;
+		this.buffer.putInt(p, this.buffer.getInt(p) + supportCount);
+	}
+	
+	public boolean isIdentical(INlist nlist) {
+		if (this.size != nlist.size()) return false;
+		
+		Node node = new Node();
+		for (int i=0; i<this.size; i++){
+			nlist.get(i, node);
+			if (this.pre(i) != node.pre || this.pos(i) != node.pos || this.count(i) != node.count) return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * OffHeapNlist does not support this method.
+	 */
+	public void add(PPCNode ppcNode) {
+		System.err.println("add(PPCNode ppcNode) method is not supported by OffHeapNlist");
+		System.exit(0);
+	}
+	
+	/**
+	 * OffHeapNlist does not support this method.
+	 */
+	public void insert(PPCNode ppcNode) {
+		System.err.println("insert(PPCNode ppcNode) method is not supported by OffHeapNlist");
+		System.exit(0);
+	}
+}
@@ -0,0 +1,121 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OffHeapNlistArena owns the off-heap (direct) memory of OffHeapNlists, the nodes are not scanned by the garbage collector.
+ * </br>Growable Nlists, e.g. the Nlists of selectors updated by a P3CTree, are created by create().
+ * Read-only Nlists are packed by freeze(INlist[]) into large chunks, the same layout as FrozenNlists.
+ * </br>close() releases all memory of the arena, the Nlists of a closed arena must not be used anymore.
+ */
+public class OffHeapNlistArena implements Closeable {
+	/**
+	 * Max bytes of a chunk for frozen Nlists
+	 */
+	public static final int CHUNK_BYTES = 1 << 28;
+	
+	private List<OffHeapNlist> nlists = new ArrayList<OffHeapNlist>();
+	private List<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+	private long allocated_bytes = 0;
+	private boolean closed = false;
+	
+	/**
+	 * Create an empty growable Nlist in the arena
+	 */
+	public OffHeapNlist create(){
+		return this.create(16);
+	}
+	
+	/**
+	 * Create an empty growable Nlist in the arena
+	 * @param capacity the initial number of nodes
+	 */
+	public synchronized OffHeapNlist create(int capacity){
+		this.check_open();
+		if(capacity > OffHeapNlist.MAX_CAPACITY) throw new IllegalArgumentException("Nlist is too long to be stored off-heap: " + capacity);
+		OffHeapNlist nlist = new OffHeapNlist(this, this.allocate(Math.max(1, capacity)*OffHeapNlist.NODE_BYTES), 0, false);
+		this.nlists.add(nlist);
+		return nlist;
+	}
+	
+	/**
+	 * Copy the nodes of 'nlists' into chunks of the arena, each Nlist is replaced by a read-only OffHeapNlist
+	 * @param nlists
+	 * @return the read-only Nlists in the same order
+	 */
+	public synchronized OffHeapNlist[] freeze(INlist[] nlists){
+		this.check_open();
+		OffHeapNlist[] frozen = new OffHeapNlist[nlists.length];
+		ByteBuffer chunk = null;
+		int offset = 0;
+		long remaining_bytes = 0;
+		for(INlist nlist : nlists) remaining_bytes += (long) nlist.size()*OffHeapNlist.NODE_BYTES;
+		Node node = new Node();
+		for(int i=0; i<nlists.length; i++){
+			long bytes = (long) nlists[i].size()*OffHeapNlist.NODE_BYTES;
+			if(bytes > Integer.MAX_VALUE) throw new IllegalArgumentException("Nlist is too long to be stored off-heap: " + nlists[i].size());
+			if(chunk == null || offset + bytes > chunk.capacity()){
+				// a new chunk, no larger than the bytes left to copy, a too long Nlist gets its own chunk
+				chunk = this.allocate((int) Math.max(bytes, Math.min(remaining_bytes, CHUNK_BYTES)));
+				this.chunks.add(chunk);
+				offset = 0;
+			}
+			
+			NlistCursor cursor = NlistCursor.open(nlists[i]);
+			int p = offset;
+			while(cursor.next(node)){
+				chunk.putInt(p, node.pre);
+				chunk.putInt(p+4, node.pos);
+				chunk.putInt(p+8, node.count);
+				p += OffHeapNlist.NODE_BYTES;
+			}
+			frozen[i] = new OffHeapNlist(this, chunk, offset, true);
+			frozen[i].setSize(nlists[i].size());
+			this.nlists.add(frozen[i]);
+			offset = p;
+			remaining_bytes -= bytes;
+		}
+		return frozen;
+	}
+	
+	/**
+	 * Return the number of bytes of off-heap memory allocated by the arena (including the space of
+	 * grown or shrunk Nlists which is released by the garbage collector of the buffer objects)
+	 */
+	public long getAllocatedBytes(){
+		return this.allocated_bytes;
+	}
+	
+	public boolean isClosed(){
+		return this.closed;
+	}
+	
+	/**
+	 * Release all Nlists and chunks of the arena
+	 */
+	public synchronized void close(){
+		if(this.closed) return;
+		for(OffHeapNlist nlist : this.nlists) nlist.release();
+		this.nlists.clear();
+		this.chunks.clear();
+		this.closed = true;
+	}
+	
+	synchronized ByteBuffer allocate(int bytes){
+		this.allocated_bytes += bytes;
+		return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+	}
+	
+	private void check_open(){
+		if(this.closed) throw new IllegalStateException("The off-heap arena is closed");
+	}
+}
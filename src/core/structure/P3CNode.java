@@ -5,24 +5,25 @@
 
 package core.structure;
 
-import java.util.List;
-
-
 /**
  * P3CNode extends class PPCNode that constructs the top part of a PPCTree.
- * </br>It introduces a new property, a group of instances which is used to
- * build up a subtree with root node at a leaf node.
+ * </br>It introduces a new property, a group of instances (a range of the index array of records of the tree)
+ * which is used to build up a subtree with root node at a leaf node.
  * </br>Only leaf nodes have a corresponding instances group.
  */
 public class P3CNode extends PPCNode {
 	public InstGroup instGroup = null;
+	
+	// 64-bit codes, used instead of 'pre' and 'pos' by a P3CTree with wide codes
+	public long widePre = -1;
+	public long widePos = -1;
     
 	public P3CNode(){
 		super();
 	}
 			
-    public P3CNode(int item_id, PPCNode parent, int count, int level, List<int[]> instances) {
+    public P3CNode(int item_id, PPCNode parent, int count, int level, int offset, int length) {
     	super(item_id, parent, count);
-    	this.instGroup = new InstGroup(level, instances);
+    	this.instGroup = new InstGroup(level, offset, length);
     }
 }
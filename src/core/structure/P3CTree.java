@@ -16,30 +16,100 @@ import core.prepr.IntegerArray;
  * Then Nlist of selectors are updated from the subtree's PPCNodes which are freed before another subtree. 
  */
 public class P3CTree extends PPCTree {
+	/**
+	 * Estimated heap bytes of a subtree node: a PPCNode, its children list and its share of the children arrays
+	 */
+	public static final int BYTES_PER_NODE = 104;
+	
+	private static final float allocate_rate = 1.75f;
+	
 	private List<PPCNode> leafNodes;
 	private INlist[] selector_nlists;
 	
+	// records of the input data, an instance group of a node is a range of 'order' which is the index array of the records
+	private int[][] records;
+	private int[] order;
+	
+	// nodes of freed subtrees are recycled for the next subtrees, null to disable recycling
+	private PPCNodePool node_pool = new PPCNodePool();
+	
+	// nodes of built subtrees which are not in the Nlists yet, counted per selector,
+	// so the room of an Nlist is reserved once per subtree instead of growing node by node
+	private int[] pending_node_counts;
+	private IntegerArray pending_ids = new IntegerArray();
+	
+	// for wide codes: [0] pre-code base, [1] pos-code base of the current subtree, shared by the WideNodelists of selectors,
+	// null for int codes
+	private long[] code_base = null;
+	private long widePreCode = 0;
+	private long widePosCode = 0;
+	
 	////////////////////////////////////////////// COMMONS METHODS //////////////////////////////////////////////////
 
 	public P3CTree(int selector_count) {
+		this(selector_count, null);
+	}
+	
+	/**
+	 * Build a P3CTree whose Nlists of selectors are stored in 'arena' (off-heap)
+	 * @param selector_count
+	 * @param arena null for Nodelists on the heap
+	 */
+	public P3CTree(int selector_count, OffHeapNlistArena arena) {
+		this(selector_count, arena, false);
+	}
+	
+	/**
+	 * Build a P3CTree whose nodes are coded with 64-bit pre-codes and pos-codes if 'wide_codes' is true,
+	 * for a tree of more than Integer.MAX_VALUE nodes. The Nlists of selectors are then WideNodelists.
+	 * </br>The nodes of each subtree are coded locally with int codes from 0, the subtree must have less than
+	 * Integer.MAX_VALUE nodes, and are added to the Nlists with the 64-bit offsets of the subtree.
+	 * @param selector_count
+	 * @param arena null for Nlists on the heap, must be null for wide codes
+	 * @param wide_codes
+	 */
+	public P3CTree(int selector_count, OffHeapNlistArena arena, boolean wide_codes) {
+		if(wide_codes && arena != null) throw new IllegalArgumentException("Off-heap Nlists do not support wide codes");
 		this.currentPreCode = 0;
 		this.currentPosCode = 0;
 		this.root = new P3CNode();
-		this.selector_nlists = this.init_selector_nlist(selector_count);
+		if(wide_codes) this.code_base = new long[2];
+		this.selector_nlists = this.init_selector_nlist(selector_count, arena);
+		this.pending_node_counts = new int[selector_count];
 	}
-	private INlist[] init_selector_nlist(int selector_count){
-		// Initialize 'selector_nlists', add an empty Nodelist for each selector.
+	private INlist[] init_selector_nlist(int selector_count, OffHeapNlistArena arena){
+		// Initialize 'selector_nlists', add an empty Nodelist (OffHeapNlist or WideNodelist) for each selector.
     	INlist[] selector_nlists = new INlist[selector_count];
     	for(int i=0; i<selector_count; i++){
-    		selector_nlists[i] = new Nodelist();
+    		if(this.code_base != null) selector_nlists[i] = new WideNodelist(16, this.code_base);
+    		else selector_nlists[i] = (arena == null) ? new Nodelist() : arena.create();
     	}
     	return selector_nlists;
 	}
 	
+	/**
+	 * Return true if nodes are coded with 64-bit pre-codes and pos-codes
+	 */
+	public boolean hasWideCodes(){
+		return this.code_base != null;
+	}
+	
 	public INlist[] get_selector_nlists(){
 		return this.selector_nlists;
 	}	
 	
+	public PPCNodePool getNodePool(){
+		return this.node_pool;
+	}
+	
+	/**
+	 * Set the pool to recycle nodes of subtrees, null to let freed subtrees to the garbage collector
+	 * @param node_pool
+	 */
+	public void setNodePool(PPCNodePool node_pool){
+		this.node_pool = node_pool;
+	}
+	
 	public List<PPCNode> getLeafNodes(){
 		if (this.leafNodes == null){
 			this.leafNodes = this.collectLeafNodes();
@@ -48,24 +118,19 @@ public class P3CTree extends PPCTree {
 	}
 	private List<PPCNode> collectLeafNodes(){
 		List<PPCNode> leafNodes = new ArrayList<PPCNode>();
-		for (PPCNode node : this.root.children){
-			if (node.children.size() == 0){
-				leafNodes.add(node);
-			}else{
-				this.collectLeafNodesRecursive(node, leafNodes);
-			}
+		
+		// pre-order traversal with the explicit stack, leaf nodes are collected from left to right
+		NodeStack stack = this.stack;
+		stack.push(this.root);
+		PPCNode node;
+		while(!stack.isEmpty()){
+			if((node = stack.next_child()) != null){
+				if (node.children.size() == 0) leafNodes.add(node);
+				else stack.push(node);
+			}else stack.pop();
 		}
 		return leafNodes;
 	}
-	private void collectLeafNodesRecursive(PPCNode node, List<PPCNode> leafNodes){
-		for (PPCNode child : node.children){
-			if (child.children.size() == 0){
-				leafNodes.add(child);
-			}else{
-				this.collectLeafNodesRecursive(child, leafNodes);
-			}
-		}
-	}
 	
 	/**
 	 * Return an array of selector IDs associated with nodes in the path from 'sub_node' to the root
@@ -88,52 +153,61 @@ public class P3CTree extends PPCTree {
 	 * @param sub_node is a leaf node of the top part of the global tree, be the root of the sub tree to build up
 	 */
 	public void buildSubtree(PPCNode sub_node){
-		P3CNode subroot = (P3CNode) sub_node;
-		int level = subroot.instGroup.level;
-		List<int[]> instances = subroot.instGroup.instances;
-		if (instances == null) return;
+		this.build_subtree(sub_node, this.node_pool, true);
+	}
+	
+	/**
+	 * Build up a subtree at node 'sub_node' with nodes from 'node_pool'.
+	 * </br>Used by worker threads, each of them has its own pool.
+	 * @param sub_node
+	 * @param node_pool null to create new nodes
+	 */
+	public void buildSubtree(PPCNode sub_node, PPCNodePool node_pool){
+		this.build_subtree(sub_node, node_pool, false);
+	}
+	private void build_subtree(PPCNode sub_node, PPCNodePool node_pool, boolean count_nodes){
+		InstGroup instGroup = ((P3CNode) sub_node).instGroup;
+		int level = instGroup.level;
+		int end = instGroup.offset + instGroup.length;
 		
-		for (int[] instance : instances){
-			this.insert_record(sub_node, instance, level);
+		for (int i=instGroup.offset; i<end; i++){
+			this.insert_record(sub_node, this.records[this.order[i]], level, node_pool, count_nodes);
 		}
 		
-		// now all instances at 'sub_node' are no longer used and freed
-		instances.clear();
-		subroot.instGroup.instances = null;
+		// now all instances at 'sub_node' are no longer used
+		instGroup.length = 0;
+	}
+	
+	/**
+	 * Return the instance at 'index' of an instance group
+	 * @param instGroup
+	 * @param index from 0 to instGroup.length-1
+	 * @return an int array of selector IDs in ascending order
+	 */
+	public int[] getInstance(InstGroup instGroup, int index){
+		return this.records[this.order[instGroup.offset+index]];
 	}
-	private void insert_record(PPCNode sub_node, int[] record, int level){
-	    PPCNode new_node, mid_child;
-	    boolean wasNotMerged;
-	    int id, position, mid_index, size;
+	private void insert_record(PPCNode sub_node, int[] record, int level, PPCNodePool node_pool, boolean count_nodes){
+	    PPCNode child;
+	    int id;
 	
 	    // The record of ids is in ascending order.
 	    // So the order of ids to insert into the tree is from right to left.
 	    for(int i = record.length-level; i>-1; i--){
 	    	id = record[i];
-	        wasNotMerged = true;
-	        position = 0;
-	    	size = sub_node.children.size();
 	    	
-	    	// Binary search on the id-based ordered children node list of sub_node
-	    	while (position < size) {
-	    		mid_index = (position + size) / 2;
-	            mid_child = sub_node.children.get(mid_index);
-	            
-	            if (mid_child.itemID < id) position = mid_index + 1;
-	            else if (mid_child.itemID > id) size = mid_index;
-	            else {
-	            	mid_child.count++;
-	            	sub_node = mid_child;
-	                wasNotMerged = false;
-	                break;
-	            }
-	        }
+	    	// Look up the child node with 'id' in the children list of sub_node,
+	    	// by binary search for a narrow list or by hashing for a wide list
+	    	child = sub_node.children.find(id);
 	        
-	        if (wasNotMerged) {
-	        	new_node = new PPCNode(id, sub_node, 1);
-	        	// position now is the right index in children node list of sub_node
-	        	sub_node.children.add(position, new_node);
-	        	sub_node = new_node;
+	        if (child != null) {
+	        	child.count++;
+	        	sub_node = child;
+	        }else{
+	        	child = (node_pool == null) ? new PPCNode(id, sub_node, 1) : node_pool.acquire(id, sub_node, 1);
+	        	sub_node.children.insert(child);
+	        	sub_node = child;
+	        	if(count_nodes) this.count_pending_node(id);
 	        }
 	    }
 	}
@@ -147,87 +221,271 @@ public class P3CTree extends PPCTree {
 	 * @param max_inst_count
 	 */
 	public void buildTopPart(int[][] data_instances, int max_inst_count){
-		this.growAtRootOnelevel(data_instances);
-		this.buildTopPartRecursive(this.root, max_inst_count);
+		TopPartPartitioner partitioner = this.growAtRootOnelevel(data_instances);
+		this.growTopPart(this.root, max_inst_count, partitioner, this.stack);
+	}
+	
+	/**
+	 * The same as buildTopPart(int[][], int), but the top part is built by 'thread_count' threads.
+	 * </br>The top levels are grown by the calling thread until there are enough nodes to grow, then
+	 * the parts below these nodes are grown in parallel. The top part is identical to the one built by one thread.
+	 * @param data_instances
+	 * @param max_inst_count
+	 * @param thread_count
+	 * @throws InterruptedException
+	 */
+	public void buildTopPart(int[][] data_instances, int max_inst_count, int thread_count) throws InterruptedException{
+		TopPartPartitioner partitioner = this.growAtRootOnelevel(data_instances);
+		
+		// nodes to grow, level by level
+		List<PPCNode> frontier = new ArrayList<PPCNode>();
+		for(PPCNode child : this.root.children) if (this.must_grow(child, max_inst_count)) frontier.add(child);
+		while (!frontier.isEmpty() && frontier.size() < thread_count*4){
+			List<PPCNode> next_frontier = new ArrayList<PPCNode>();
+			for(PPCNode node : frontier){
+				this.growAtNodeOnelevel(node, partitioner);
+				for(PPCNode child : node.children) if (this.must_grow(child, max_inst_count)) next_frontier.add(child);
+			}
+			frontier = next_frontier;
+		}
+		
+		IntHolder globalIndex = new IntHolder(0);
+		Thread[] threads = new Thread[thread_count];
+		for(int i=0; i<thread_count; i++){
+			TopPartPartitioner thread_partitioner = (i == 0) ? partitioner : 
+				new TopPartPartitioner(this.records, this.order, partitioner.getBuffer(), this.selector_nlists.length);
+			threads[i] = new GrowTopPartThread(this, frontier, thread_partitioner, globalIndex, max_inst_count);
+			threads[i].start();
+		}
+		for(int i=0; i<thread_count; i++) threads[i].join();
+	}
+	/**
+	 * Build the top part of the global tree from all instances in the input data that the estimated footprint
+	 * (by estimate_subtree_bytes) of every subtree with root at a leaf node (of the top part) does not exceed 'budget_bytes',
+	 * as far as the instances can be split further.
+	 * </br>Adjacent leaf nodes are then grouped into work units whose total estimated footprints do not exceed the budget.
+	 * @param data_instances
+	 * @param budget_bytes
+	 * @return the split plan, which can be replayed by buildTopPart(int[][], SplitPlan)
+	 */
+	public SplitPlan buildTopPart(int[][] data_instances, long budget_bytes){
+		TopPartPartitioner partitioner = this.growAtRootOnelevel(data_instances);
+		
+		// pre-order traversal with the explicit stack, a node is grown one level before its children are visited
+		List<int[]> split_paths = new ArrayList<int[]>();
+		NodeStack stack = this.stack;
+		stack.push(this.root);
+		PPCNode child;
+		while(!stack.isEmpty()){
+			if((child = stack.next_child()) != null){
+				if (((P3CNode) child).instGroup.length > 0 && this.estimate_subtree_bytes(child) > budget_bytes) {
+					split_paths.add(this.getPathIDs(child));
+					this.growAtNodeOnelevel(child, partitioner);
+					stack.push(child);
+				}
+			}else stack.pop();
+		}
+		
+		// group adjacent leaf nodes into work units
+		List<PPCNode> leaf_nodes = this.getLeafNodes();
+		int leaf_count = leaf_nodes.size();
+		int[] starts = new int[leaf_count+1];
+		long[] bytes = new long[leaf_count];
+		int unit_count = 0;
+		long leaf_bytes;
+		for(int i=0; i<leaf_count; i++){
+			leaf_bytes = this.estimate_subtree_bytes(leaf_nodes.get(i));
+			if(unit_count == 0 || bytes[unit_count-1] + leaf_bytes > budget_bytes){
+				starts[unit_count] = i;
+				unit_count++;
+			}
+			bytes[unit_count-1] += leaf_bytes;
+		}
+		int[] unit_starts = new int[unit_count+1];
+		System.arraycopy(starts, 0, unit_starts, 0, unit_count);
+		unit_starts[unit_count] = leaf_count;
+		long[] unit_bytes = new long[unit_count];
+		System.arraycopy(bytes, 0, unit_bytes, 0, unit_count);
+		
+		return new SplitPlan(budget_bytes, split_paths, unit_starts, unit_bytes);
+	}
+	
+	/**
+	 * Build the top part of the global tree by replaying a split plan, the input data must be the one the plan was made from.
+	 * @param data_instances
+	 * @param plan
+	 */
+	public void buildTopPart(int[][] data_instances, SplitPlan plan){
+		TopPartPartitioner partitioner = this.growAtRootOnelevel(data_instances);
+		
+		// split paths are in pre-order, so a node is grown after its ancestors
+		PPCNode node;
+		for(int[] path : plan.getSplitPaths()){
+			node = this.root;
+			for(int id : path){
+				node = (node.children == null) ? null : node.children.find(id);
+				if(node == null) throw new IllegalArgumentException("The split plan does not match the input data");
+			}
+			this.growAtNodeOnelevel(node, partitioner);
+		}
+		
+		if(this.getLeafNodes().size() != plan.getLeafCount())
+			throw new IllegalArgumentException("The split plan does not match the input data");
+	}
+	
+	/**
+	 * Estimate the heap footprint in bytes of the subtree to build up at a leaf node 'sub_node' from its instance group.
+	 * </br>Each distinct suffix contributes at most its length of nodes, identical suffixes share one path,
+	 * so the estimation is an upper bound of the number of subtree nodes times BYTES_PER_NODE.
+	 * </br>The estimation is cached in the instance group, until the subtree is built.
+	 * @param sub_node a leaf node of the top part
+	 * @return the estimated footprint in bytes
+	 */
+	public long estimate_subtree_bytes(PPCNode sub_node){
+		InstGroup instGroup = ((P3CNode) sub_node).instGroup;
+		if (instGroup == null || instGroup.length == 0) return BYTES_PER_NODE;
+		if (instGroup.estimated_bytes >= 0) return instGroup.estimated_bytes;
+		int level = instGroup.level;
+		int end = instGroup.offset + instGroup.length;
+		
+		// open-addressing set of 64-bit hashes of the distinct suffixes, 0 means an empty slot.
+		// It is doubled when it is half full, so it is sized by the distinct suffixes, not by the instances
+		long[] table = new long[64];
+		int mask = table.length-1, distinct_count = 0;
+		long nodes = 1, hash;
+		int last, slot;
+		int[] instance;
+		for(int index=instGroup.offset; index<end; index++){
+			instance = this.records[this.order[index]];
+			// ids of the suffix to insert are from index 'last' to index 0
+			last = instance.length-level;
+			hash = last+1;
+			for(int i=last; i>-1; i--) hash = (hash + instance[i]) * 0x9E3779B97F4A7C15L;
+			hash ^= hash >>> 29;
+			if(hash == 0) hash = 1;
+			
+			slot = (int) hash & mask;
+			while(table[slot] != 0 && table[slot] != hash) slot = (slot+1) & mask;
+			if(table[slot] == 0){
+				table[slot] = hash;
+				nodes += last+1;
+				if(++distinct_count*2 > table.length){
+					table = rehash(table);
+					mask = table.length-1;
+				}
+			}
+		}
+		return (instGroup.estimated_bytes = nodes*BYTES_PER_NODE);
+	}
+	
+	/**
+	 * Return an open-addressing set of 64-bit hashes twice as large with the hashes of 'table'
+	 */
+	private static long[] rehash(long[] table){
+		long[] new_table = new long[table.length*2];
+		int mask = new_table.length-1, slot;
+		for(long hash : table){
+			if(hash == 0) continue;
+			slot = (int) hash & mask;
+			while(new_table[slot] != 0) slot = (slot+1) & mask;
+			new_table[slot] = hash;
+		}
+		return new_table;
 	}
+	
+	/**
+	 * Return an array of selector IDs associated with nodes in the path from the child of the root to 'sub_node'
+	 */
+	private int[] getPathIDs(PPCNode sub_node){
+		int[] ids = this.getPrefixIDs(sub_node);
+		int[] path = new int[ids.length];
+		for(int i=0; i<ids.length; i++) path[i] = ids[ids.length-1-i];
+		return path;
+	}
+	
 	/**
 	 * Grow at root of the SubPPCTree one level from all instances from the input data, 
 	 * build its child nodes.
+	 * </br>The index array of the records is created, the root node gets the group of all non-empty records.
 	 * @param data_instances
+	 * @return the partitioner for the calling thread
 	 */
-	private void growAtRootOnelevel(int[][] data_instances){
-		PPCNode root_node = this.root;
-
-		for (int[] instance : data_instances){
-			this.grow(root_node, instance, 1);
+	private TopPartPartitioner growAtRootOnelevel(int[][] data_instances){
+		this.records = data_instances;
+		this.order = new int[data_instances.length];
+		int length = 0;
+		for(int i=0; i<data_instances.length; i++){
+			if(data_instances[i].length > 0){
+				this.order[length] = i;
+				length++;
+			}
 		}
+		
+		TopPartPartitioner partitioner = new TopPartPartitioner(this.records, this.order, 
+				new int[data_instances.length], this.selector_nlists.length);
+		((P3CNode) this.root).instGroup = new InstGroup(1, 0, length);
+		this.growAtNodeOnelevel(this.root, partitioner);
+		return partitioner;
 	}
-	private void buildTopPartRecursive(PPCNode sub_node, int max_inst_count){
-		for(PPCNode child : sub_node.children){
-			if (child.count > max_inst_count) {
-				this.growAtNodeOnelevel(child);
-				this.buildTopPartRecursive(child, max_inst_count);
-			}	
+	
+	/**
+	 * Grow the top part below 'sub_node' (including 'sub_node' if it is not the root), by a pre-order traversal
+	 * with 'stack', a node is grown one level before its children are visited.
+	 */
+	void growTopPart(PPCNode sub_node, int max_inst_count, TopPartPartitioner partitioner, NodeStack stack){
+		if (sub_node != this.root) this.growAtNodeOnelevel(sub_node, partitioner);
+		stack.push(sub_node);
+		PPCNode child;
+		while(!stack.isEmpty()){
+			if((child = stack.next_child()) != null){
+				if (this.must_grow(child, max_inst_count)) {
+					this.growAtNodeOnelevel(child, partitioner);
+					stack.push(child);
+				}
+			}else stack.pop();
 		}
 	}
+	private boolean must_grow(PPCNode node, int max_inst_count){
+		return node.count > max_inst_count && ((P3CNode) node).instGroup.length > 0;
+	}
+	
 	/**
 	 * Grow at the 'sub_node' one more level, build its child nodes.
-	 * </br>After finishing, the list of instances at 'sub_node' will be free 
-	 * because they had been split and transfered to its child nodes, 
+	 * </br>The instance group of 'sub_node' is partitioned in place by the ids at its level, 
+	 * each partition becomes the instance group of a child node, then the group of 'sub_node' is emptied.
 	 * @param sub_node
+	 * @param partitioner
 	 */
-	private void growAtNodeOnelevel(PPCNode sub_node){
-		P3CNode subroot = (P3CNode) sub_node;
-		int level = subroot.instGroup.level;
-		List<int[]> instances = subroot.instGroup.instances;
-
-		for (int[] instance : instances){
-			this.grow(subroot, instance, level);
+	private void growAtNodeOnelevel(PPCNode sub_node, TopPartPartitioner partitioner){
+		InstGroup instGroup = ((P3CNode) sub_node).instGroup;
+		int level = instGroup.level;
+		
+		int key_count = partitioner.partition(instGroup.offset, instGroup.length, level);
+		
+		// child nodes are created in ascending order of ids
+		for(int i=0; i<key_count; i++){
+			sub_node.children.insert(new P3CNode(partitioner.key(i), sub_node, partitioner.count(i),
+												level+1, partitioner.start(i), partitioner.grow_count(i)));
 		}
 		
 		// now all instances at 'sub_node' had been split and transfered to its child nodes.
-		instances.clear();
-		subroot.instGroup.instances = null;
-	}
-	private void grow(PPCNode sub_node, int[] instance, int level){
-	    PPCNode mid_child;
-    	int id = instance[instance.length - level];
-        int position = 0, mid_index;
-    	int size = sub_node.children.size();
-    	boolean wasNotMerged = true;
-    	
-    	// Binary search on the id-based ordered children node list of sub_node
-    	while (position < size) {
-    		mid_index = (position + size) / 2;
-            mid_child = sub_node.children.get(mid_index);
-            
-            if (mid_child.itemID < id) position = mid_index + 1;
-            else if (mid_child.itemID > id) size = mid_index;
-            else {
-            	mid_child.count++;
-            	// only add the instance if it can be used to grow the tree further
-            	if(instance.length > level) ((P3CNode) mid_child).instGroup.instances.add(instance);
-                wasNotMerged = false;
-                break;
-            }
-        }
-        
-        if (wasNotMerged) {
-        	List<int[]> instances = new ArrayList<int[]>();
-        	
-        	// only add the instance if it can be used to grow the tree further
-        	if(instance.length > level) instances.add(instance);
-        	
-        	// position now is the right index in children node list of sub_node
-        	sub_node.children.add(position, new P3CNode(id, sub_node, 1, level+1, instances));
-        }
+		instGroup.length = 0;
 	}
 	
 	/**
 	 * Assign PPCode for nodes of the subtree with its root at 'sub_node'
 	 * @param sub_node
 	 */
-	public void assignPrePosOrderCodeSubTree(PPCNode sub_node){		
+	public void assignPrePosOrderCodeSubTree(PPCNode sub_node){
+		if(this.code_base != null){
+			// local codes of the subtree
+			this.currentPreCode = 0;
+			this.currentPosCode = 0;
+			this.traverseAssignPrePosOrderCode(sub_node);
+			this.assignWideCodes(sub_node, this.currentPreCode);
+			return;
+		}
+		
 		// assign pre-order code for ancestor nodes of sub_node
 		// principle: if the first child is assigned a pre-order code, its parent must be assigned a pre-order code beforehand
 		this.assignPreOrderCode_for_AncestorsWithoutPreOrderCode(sub_node);
@@ -255,17 +513,6 @@ public class P3CTree extends PPCTree {
 			this.currentPreCode ++;
 		}
 	}
-    private void traverseAssignPrePosOrderCode(PPCNode tree_node){
-    	// Assign a code for the current node
-    	tree_node.pre = this.currentPreCode;
-    	this.currentPreCode++;
-    	
-    	// If is not a leaf node, traverse all its children
-    	for(PPCNode child : tree_node.children) traverseAssignPrePosOrderCode(child);
-    	
-    	tree_node.pos = this.currentPosCode;
-		this.currentPosCode++;
-    }
     private void assignPostOrderCode_for_Ancestors(PPCNode sub_node){
     	// check if sub_node is the last child of its parent
     	// sub_node.parent.itemID == -1 (happen if level=1), not assign post-order code for the root node (without a selector associated)
@@ -291,6 +538,46 @@ public class P3CTree extends PPCTree {
 		}
 	}
     
+    /**
+     * Assign the 64-bit codes of the ancestors of 'sub_node' and set the code base of the subtree at 'sub_node',
+     * the same as the int way but the nodes of the subtree keep their local codes.
+     * @param sub_node
+     * @param node_count the number of nodes of the subtree, coded locally from 0
+     */
+    private void assignWideCodes(PPCNode sub_node, int node_count){
+    	// pre-order codes of the ancestors without one, if sub_node is the first child
+    	if (sub_node == sub_node.parent.children.get(0)){
+    		List<P3CNode> ancestors = new ArrayList<P3CNode>();
+    		P3CNode node = (P3CNode) sub_node;
+    		while (node.parent != null && ((P3CNode) node.parent).widePre == -1){
+    			node = (P3CNode) node.parent;
+    			ancestors.add(node);
+    		}
+    		for (int i=ancestors.size()-1; i>-1; i--){
+    			ancestors.get(i).widePre = this.widePreCode;
+    			this.widePreCode ++;
+    		}
+    	}
+    	
+    	this.code_base[0] = this.widePreCode;
+    	this.code_base[1] = this.widePosCode;
+    	((P3CNode) sub_node).widePre = this.widePreCode + sub_node.pre;
+    	((P3CNode) sub_node).widePos = this.widePosCode + sub_node.pos;
+    	this.widePreCode += node_count;
+    	this.widePosCode += node_count;
+    	
+    	// post-order codes of the ancestors whose last child is sub_node (or an ancestor of it), not for the root
+    	P3CNode ancestor = (P3CNode) sub_node;
+    	while (ancestor.parent != null && ancestor.parent.itemID != -1
+    			&& ancestor == ancestor.parent.children.get(ancestor.parent.children.size()-1)){
+    		ancestor = (P3CNode) ancestor.parent;
+    		ancestor.widePos = this.widePosCode;
+    		this.widePosCode ++;
+    		// ancestor has full codes, add it to the corresponding Nlist
+    		((WideNodelist) this.selector_nlists[ancestor.itemID]).add(ancestor.widePre, ancestor.widePos, ancestor.count);
+    	}
+    }
+    
     /**
      * Update Nlists of selectors from nodes of the subtree with root at 'sub_node'
      * </br><b>Note:</b> After Nlist of selectors updated, the subtree should be freed for memory
@@ -298,20 +585,96 @@ public class P3CTree extends PPCTree {
      * @param sub_node
      */
     public void update_nlists_from_subtree(PPCNode sub_node){
-    	// Add root node of the subtree to the corresponding nlist
-   	 	this.selector_nlists[sub_node.itemID].add(sub_node.pre, sub_node.pos, sub_node.count);
-   	 
-   	 	// Update selector_nlists
-   	 	for(PPCNode child : sub_node.children){
-   	 		this.update_nlists_recursive(child, this.selector_nlists);
-   	 	}
+    	// Root node of the subtree is also added to the corresponding nlist
+    	this.count_pending_node(sub_node.itemID);
+    	this.reserve_pending_nodes();
+    	this.update_nlists(sub_node, true, this.selector_nlists);
+    }
+    
+    private void count_pending_node(int id){
+    	if(this.pending_node_counts[id]++ == 0) this.pending_ids.add(id);
     }
-    private void update_nlists_recursive(PPCNode node, INlist[] selector_nlists){
-    	// itemID of a TreeNode means Selector.selectorID
-    	selector_nlists[node.itemID].add(node.pre, node.pos, node.count);
+    
+    /**
+     * Enlarge the Nlists of selectors to hold the pending nodes, with the same growth rate as a Nodelist
+     * to avoid copying a long Nlist for every subtree
+     */
+    private void reserve_pending_nodes(){
+    	int id, needed;
+    	INlist nlist;
+    	for(int i=0; i<this.pending_ids.size(); i++){
+    		id = this.pending_ids.get(i);
+    		nlist = this.selector_nlists[id];
+    		needed = nlist.size() + this.pending_node_counts[id];
+    		if(needed > nlist.capacity()) nlist.allocate(Math.max(needed, (int)(nlist.capacity()*allocate_rate) + 1));
+    		this.pending_node_counts[id] = 0;
+    	}
+    	this.pending_ids.clear();
+    }
+    
+    /////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    /////////////////////////////////// METHODS with subtrees stored in a NodeArena ////////////////////////////
+    /////////////////////////////////////////////////////////////////////////////////////////////////////////////
+    
+    /**
+     * Build up a subtree at node 'sub_node' in the 'arena' instead of PPCNode objects.
+     * The arena is reset, so only one subtree is stored in the arena at a time, its root is at index 0
+     * and is a copy of 'sub_node'.
+     * @param sub_node is a leaf node of the top part of the global tree, be the root of the sub tree to build up
+     * @param arena
+     */
+    public void buildSubtree(PPCNode sub_node, NodeArena arena){
+    	arena.reset();
+    	int sub_root = arena.new_root(sub_node.itemID, sub_node.count);
     	
-    	// Recursive call for child nodes
-    	for(PPCNode child : node.children) update_nlists_recursive(child, selector_nlists);
+    	InstGroup instGroup = ((P3CNode) sub_node).instGroup;
+		int level = instGroup.level;
+		int end = instGroup.offset + instGroup.length;
+		
+		int[] instance;
+		for (int i=instGroup.offset; i<end; i++){
+			instance = this.records[this.order[i]];
+			arena.insert_record(sub_root, instance, instance.length-level);
+		}
+		
+		// now all instances at 'sub_node' are no longer used
+		instGroup.length = 0;
+    }
+    
+    /**
+	 * Assign PPCode for nodes of the subtree with its root at 'sub_node', the subtree is stored in the 'arena'
+	 * @param sub_node
+	 * @param arena
+	 */
+    public void assignPrePosOrderCodeSubTree(PPCNode sub_node, NodeArena arena){
+    	if(this.code_base != null){
+    		int node_count = arena.assignPrePosOrderCode(0, 0, 0);
+    		sub_node.pre = arena.pre(0);
+    		sub_node.pos = arena.pos(0);
+    		this.assignWideCodes(sub_node, node_count);
+    		return;
+    	}
+    	
+    	this.assignPreOrderCode_for_AncestorsWithoutPreOrderCode(sub_node);
+    	
+    	int node_count = arena.assignPrePosOrderCode(0, this.currentPreCode, this.currentPosCode);
+    	sub_node.pre = arena.pre(0);
+    	sub_node.pos = arena.pos(0);
+    	this.currentPreCode += node_count;
+    	this.currentPosCode += node_count;
+    	
+    	this.assignPostOrderCode_for_Ancestors(sub_node);
+    }
+    
+    /**
+     * Update Nlists of selectors from nodes of the subtree with root at 'sub_node', the subtree is stored in the 'arena'
+     * @param sub_node
+     * @param arena
+     */
+    public void update_nlists_from_subtree(PPCNode sub_node, NodeArena arena){
+    	for(int node=0; node<arena.size(); node++) this.count_pending_node(arena.itemID(node));
+    	this.reserve_pending_nodes();
+    	arena.update_nlists(0, true, this.selector_nlists);
     }
     
     /**
@@ -319,18 +682,109 @@ public class P3CTree extends PPCTree {
      * @param sub_node root node of the subtree
      */
 	public void freeSubTrees(PPCNode sub_node){
+		// nodes of the subtree go back to the pool
+		if (this.node_pool != null && sub_node.children != null) this.node_pool.release_subtree(sub_node);
+		
 		sub_node.children.clear();
 		sub_node.children = null;
 		
 		// if the subtree is the last child in the children list of its parent
 		// all the children list is freed
-		List<PPCNode> children = sub_node.parent.children;
-		if (sub_node == children.get(children.size()-1)){
+		ChildList children = sub_node.parent.children;
+		if (sub_node == children.last()){
 			children.clear();
 			sub_node.parent.children = null;
 		}
 	}
 	
+	/**
+	 * In a parallel way, build subtrees at all leaf nodes of the top part, assign pre-order and post-order codes
+	 * and update Nlists of selectors. The result is identical to processing the leaf nodes one by one with
+	 * buildSubtree, assignPrePosOrderCodeSubTree, update_nlists_from_subtree and freeSubTrees.
+	 * </br>Worker threads build subtrees and code them locally, then the calling thread splices the fragments
+	 * in the order of leaf nodes, the code offsets of each subtree come from the sizes of the previous subtrees.
+	 * </br>At most thread_count*4 subtrees (or their fragments) are alive at the same time.
+	 * @param thread_count the number of worker threads
+	 * @throws InterruptedException
+	 */
+	public void build_subtrees_parallel(int thread_count) throws InterruptedException {
+		this.build_subtrees_parallel(thread_count, -1);
+	}
+	
+	/**
+	 * The same as build_subtrees_parallel(int), but a leaf node is only claimed while the estimated footprints
+	 * (estimate_subtree_bytes) of the alive subtrees with its subtree do not exceed 'budget_bytes',
+	 * or no other subtree is alive.
+	 * @param thread_count the number of worker threads
+	 * @param budget_bytes non-positive for no budget
+	 * @throws InterruptedException
+	 */
+	public void build_subtrees_parallel(int thread_count, long budget_bytes) throws InterruptedException {
+		List<PPCNode> leaf_nodes = this.getLeafNodes();
+		int leaf_count = leaf_nodes.size();
+		long[] leaf_bytes = null;
+		if(budget_bytes > 0){
+			leaf_bytes = new long[leaf_count];
+			for(int i=0; i<leaf_count; i++) leaf_bytes[i] = this.estimate_subtree_bytes(leaf_nodes.get(i));
+		}
+		SubtreeFragmentQueue queue = new SubtreeFragmentQueue(leaf_count, thread_count*4, leaf_bytes, budget_bytes);
+		
+		// the workers use pools if the tree does, their statistics are merged into the pool of the tree
+		BuildSubtreeThread[] threads = new BuildSubtreeThread[thread_count];
+		for(int i=0; i<thread_count; i++){
+			threads[i] = new BuildSubtreeThread(this, leaf_nodes, queue, this.node_pool != null);
+			threads[i].start();
+		}
+		
+		try{
+			for(int i=0; i<leaf_count; i++){
+				this.splice_fragment(leaf_nodes.get(i), queue.take(i));
+			}
+		}catch(InterruptedException | RuntimeException e){
+			queue.fail(e);
+			throw e;
+		}finally{
+			for(int i=0; i<thread_count; i++) threads[i].join();
+		}
+		if(this.node_pool != null){
+			for(BuildSubtreeThread thread : threads) this.node_pool.merge_statistics(thread.getNodePool());
+		}
+	}
+	/**
+	 * Assign codes for the subtree at 'sub_node' and its ancestors, update Nlists of selectors
+	 * from the fragment of the subtree and free the subtree
+	 */
+	private void splice_fragment(PPCNode sub_node, SubtreeFragment fragment){
+		// codes of the fragment nodes are local, offsets are the current codes (or the code base for wide codes)
+		int base_pre = 0, base_pos = 0;
+		if(this.code_base != null){
+			sub_node.pre = 0;
+			sub_node.pos = fragment.poss[0];
+			this.assignWideCodes(sub_node, fragment.size);
+		}else{
+			this.assignPreOrderCode_for_AncestorsWithoutPreOrderCode(sub_node);
+			
+			base_pre = this.currentPreCode;
+			base_pos = this.currentPosCode;
+			sub_node.pre = base_pre;
+			sub_node.pos = base_pos + fragment.poss[0];
+			this.currentPreCode += fragment.size;
+			this.currentPosCode += fragment.size;
+			
+			this.assignPostOrderCode_for_Ancestors(sub_node);
+		}
+		
+		// fragment nodes are in pre-order, the same order as update_nlists_from_subtree
+		int[] itemIDs = fragment.itemIDs, poss = fragment.poss, counts = fragment.counts;
+		for(int i=0; i<fragment.size; i++) this.count_pending_node(itemIDs[i]);
+		this.reserve_pending_nodes();
+		for(int i=0; i<fragment.size; i++){
+			this.selector_nlists[itemIDs[i]].add(base_pre+i, base_pos+poss[i], counts[i]);
+		}
+		
+		this.freeSubTrees(sub_node);
+	}
+	
 	/**
 	 * Collect redundant memory that was allocated for Nlists
 	 */
@@ -338,5 +792,10 @@ public class P3CTree extends PPCTree {
 		for (INlist nlist : this.selector_nlists){
 			nlist.shrink();
 		}
+		// int codes added to the WideNodelists from now on are not relative to a subtree
+		if(this.code_base != null){
+			this.code_base[0] = 0;
+			this.code_base[1] = 0;
+		}
 	}
 }
\ No newline at end of file
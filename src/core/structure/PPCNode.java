@@ -5,9 +5,6 @@
 
 package core.structure;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * PPCNode of PPCTree
  *
@@ -20,14 +17,14 @@ public class PPCNode {
     
     public int itemID = -1;
     public PPCNode parent = null;
-    public List<PPCNode> children = null;
+    public ChildList children = null;
     
     /**
      * Build a root tree node (without parent)
      */
     public PPCNode() {
     	itemID = -1;
-        children = new ArrayList<PPCNode>();
+        children = new ChildList();
     }
     
     /**
@@ -37,7 +34,7 @@ public class PPCNode {
         this.itemID = item_id;
         this.parent = parent;
         this.count = count;
-        this.children = new ArrayList<PPCNode>();
+        this.children = new ChildList();
     }
     
     /**
@@ -49,12 +46,12 @@ public class PPCNode {
         this.pos = pos;
         this.itemID = item_id;
         this.count = count;
-        this.children = new ArrayList<PPCNode>();
+        this.children = new ChildList();
     }
     
     public PPCNode(int item_id, int count) {
         this.itemID = item_id;
         this.count = count;
-        this.children = new ArrayList<PPCNode>();
+        this.children = new ChildList();
     }
 }
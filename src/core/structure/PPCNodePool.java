@@ -0,0 +1,181 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.Arrays;
+
+/**
+ * PPCNodePool recycles the PPCNodes of subtrees of a P3CTree, a subtree is released into the pool
+ * after its Nlists were updated and the next subtree is built from the released nodes.
+ * </br>A released node keeps its children list, emptied, so the children arrays are also recycled.
+ * </br>The pool is bounded by the largest number of nodes acquired between two releases so far,
+ * i.e. the largest subtree seen, extra released nodes are left to the garbage collector.
+ * </br>A pool is not thread-safe, each thread building subtrees must have its own pool.
+ */
+public class PPCNodePool {
+	private static final float allocate_rate = 1.75f;
+	
+	private PPCNode[] nodes = new PPCNode[64];
+	private int size = 0;
+	private int capacity = 0;
+	
+	// the number of nodes acquired since the last release
+	private int acquired = 0;
+	
+	// statistics
+	private long created_count = 0;
+	private long reused_count = 0;
+	private long released_count = 0;
+	private long discarded_count = 0;
+	private int peak_size = 0;
+	
+	/**
+	 * Get a node from the pool, a new node is created if the pool is empty
+	 * @param item_id
+	 * @param parent
+	 * @param count
+	 * @return a node without children
+	 */
+	public PPCNode acquire(int item_id, PPCNode parent, int count){
+		this.acquired++;
+		if(this.size == 0){
+			this.created_count++;
+			return new PPCNode(item_id, parent, count);
+		}
+		
+		this.reused_count++;
+		this.size--;
+		PPCNode node = this.nodes[this.size];
+		this.nodes[this.size] = null;
+		node.itemID = item_id;
+		node.parent = parent;
+		node.count = count;
+		node.pre = -1;
+		node.pos = -1;
+		return node;
+	}
+	
+	/**
+	 * Release all nodes of the subtree with root at 'sub_root' into the pool, 'sub_root' itself is not released
+	 * but its children list is emptied.
+	 * </br>The pool array is also the queue of a breadth-first traversal: the children of a node
+	 * are appended behind the released nodes, so no other space is needed.
+	 * @param sub_root
+	 */
+	public void release_subtree(PPCNode sub_root){
+		if(this.acquired > this.capacity) this.capacity = this.acquired;
+		this.acquired = 0;
+		
+		if(sub_root.children == null) return;
+		int start = this.size;
+		this.size = sub_root.children.drainTo(this, this.size);
+		sub_root.children.reset();
+		
+		PPCNode node;
+		for(int i=start; i<this.size; i++){
+			node = this.nodes[i];
+			this.size = node.children.drainTo(this, this.size);
+			node.children.reset();
+		}
+		
+		this.released_count += this.size - start;
+		if(this.size > this.peak_size) this.peak_size = this.size;
+	}
+	
+	/**
+	 * Append 'node' at 'index' of the pool array, called by ChildList.drainTo
+	 * @return the next index, 'index' itself if the node is discarded because the pool is full
+	 */
+	int put(int index, PPCNode node){
+		if(index >= this.capacity){
+			// the subtree of a discarded node is left to the garbage collector
+			this.discarded_count++;
+			return index;
+		}
+		if(index == this.nodes.length){
+			int new_capacity = Math.min(this.capacity, (int)(this.nodes.length*allocate_rate) + 1);
+			this.nodes = Arrays.copyOf(this.nodes, new_capacity);
+		}
+		this.nodes[index] = node;
+		return index+1;
+	}
+	
+	/**
+	 * Remove all nodes in the pool and free the allocated space, the capacity and the statistics are kept
+	 */
+	public void clear(){
+		this.nodes = new PPCNode[64];
+		this.size = 0;
+		this.acquired = 0;
+	}
+	
+	/**
+	 * Add the statistics of 'pool' (e.g. of a worker thread) to the statistics of this pool,
+	 * the capacity and the peak size are the larger ones
+	 * @param pool
+	 */
+	public void merge_statistics(PPCNodePool pool){
+		this.created_count += pool.created_count;
+		this.reused_count += pool.reused_count;
+		this.released_count += pool.released_count;
+		this.discarded_count += pool.discarded_count;
+		if(pool.capacity > this.capacity) this.capacity = pool.capacity;
+		if(pool.peak_size > this.peak_size) this.peak_size = pool.peak_size;
+	}
+	
+	/**
+	 * Return the number of nodes available in the pool
+	 */
+	public int size(){
+		return this.size;
+	}
+	
+	/**
+	 * Return the maximum number of nodes kept in the pool, the largest subtree seen so far
+	 */
+	public int capacity(){
+		return this.capacity;
+	}
+	
+	public long getCreatedCount(){
+		return this.created_count;
+	}
+	
+	public long getReusedCount(){
+		return this.reused_count;
+	}
+	
+	public long getReleasedCount(){
+		return this.released_count;
+	}
+	
+	/**
+	 * Return the number of released nodes which were not kept because the pool was full,
+	 * the nodes below them are not counted
+	 */
+	public long getDiscardedCount(){
+		return this.discarded_count;
+	}
+	
+	public int getPeakSize(){
+		return this.peak_size;
+	}
+	
+	/**
+	 * Return the ratio of acquired nodes which were reused
+	 */
+	public double getReuseRate(){
+		long acquired_count = this.created_count + this.reused_count;
+		return (acquired_count == 0) ? 0 : (double) this.reused_count / acquired_count;
+	}
+	
+	public String toString(){
+		return "created: " + this.created_count + ", reused: " + this.reused_count
+				+ String.format(" (%.1f%%)", this.getReuseRate()*100)
+				+ ", released: " + this.released_count + ", discarded: " + this.discarded_count
+				+ ", capacity: " + this.capacity + ", peak size: " + this.peak_size;
+	}
+}
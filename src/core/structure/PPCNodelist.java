@@ -65,6 +65,18 @@ public class PPCNodelist implements INlist {
  		node.count = ppcNode.count;
  	}
  	
+ 	public int pre(int index){
+ 		return this.ppcNodes[index].pre;
+ 	}
+ 	
+ 	public int pos(int index){
+ 		return this.ppcNodes[index].pos;
+ 	}
+ 	
+ 	public int count(int index){
+ 		return this.ppcNodes[index].count;
+ 	}
+ 	
  	/**
  	 * Return the support count
  	 * @return 
@@ -9,6 +9,9 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +24,12 @@ public class PPCTree {
 	protected int currentPreCode;
 	protected int currentPosCode;
 	
+	// explicit stack reused by the tree traversals, so a traversal does not recurse once per tree level
+	protected NodeStack stack = new NodeStack();
+	
+	// the number of nodes of each item ID, counted during the insertion to create Nlists with the exact sizes
+	protected int[] node_counts = new int[0];
+	
 	////////////////////////////////////////////// COMMONS METHODS //////////////////////////////////////////////////
 
 	public PPCTree() {
@@ -35,6 +44,7 @@ public class PPCTree {
 	 * Free memory
 	 */
 	public void free(){
+		this.node_counts = new int[0];
 		this.root.children.clear();
 		this.root.children = null;
 		this.root = null;
@@ -57,23 +67,34 @@ public class PPCTree {
     	output.write(sb.append(-1).append(':').append(root.pre).append(':').append(root.pos).append(':').
     			append(root.itemID).append(':').append(root.count).append('\n').toString());
     	
-    	for(PPCNode child : root.children) storeSubTree(child, output, sb);
-    	
-    	output.close();
+    	// pre-order traversal with the explicit stack
+    	NodeStack stack = this.stack;
+    	stack.clear();
+    	stack.push(this.root);
+    	PPCNode node;
+    	try{
+    		while(!stack.isEmpty()){
+    			if((node = stack.next_child()) != null){
+    				storeNode(node, output, sb);
+    				stack.push(node);
+    			}else stack.pop();
+    		}
+    	}finally{
+    		stack.clear();
+    		output.close();
+    	}
     	
     	// Return time of storing tree
         return System.currentTimeMillis() - start;
     }
     
     /**
-     * Store a tree by pre-order traverse, this function will be called recursively
+     * Store a node in one line
      */
-    private static void storeSubTree(PPCNode node, BufferedWriter output, StringBuilder sb) throws IOException{
+    private static void storeNode(PPCNode node, BufferedWriter output, StringBuilder sb) throws IOException{
     	sb.setLength(0);
 		output.write(sb.append(node.parent.pre).append(':').append(node.pre).append(':').append(node.pos).append(':').
     			append(node.itemID).append(':').append(node.count).append('\n').toString());
-    	
-    	for(PPCNode child : node.children) storeSubTree(child, output, sb);
     }
 	
 	/**
@@ -85,17 +106,55 @@ public class PPCTree {
 		this.currentPosCode = 0;
 		this.traverseAssignPrePosOrderCode(this.root);
 	}
+	
+	/**
+	 * The same as assignPrePosOrderCode() but with the recursive traversal, just be used for benchmarking
+	 */
+	public void assignPrePosOrderCode_recursive(){
+		this.currentPreCode = 0;
+		this.currentPosCode = 0;
+		this.traverseAssignPrePosOrderCode_recursive(this.root);
+	}
+	
+	/**
+     * Traverse the subtree with root at 'sub_root' with pre&post-order and assign two ordinal numbers for each node.
+     * </br>The traversal is iterative with the explicit stack, the codes start from the current codes.
+     */
+    protected void traverseAssignPrePosOrderCode(PPCNode sub_root){
+    	int pre = this.currentPreCode, pos = this.currentPosCode;
+    	NodeStack stack = this.stack;
+    	PPCNode node;
+    	
+    	sub_root.pre = pre;
+    	pre++;
+    	stack.push(sub_root);
+    	while(!stack.isEmpty()){
+    		if((node = stack.next_child()) != null){
+    			// the first visit of a node
+    			node.pre = pre;
+    			pre++;
+    			stack.push(node);
+    		}else{
+    			// all children of the top node were visited
+    			stack.pop().pos = pos;
+    			pos++;
+    		}
+    	}
+    	
+    	this.currentPreCode = pre;
+    	this.currentPosCode = pos;
+    }
     
     /**
      * Traverse the tree with pre&post-order and assign two ordinal numbers for each node
      */
-    private void traverseAssignPrePosOrderCode(PPCNode tree_node){
+    private void traverseAssignPrePosOrderCode_recursive(PPCNode tree_node){
     	// Assign a code for the current node
     	tree_node.pre = currentPreCode;
     	currentPreCode++;
     	
     	// If is not a leaf node, traverse all its children
-    	for(PPCNode child : tree_node.children) traverseAssignPrePosOrderCode(child);
+    	for(PPCNode child : tree_node.children) traverseAssignPrePosOrderCode_recursive(child);
     	
     	tree_node.pos = currentPosCode;
 		currentPosCode++;
@@ -107,42 +166,125 @@ public class PPCTree {
 	 * @param record an int array of selector IDs in a pre-defined order of selectors
 	 */
 	public void insert_record(int[] record){
-	    PPCNode new_node, mid_child, sub_node = this.root;
-	    boolean wasNotMerged;
-	    int id, position, mid_index, size;
+		if(record.length == 0) return;
+		// the last id is the largest one
+		this.ensure_node_counts(record[record.length-1]+1);
+		this.insert_suffix(this.root, record, record.length-1, this.node_counts);
+	}
+	
+	/**
+	 * Return the number of nodes with 'item_id' which are inserted into the tree
+	 * @param item_id
+	 */
+	public int getNodeCount(int item_id){
+		return (item_id < this.node_counts.length) ? this.node_counts[item_id] : 0;
+	}
+	
+	protected void ensure_node_counts(int length){
+		if(length > this.node_counts.length) this.node_counts = Arrays.copyOf(this.node_counts, Math.max(length, 2*this.node_counts.length));
+	}
+	
+	/**
+	 * Add the node counts of a worker thread to the ones of the tree
+	 */
+	synchronized void add_node_counts(int[] node_counts){
+		this.ensure_node_counts(node_counts.length);
+		for(int id=0; id<node_counts.length; id++) this.node_counts[id] += node_counts[id];
+	}
+	
+	/**
+	 * Insert the ids of a record into the subtree with root at 'sub_node', 
+	 * the order of ids to insert is from the index 'from' to the index 0 of the record
+	 * @param sub_node
+	 * @param record an int array of selector IDs in a pre-defined order of selectors
+	 * @param from
+	 * @param node_counts the number of nodes of each id, increased for the new nodes
+	 */
+	protected void insert_suffix(PPCNode sub_node, int[] record, int from, int[] node_counts){
+	    PPCNode child;
+	    int id;
 	
 	    // The record of ids is in ascending order.
 	    // So the order of ids to insert into the tree is from right to left.
-	    for(int i = record.length-1; i>-1; i--){
+	    for(int i = from; i>-1; i--){
 	    	id = record[i];
-	        wasNotMerged = true;
-	        position = 0;
-	    	size = sub_node.children.size();
 	    	
-	    	// Binary search on the id-based ordered children node list of sub_node
-	    	while (position < size) {
-	    		mid_index = (position + size) / 2;
-	            mid_child = sub_node.children.get(mid_index);
-	            
-	            if (mid_child.itemID < id) position = mid_index + 1;
-	            else if (mid_child.itemID > id) size = mid_index;
-	            else {
-	            	mid_child.count++;
-	            	sub_node = mid_child;
-	                wasNotMerged = false;
-	                break;
-	            }
-	        }
+	    	// Look up the child node with 'id' in the children list of sub_node,
+	    	// by binary search for a narrow list or by hashing for a wide list
+	    	child = sub_node.children.find(id);
 	        
-	        if (wasNotMerged) {
-	        	new_node = new PPCNode(id, sub_node, 1);
-	        	// position now is the right index in children node list of sub_node
-	        	sub_node.children.add(position, new_node);
-	        	sub_node = new_node;
+	        if (child != null) {
+	        	child.count++;
+	        	sub_node = child;
+	        }else{
+	        	child = new PPCNode(id, sub_node, 1);
+	        	sub_node.children.insert(child);
+	        	sub_node = child;
+	        	node_counts[id]++;
 	        }
 	    }
 	}
 	
+	/**
+	 * Build the tree from all 'records' by 'thread_count' threads, the tree is identical to the one built by
+	 * inserting the records one by one with insert_record(int[]).
+	 * </br>Records are partitioned by their last id, the first id inserted into the tree, so all records of a partition
+	 * go into the same child node of the root. Child nodes of the root are created by the calling thread,
+	 * then the subtrees below them are built by worker threads, the largest partitions are claimed first.
+	 * </br>Pre-order and post-order codes are not assigned, call assignPrePosOrderCode() afterward.
+	 * @param records int arrays of selector IDs in ascending order
+	 * @param selector_count the number of selectors used to build the tree
+	 * @param thread_count the number of worker threads
+	 * @throws InterruptedException
+	 */
+	public void build_parallel(int[][] records, int selector_count, int thread_count) throws InterruptedException {
+		// counting sort of the record indexes by the last id
+		int[] starts = new int[selector_count+1];
+		for(int[] record : records){
+			if(record.length > 0) starts[record[record.length-1]+1]++;
+		}
+		for(int id=0; id<selector_count; id++) starts[id+1] += starts[id];
+		
+		int[] order = new int[starts[selector_count]];
+		int[] fills = new int[selector_count];
+		System.arraycopy(starts, 0, fills, 0, selector_count);
+		int last;
+		for(int i=0; i<records.length; i++){
+			if(records[i].length == 0) continue;
+			last = records[i][records[i].length-1];
+			order[fills[last]] = i;
+			fills[last]++;
+		}
+		
+		// child nodes of the root in ascending order of ids, partitions in descending order of counts to balance the threads
+		this.ensure_node_counts(selector_count);
+		List<PPCNode> children = new ArrayList<PPCNode>();
+		for(int id=0; id<selector_count; id++){
+			if(starts[id+1] == starts[id]) continue;
+			PPCNode child = this.root.children.find(id);
+			if(child == null){
+				child = new PPCNode(id, this.root, 0);
+				this.root.children.insert(child);
+				this.node_counts[id]++;
+			}
+			child.count += starts[id+1] - starts[id];
+			children.add(child);
+		}
+		Collections.sort(children, new Comparator<PPCNode>(){
+			public int compare(PPCNode n1, PPCNode n2){
+				return Integer.compare(n2.count, n1.count);
+			}
+		});
+		
+		IntHolder globalIndex = new IntHolder(0);
+		Thread[] threads = new Thread[thread_count];
+		for(int i=0; i<thread_count; i++){
+			threads[i] = new BuildRootChildThread(this, children, records, order, starts, selector_count, globalIndex);
+			threads[i].start();
+		}
+		for(int i=0; i<thread_count; i++) threads[i].join();
+	}
+	
 	/**
      * This function will create an Nlist (using Nodelist implementation) for each selector (selector ID) 
      * which was used to build the tree.
@@ -154,25 +296,25 @@ public class PPCTree {
     	// Note: selectorID of a selector is exactly its index in 'selector_nlists' 
     	List<INlist> selector_nlists = new ArrayList<INlist>(selector_count);
     	for(int i=0; i<selector_count; i++){
-    		selector_nlists.add(new Nodelist());
+    		selector_nlists.add(new Nodelist(this.getNodeCount(i)));
     	}
     	
-    	// Update selector_nlists
-    	for(PPCNode child : this.root.children){
-    		this.create_nlists_for_selectors_recursive(child, selector_nlists);
+    	// Update selector_nlists by a pre-order traversal, the root node is not associated with any selector
+    	NodeStack stack = this.stack;
+    	stack.push(this.root);
+    	PPCNode node;
+    	while(!stack.isEmpty()){
+    		if((node = stack.next_child()) != null){
+    			// itemID of a TreeNode means Selector.selectorID
+    			selector_nlists.get(node.itemID).add(node.pre, node.pos, node.count);
+    			stack.push(node);
+    		}else stack.pop();
     	}
     	
     	for(INlist nlist : selector_nlists) nlist.shrink();
     	
     	return selector_nlists;
      }
-     private void create_nlists_for_selectors_recursive(PPCNode node, List<INlist> selector_nlists){
-     	// itemID of a TreeNode means Selector.selectorID
-     	selector_nlists.get(node.itemID).add(node.pre, node.pos, node.count);
-     	
-     	// Recursive call for child nodes
-     	for(PPCNode child : node.children) create_nlists_for_selectors_recursive(child, selector_nlists);
-     }
 	
 	/**
      * This function will create an Nlist (using Nodelist implementation) for each selector (selector ID) 
@@ -181,14 +323,31 @@ public class PPCTree {
      * @return array of Nlists of selectors
      */
      public INlist[] create_Nlist_for_selectors_arr(int selector_count){
-    	// Prepare 'selector_nlists', add an empty Nodelist for each selector.
+    	// Prepare 'selector_nlists', add an empty Nodelist for each selector, allocated with the node count of the selector
+    	// so there is no regrowth, and the shrink copies nothing.
     	// Note: selectorID of a selector is exactly its index in 'selector_nlists' 
+    	INlist[] selector_nlists = new INlist[selector_count];
+    	for(int i=0; i<selector_count; i++){
+    		selector_nlists[i] = new Nodelist(this.getNodeCount(i));
+    	}
+    	
+    	// Update selector_nlists, the root node is not associated with any selector
+    	this.update_nlists(this.root, false, selector_nlists);
+    	
+    	for(INlist nlist : selector_nlists) nlist.shrink();
+    	
+    	return selector_nlists;
+     }
+     
+     /**
+      * The same as create_Nlist_for_selectors_arr(int) but with the recursive traversal, just be used for benchmarking
+      */
+     public INlist[] create_Nlist_for_selectors_arr_recursive(int selector_count){
     	INlist[] selector_nlists = new INlist[selector_count];
     	for(int i=0; i<selector_count; i++){
     		selector_nlists[i] = new Nodelist();
     	}
     	
-    	// Update selector_nlists
     	for(PPCNode child : this.root.children){
     		this.create_nlists_for_selectors_recursive_arr(child, selector_nlists);
     	}
@@ -198,6 +357,28 @@ public class PPCTree {
     	return selector_nlists;
      }
      
+     /**
+      * Add nodes of the subtree with root at 'sub_root' to the Nlists of the corresponding selectors, in pre-order.
+      * </br>The root node is added only if 'include_root' is true. The traversal is iterative with the explicit stack.
+      * @param sub_root
+      * @param include_root
+      * @param selector_nlists
+      */
+     protected void update_nlists(PPCNode sub_root, boolean include_root, INlist[] selector_nlists){
+    	if(include_root) selector_nlists[sub_root.itemID].add(sub_root.pre, sub_root.pos, sub_root.count);
+    	
+    	NodeStack stack = this.stack;
+    	stack.push(sub_root);
+    	PPCNode node;
+    	while(!stack.isEmpty()){
+    		if((node = stack.next_child()) != null){
+    			// itemID of a TreeNode means Selector.selectorID
+    			selector_nlists[node.itemID].add(node.pre, node.pos, node.count);
+    			stack.push(node);
+    		}else stack.pop();
+    	}
+     }
+     
      /**
       * This function will create an Nlist (using Nodelist implementation) for each selector (selector ID) 
       * which was used to build the tree.
@@ -233,9 +414,7 @@ public class PPCTree {
     	}
     	
     	// Update selector_nlists
-    	for(PPCNode child : this.root.children){
-    		this.create_nlists_for_selectors_recursive_arr(child, selector_nlists);
-    	}
+    	this.update_nlists(this.root, false, selector_nlists);
     	
     	// Add all Nlists of selectors to nlistDB
     	Map<String, INlist> selector_nlist_map = new HashMap<String, INlist>(total_selector_count);
@@ -282,6 +461,23 @@ public class PPCTree {
     }
     
     public int countNodes(){
+    	int count = 1;
+    	NodeStack stack = this.stack;
+    	stack.push(this.root);
+    	PPCNode node;
+    	while(!stack.isEmpty()){
+    		if((node = stack.next_child()) != null){
+    			count++;
+    			stack.push(node);
+    		}else stack.pop();
+    	}
+    	return count;
+    }
+    
+    /**
+     * The same as countNodes() but with the recursive traversal, just be used for benchmarking
+     */
+    public int countNodes_recursive(){
     	if (this.root.children == null) return 1;
     	int count = 1;
     	for(PPCNode node : this.root.children){
@@ -317,20 +513,20 @@ public class PPCTree {
     		selector_nlists[i] = new PPCNodelist();
     	}
     	
-    	// Update selector_nlists
-    	for(PPCNode child : this.root.children){
-    		this.create_nlists_for_selectors_recursive_arr_inc(child, selector_nlists);
+    	// Update selector_nlists by a pre-order traversal
+    	NodeStack stack = this.stack;
+    	stack.push(this.root);
+    	PPCNode node;
+    	while(!stack.isEmpty()){
+    		if((node = stack.next_child()) != null){
+    			// itemID of a TreeNode means Selector.selectorID
+    			selector_nlists[node.itemID].add(node);
+    			stack.push(node);
+    		}else stack.pop();
     	}
     	
     	return selector_nlists;
      }
-	 private void create_nlists_for_selectors_recursive_arr_inc(PPCNode node, INlist[] selector_nlists){
-	 	// itemID of a TreeNode means Selector.selectorID
-	 	selector_nlists[node.itemID].add(node);
-	 	
-	 	// Recursive call for child nodes
-	 	for(PPCNode child : node.children) create_nlists_for_selectors_recursive_arr_inc(child, selector_nlists);
-	 }
 	 
 	 /**
 	  * Insert a record of selector ids (in a pre-defined order) into the tree.
@@ -349,44 +545,31 @@ public class PPCTree {
 	 public void insert_record(int[] record,
 		 						INlist[] selector_nlists,
 		 						List<PPCNode> new_ppcNodes){
-	    PPCNode new_node, mid_child, sub_node = this.root;
-	    boolean wasNotMerged;
-	    int id, position, mid_index, size;
+	    PPCNode child, sub_node = this.root;
+	    int id;
 	
 	    // The record of ids is in ascending order.
 	    // So the order of ids to insert into the tree is from right to left.
 	    for(int i = record.length-1; i>-1; i--){
 	    	id = record[i];
-	        wasNotMerged = true;
-	        position = 0;
-	    	size = sub_node.children.size();
 	    	
-	    	
-	    	// Binary search on the id-based ordered children node list of sub_node
-	    	while (position < size) {
-	    		mid_index = (position + size) / 2;
-	            mid_child = sub_node.children.get(mid_index);
-	            
-	            if (mid_child.itemID < id) position = mid_index + 1;
-	            else if (mid_child.itemID > id) size = mid_index;
-	            else {
-	            	mid_child.count++;
-	            	sub_node = mid_child;
-	                wasNotMerged = false;
-	                break;
-	            }
-	        }
+	    	// Look up the child node with 'id' in the children list of sub_node
+	    	child = sub_node.children.find(id);
 	        
-	        if (wasNotMerged) {
-	        	new_node = new PPCNode(id, sub_node, 1);
+	        if (child != null) {
+	        	child.count++;
+	        	sub_node = child;
+	        }else{
+	        	child = new PPCNode(id, sub_node, 1);
+	        	this.ensure_node_counts(id+1);
+	        	this.node_counts[id]++;
 	        	
 	        	// collect the newly added node to insert to the corresponding Nlists
 	        	// after reassigning the pre-code and post-code
-	        	new_ppcNodes.add(new_node);
+	        	new_ppcNodes.add(child);
 	        	
-	        	// position now is the right index in children node list of sub_node
-	        	sub_node.children.add(position, new_node);
-	        	sub_node = new_node;
+	        	sub_node.children.insert(child);
+	        	sub_node = child;
 	        }
 	        
 	        // reset the support count of the Nlist of the selector with selectorID = 'id'
@@ -0,0 +1,66 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * PreCodeBitmap marks the pre-codes of the nodes of a Nodelist in a bitmap over the range of its pre-codes,
+ * with the number of marked pre-codes before each word of the bitmap (rank directory).
+ * </br>rank(pre) is the number of nodes whose pre-code is smaller than 'pre', in constant time. Nodes of an Nlist
+ * are never ancestors of each other, so the only node which can be an ancestor of a node with pre-code 'pre'
+ * is the node at rank(pre)-1.
+ * </br>It costs 1.5 bits per pre-code of the range, so it is built only for dense Nlists, e.g. of the most frequent selectors.
+ */
+final class PreCodeBitmap {
+	private final int first_pre;
+	private final int size;
+	private final long[] words;
+	private final int[] ranks;
+	
+	PreCodeBitmap(int[] pres, int size){
+		this.first_pre = pres[0];
+		this.size = size;
+		int word_count = (int) (((long) pres[size-1] - this.first_pre >> 6) + 1);
+		this.words = new long[word_count];
+		this.ranks = new int[word_count];
+		int offset;
+		for(int i=0; i<size; i++){
+			offset = pres[i] - this.first_pre;
+			this.words[offset >>> 6] |= 1L << offset;
+		}
+		int rank = 0;
+		for(int w=0; w<word_count; w++){
+			this.ranks[w] = rank;
+			rank += Long.bitCount(this.words[w]);
+		}
+	}
+	
+	/**
+	 * Return the number of pre-codes per node of the range of pre-codes of a non-empty Nlist
+	 */
+	static long span_per_node(int[] pres, int size){
+		return ((long) pres[size-1] - pres[0] + 1) / size;
+	}
+	
+	/**
+	 * Return the number of nodes whose pre-code is smaller than 'pre'
+	 * @param pre
+	 */
+	int rank(int pre){
+		if(pre <= this.first_pre) return 0;
+		long offset = (long) pre - this.first_pre;
+		int word = (int) (offset >>> 6);
+		if(word >= this.words.length) return this.size;
+		// bits of the word below the offset, << takes the offset modulo 64
+		return this.ranks[word] + Long.bitCount(this.words[word] & ((1L << offset) - 1));
+	}
+	
+	/**
+	 * Return the bytes of the bitmap and the rank directory
+	 */
+	long getByteSize(){
+		return 12L*this.words.length;
+	}
+}
@@ -0,0 +1,141 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * PrefixSweeper creates Nlists of selectors from records in ascending lexicographic order of their REVERSED
+ * selector ID sequences, without building a PPCTree.
+ * </br>Records in this order visit the nodes of the corresponding PPCTree in pre-order, the current path from the root
+ * is kept in a prefix stack. A node gets its pre-order code when it is pushed and its post-order code when it is popped,
+ * then it is added to the Nlist of its selector. Since two nodes of the same selector are never on the same path,
+ * nodes of a selector are popped in pre-order, so the Nlists are identical to the ones of PPCTree.
+ * </br>The root node has pre-order code 0 and is not associated with any selector.
+ */
+public class PrefixSweeper {
+	private static final float allocate_rate = 1.75f;
+	
+	private INlist[] selector_nlists;
+	
+	// the current path from the child of the root, the node at depth d has index d
+	private int[] itemIDs;
+	private int[] counts;
+	private int[] pres;
+	private int depth = 0;
+	
+	private int currentPreCode = 1;
+	private int currentPosCode = 0;
+	
+	public PrefixSweeper(int selector_count){
+		// Prepare 'selector_nlists', add an empty Nodelist for each selector.
+		// Note: selectorID of a selector is exactly its index in 'selector_nlists'
+		this.selector_nlists = new INlist[selector_count];
+		for(int i=0; i<selector_count; i++){
+			this.selector_nlists[i] = new Nodelist();
+		}
+		this.itemIDs = new int[64];
+		this.counts = new int[64];
+		this.pres = new int[64];
+	}
+	
+	/**
+	 * Add a record, records must be added in ascending lexicographic order of their reversed sequences
+	 * @param record an int array of selector IDs in ascending order
+	 */
+	public void add(int[] record){
+		this.add(record, record.length);
+	}
+	
+	/**
+	 * Add a record of the first 'length' ids of 'record', records must be added in ascending lexicographic order
+	 * of their reversed sequences
+	 * @param record an int array of selector IDs in ascending order
+	 * @param length
+	 */
+	public void add(int[] record, int length){
+		// the length of the common prefix with the current path
+		int common = 0;
+		int limit = Math.min(this.depth, length);
+		while(common < limit && this.itemIDs[common] == record[length-1-common]) common++;
+		
+		// nodes out of the common prefix are never visited again
+		this.pop_to(common);
+		
+		for(int d=0; d<common; d++) this.counts[d]++;
+		
+		if(length > this.itemIDs.length) this.grow(length);
+		for(int d=common; d<length; d++){
+			this.itemIDs[d] = record[length-1-d];
+			this.counts[d] = 1;
+			this.pres[d] = this.currentPreCode;
+			this.currentPreCode++;
+		}
+		if(length > common) this.depth = length;
+	}
+	
+	/**
+	 * Add a record given in REVERSED order, i.e. the first 'length' ids of 'reversed_record' are in descending order.
+	 * Records must be added in ascending lexicographic order of their reversed sequences
+	 * @param reversed_record an int array of selector IDs in descending order
+	 * @param length
+	 */
+	public void add_reversed(int[] reversed_record, int length){
+		int common = 0;
+		int limit = Math.min(this.depth, length);
+		while(common < limit && this.itemIDs[common] == reversed_record[common]) common++;
+		
+		this.pop_to(common);
+		
+		for(int d=0; d<common; d++) this.counts[d]++;
+		
+		if(length > this.itemIDs.length) this.grow(length);
+		for(int d=common; d<length; d++){
+			this.itemIDs[d] = reversed_record[d];
+			this.counts[d] = 1;
+			this.pres[d] = this.currentPreCode;
+			this.currentPreCode++;
+		}
+		if(length > common) this.depth = length;
+	}
+	
+	private void pop_to(int depth){
+		while(this.depth > depth){
+			this.depth--;
+			// itemID of a node means Selector.selectorID
+			this.selector_nlists[this.itemIDs[this.depth]].add(this.pres[this.depth], this.currentPosCode, this.counts[this.depth]);
+			this.currentPosCode++;
+		}
+	}
+	
+	private void grow(int length){
+		int new_capacity = Math.max(length, (int)(this.itemIDs.length*allocate_rate) + 1);
+		int[] new_space = new int[new_capacity];
+		System.arraycopy(this.itemIDs, 0, new_space, 0, this.depth);
+		this.itemIDs = new_space;
+		new_space = new int[new_capacity];
+		System.arraycopy(this.counts, 0, new_space, 0, this.depth);
+		this.counts = new_space;
+		new_space = new int[new_capacity];
+		System.arraycopy(this.pres, 0, new_space, 0, this.depth);
+		this.pres = new_space;
+	}
+	
+	/**
+	 * Pop all nodes of the current path and return the Nlists of selectors
+	 * @return array of Nlists of selectors
+	 */
+	public INlist[] finish(){
+		this.pop_to(0);
+		for(INlist nlist : this.selector_nlists) nlist.shrink();
+		return this.selector_nlists;
+	}
+	
+	/**
+	 * Return the number of nodes of the corresponding PPCTree swept so far, including the root node
+	 */
+	public int countNodes(){
+		return this.currentPreCode;
+	}
+}
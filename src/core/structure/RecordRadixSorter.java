@@ -0,0 +1,177 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.Arrays;
+
+import core.prepr.IntegerArray;
+
+/**
+ * MSD radix sorter of an index array of records, in ascending lexicographic order of the REVERSED records.
+ * The key of a record at depth d is its (length-1-d)-th selector ID, or -1 if the record has no more id,
+ * so a record comes before the records it is a reversed prefix of.
+ * </br>A forward sorter uses the d-th selector ID as the key instead, e.g. to sort a batch of itemsets (sort_itemsets).
+ * </br>Ranges are sorted with an explicit range stack, the counters are reset by the list of touched keys,
+ * so the cost of a partition does not depend on the number of selectors.
+ * </br>'order' and 'buffer' can be shared by several sorters working on disjoint ranges,
+ * the other arrays are owned by one sorter (thread).
+ */
+class RecordRadixSorter {
+	private static final int INSERTION_SORT_THRESHOLD = 32;
+	
+	private final int[][] records;
+	private final int[] order;
+	private final int[] buffer;
+	private final boolean forward;
+	
+	// counters indexed by key+1, all zeros between two partitions
+	private final int[] counts;
+	private final int[] touched;
+	private IntegerArray range_stack = new IntegerArray();
+	
+	RecordRadixSorter(int[][] records, int[] order, int[] buffer, int selector_count){
+		this(records, order, buffer, selector_count, false);
+	}
+	
+	/**
+	 * @param forward true to sort in lexicographic order of the records themselves (not reversed)
+	 */
+	RecordRadixSorter(int[][] records, int[] order, int[] buffer, int selector_count, boolean forward){
+		this.records = records;
+		this.order = order;
+		this.buffer = buffer;
+		this.forward = forward;
+		this.counts = new int[selector_count+1];
+		this.touched = new int[selector_count+1];
+	}
+	
+	/**
+	 * Return the indexes of 'itemsets' in ascending lexicographic order of the itemsets
+	 * @param itemsets arrays of selector IDs smaller than 'selector_count'
+	 * @param selector_count
+	 */
+	static int[] sort_itemsets(int[][] itemsets, int selector_count){
+		int n = itemsets.length;
+		int[] order = new int[n];
+		for(int i=0; i<n; i++) order[i] = i;
+		new RecordRadixSorter(itemsets, order, new int[n], selector_count, true).sort(0, n, 0);
+		return order;
+	}
+	
+	private int key(int record_index, int depth){
+		int[] record = this.records[record_index];
+		if(this.forward) return (depth < record.length) ? record[depth] : -1;
+		int i = record.length-1-depth;
+		return (i < 0) ? -1 : record[i];
+	}
+	
+	/**
+	 * Sort order[lo, hi) whose records have the same reversed prefix of length 'depth'
+	 */
+	void sort(int lo, int hi, int depth){
+		IntegerArray stack = this.range_stack;
+		stack.clear();
+		this.push(lo, hi, depth);
+		
+		while(stack.size() > 0){
+			int top = stack.size()-3;
+			lo = stack.get(top);
+			hi = stack.get(top+1);
+			depth = stack.get(top+2);
+			stack.truncate(top);
+			
+			if(hi-lo <= INSERTION_SORT_THRESHOLD) this.insertion_sort(lo, hi, depth);
+			else this.partition(lo, hi, depth, stack);
+		}
+	}
+	private void push(int lo, int hi, int depth){
+		this.range_stack.add(lo);
+		this.range_stack.add(hi);
+		this.range_stack.add(depth);
+	}
+	
+	/**
+	 * Partition order[lo, hi) by the keys at 'depth' in ascending order of the keys.
+	 * The sub-ranges of more than one record which must be sorted further at depth+1 are added to 'ranges' as triples (lo, hi, depth+1).
+	 */
+	void partition(int lo, int hi, int depth, IntegerArray ranges){
+		int[] order = this.order, buffer = this.buffer, counts = this.counts, touched = this.touched;
+		int touched_count = 0, key;
+		
+		// count the keys
+		for(int i=lo; i<hi; i++){
+			key = this.key(order[i], depth) + 1;
+			if(counts[key] == 0){
+				touched[touched_count] = key;
+				touched_count++;
+			}
+			counts[key]++;
+		}
+		
+		// the start position of each key, the counters become the write positions
+		Arrays.sort(touched, 0, touched_count);
+		int position = lo, count;
+		for(int i=0; i<touched_count; i++){
+			key = touched[i];
+			count = counts[key];
+			// records without id at 'depth' (key 0) are identical in the remaining, they need no further sorting
+			if(key != 0 && count > 1){
+				ranges.add(position);
+				ranges.add(position+count);
+				ranges.add(depth+1);
+			}
+			counts[key] = position;
+			position += count;
+		}
+		
+		// scatter to the buffer and copy back
+		int index;
+		for(int i=lo; i<hi; i++){
+			index = order[i];
+			key = this.key(index, depth) + 1;
+			buffer[counts[key]] = index;
+			counts[key]++;
+		}
+		System.arraycopy(buffer, lo, order, lo, hi-lo);
+		
+		for(int i=0; i<touched_count; i++) counts[touched[i]] = 0;
+	}
+	
+	private void insertion_sort(int lo, int hi, int depth){
+		int[] order = this.order;
+		int current, j;
+		for(int i=lo+1; i<hi; i++){
+			current = order[i];
+			j = i-1;
+			while(j >= lo && this.compare(order[j], current, depth) > 0){
+				order[j+1] = order[j];
+				j--;
+			}
+			order[j+1] = current;
+		}
+	}
+	
+	/**
+	 * Compare two records in lexicographic order of their reversed sequences (or the sequences for a forward sorter) from 'depth'
+	 */
+	private int compare(int record_index1, int record_index2, int depth){
+		int[] record1 = this.records[record_index1], record2 = this.records[record_index2];
+		if(this.forward){
+			int length = Math.min(record1.length, record2.length);
+			for(int i=depth; i<length; i++){
+				if(record1[i] != record2[i]) return (record1[i] < record2[i]) ? -1 : 1;
+			}
+			return Integer.compare(record1.length, record2.length);
+		}
+		int i1 = record1.length-1-depth, i2 = record2.length-1-depth;
+		while(i1 >= 0 && i2 >= 0){
+			if(record1[i1] != record2[i2]) return (record1[i1] < record2[i2]) ? -1 : 1;
+			i1--;
+			i2--;
+		}
+		return Integer.compare(i1, i2);
+	}
+}
@@ -0,0 +1,39 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import core.prepr.IntegerArray;
+
+/**
+ * Worker thread which sorts disjoint ranges of the index array of records with its own RecordRadixSorter.
+ * </br>Ranges are triples (lo, hi, depth) and are claimed one by one through 'globalIndex'.
+ */
+class RecordSortThread extends Thread{
+	private RecordRadixSorter sorter;
+	private IntegerArray ranges;
+	private IntHolder globalIndex;
+	
+	public RecordSortThread(RecordRadixSorter sorter,
+							IntegerArray ranges,
+							IntHolder globalIndex){
+		this.sorter = sorter;
+		this.ranges = ranges;
+		this.globalIndex = globalIndex;
+	}
+	
+	public void run(){
+		int range_count = this.ranges.size()/3;
+		int index;
+		while (true){
+			synchronized(this.globalIndex){
+				if(this.globalIndex.value >= range_count) break;
+				index = this.globalIndex.value*3;
+				this.globalIndex.value++;
+			}
+			this.sorter.sort(this.ranges.get(index), this.ranges.get(index+1), this.ranges.get(index+2));
+		}
+	}
+}
@@ -0,0 +1,115 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * SkipIndex keeps the pre-code and pos-code of the last node of each block of BLOCK_SIZE nodes of a Nodelist.
+ * </br>Nodes of an Nlist are never ancestors of each other, so their pre-codes and pos-codes ascend together,
+ * and a whole block whose last node is before a given node can be skipped.
+ * </br>seek(...) is the galloping (exponential) search used by the intersections in Supporter
+ * when one Nlist is much longer than the other.
+ */
+final class SkipIndex {
+	static final int BLOCK_SHIFT = 6;
+	static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+	
+	/**
+	 * The number of nodes compared at once by scan(...)
+	 */
+	static final int LANES = 8;
+	
+	final int[] last_pres;
+	final int[] last_poss;
+	
+	SkipIndex(int[] pres, int[] poss, int size){
+		int block_count = (size + BLOCK_SIZE - 1) >> BLOCK_SHIFT;
+		this.last_pres = new int[block_count];
+		this.last_poss = new int[block_count];
+		for(int b=0; b<block_count; b++){
+			int last = Math.min(size, (b+1) << BLOCK_SHIFT) - 1;
+			this.last_pres[b] = pres[last];
+			this.last_poss[b] = poss[last];
+		}
+	}
+	
+	/**
+	 * The same as seek(...) without a skip index, but the nodes are scanned forward in blocks of LANES nodes.
+	 * The nodes of a block are compared without branches, the skipped nodes are a prefix of the block,
+	 * so their number is the number of lanes whose node is before the node (pre, pos).
+	 * </br>The fixed-width loop over the lanes is unrolled (and vectorized if supported) by the JIT compiler.
+	 */
+	static int scan(int[] pres, int[] poss, int from, int size, int pre, int pos){
+		if(from >= size || pres[from] >= pre || poss[from] >= pos) return from;
+		
+		int index = from+1, skipped;
+		while(index+LANES <= size){
+			skipped = 0;
+			for(int lane=0; lane<LANES; lane++){
+				// 1 if pres[] < pre and poss[] < pos, codes are not negative
+				skipped += ((pres[index+lane]-pre) & (poss[index+lane]-pos)) >>> 31;
+			}
+			index += skipped;
+			if(skipped < LANES) return index;
+		}
+		while(index < size && pres[index] < pre && poss[index] < pos) index++;
+		return index;
+	}
+	
+	/**
+	 * Return the first index from 'from' whose node has pre-code >= 'pre' or pos-code >= 'pos', 'size' if there is not any.
+	 * </br>The nodes from 'from' which are skipped are the ones before the node (pre, pos) and not its ancestors.
+	 * @param pres pre-codes of the Nlist
+	 * @param poss pos-codes of the Nlist
+	 * @param from
+	 * @param size
+	 * @param pre
+	 * @param pos
+	 * @param index skip index of the Nlist, null to gallop over the nodes
+	 */
+	static int seek(int[] pres, int[] poss, int from, int size, int pre, int pos, SkipIndex index){
+		if(from >= size || pres[from] >= pre || poss[from] >= pos) return from;
+		
+		// the node at 'low' is skipped, the node at 'high' is not skipped (or high == size)
+		int low = from, high, step = 1;
+		if(index == null){
+			while(low+step < size && pres[low+step] < pre && poss[low+step] < pos){
+				low += step;
+				step <<= 1;
+			}
+			high = Math.min(low+step, size);
+		}else{
+			int[] last_pres = index.last_pres, last_poss = index.last_poss;
+			int block_count = last_pres.length;
+			int low_block = from >> BLOCK_SHIFT, high_block;
+			if(last_pres[low_block] >= pre || last_poss[low_block] >= pos){
+				// the answer is in the block of 'from'
+				high_block = low_block;
+			}else{
+				while(low_block+step < block_count && last_pres[low_block+step] < pre && last_poss[low_block+step] < pos){
+					low_block += step;
+					step <<= 1;
+				}
+				high_block = Math.min(low_block+step, block_count);
+				while(high_block-low_block > 1){
+					int middle = (low_block+high_block) >>> 1;
+					if(last_pres[middle] >= pre || last_poss[middle] >= pos) high_block = middle;
+					else low_block = middle;
+				}
+				if(high_block == block_count) return size;
+				// the last node of the previous block is skipped
+				low = (high_block << BLOCK_SHIFT) - 1;
+			}
+			high = Math.min(size, (high_block+1) << BLOCK_SHIFT) - 1;
+		}
+		
+		while(high-low > 1){
+			int middle = (low+high) >>> 1;
+			if(pres[middle] >= pre || poss[middle] >= pos) high = middle;
+			else low = middle;
+		}
+		return high;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import core.prepr.IntegerArray;
+
+/**
+ * SortedRecordNlistBuilder creates Nlists of selectors, identical to the ones of PPCTree, without any tree node.
+ * </br>Records are sorted in ascending lexicographic order of their reversed sequences, the same order
+ * in which the paths of the PPCTree are visited in pre-order. Then a single sweep with a prefix stack (PrefixSweeper)
+ * emits the nodes with their pre-order codes, post-order codes and counts into the Nlists of selectors.
+ * </br>Records are not modified, an index array is sorted by a MSD radix sort in parallel.
+ */
+public class SortedRecordNlistBuilder {
+	private int[][] records;
+	private int selector_count;
+	private int[] order = null;
+	private int node_count = 0;
+	
+	/**
+	 * @param records records of selector IDs, each record is in ascending order of ids
+	 * @param selector_count the number of selectors, all ids are less than this number
+	 */
+	public SortedRecordNlistBuilder(int[][] records, int selector_count){
+		this.records = records;
+		this.selector_count = selector_count;
+	}
+	
+	/**
+	 * Sort the indices of records in ascending lexicographic order of the reversed records.
+	 * </br>The top levels are partitioned by the calling thread until there are enough ranges,
+	 * then the ranges are sorted by 'thread_count' threads.
+	 * @param thread_count
+	 * @return the sorted index array of records
+	 * @throws InterruptedException
+	 */
+	public int[] sort(int thread_count) throws InterruptedException{
+		int record_count = this.records.length;
+		int[] order = new int[record_count];
+		for(int i=0; i<record_count; i++) order[i] = i;
+		int[] buffer = new int[record_count];
+		
+		RecordRadixSorter sorter = new RecordRadixSorter(this.records, order, buffer, this.selector_count);
+		
+		// Partition the top levels, a range bigger than 'max_range_size' is partitioned once more
+		IntegerArray ranges = new IntegerArray();
+		if(record_count > 1) sorter.partition(0, record_count, 0, ranges);
+		int max_range_size = Math.max(1024, record_count/(thread_count*8));
+		boolean split = true;
+		while(split && ranges.size()/3 < thread_count*64){
+			split = false;
+			IntegerArray new_ranges = new IntegerArray(ranges.size());
+			for(int i=0; i<ranges.size(); i+=3){
+				if(ranges.get(i+1) - ranges.get(i) > max_range_size){
+					sorter.partition(ranges.get(i), ranges.get(i+1), ranges.get(i+2), new_ranges);
+					split = true;
+				}else{
+					new_ranges.add(ranges.get(i));
+					new_ranges.add(ranges.get(i+1));
+					new_ranges.add(ranges.get(i+2));
+				}
+			}
+			ranges = new_ranges;
+		}
+		
+		// Sort the ranges in parallel
+		IntHolder globalIndex = new IntHolder(0);
+		Thread[] threads = new Thread[thread_count];
+		for(int i=0; i<thread_count; i++){
+			RecordRadixSorter thread_sorter = (i == 0) ? sorter : new RecordRadixSorter(this.records, order, buffer, this.selector_count);
+			threads[i] = new RecordSortThread(thread_sorter, ranges, globalIndex);
+			threads[i].start();
+		}
+		for(int i=0; i<thread_count; i++) threads[i].join();
+		
+		this.order = order;
+		return order;
+	}
+	
+	/**
+	 * Create an Nlist (using Nodelist implementation) for each selector by sorting the records and sweeping them
+	 * @param thread_count the number of threads to sort the records
+	 * @return array of Nlists of selectors
+	 * @throws InterruptedException
+	 */
+	public INlist[] create_Nlist_for_selectors_arr(int thread_count) throws InterruptedException{
+		if(this.order == null) this.sort(thread_count);
+		
+		PrefixSweeper sweeper = new PrefixSweeper(this.selector_count);
+		for(int index : this.order) sweeper.add(this.records[index]);
+		this.node_count = sweeper.countNodes();
+		
+		// the index array is no longer used
+		this.order = null;
+		
+		return sweeper.finish();
+	}
+	
+	/**
+	 * All Nlists will be add to a map from string representation of each selector ID to the corresponding Nlist.
+	 * @param selector_nlists Nlists of selectors
+	 * @return The map structure from string representation of each selector ID to the corresponding Nlist
+	 */
+	public Map<String, INlist> create_selector_Nlist_map(INlist[] selector_nlists){
+		int total_selector_count = selector_nlists.length;
+		
+		Map<String, INlist> selector_nlist_map = new HashMap<String, INlist>(total_selector_count);
+		for(int i=0; i<total_selector_count; i++){
+			selector_nlist_map.put("["+i+"]", selector_nlists[i]);
+		}
+		
+		return selector_nlist_map;
+	}
+	
+	/**
+	 * Return the number of nodes of the corresponding PPCTree (including the root node), known after the Nlists are created
+	 */
+	public int countNodes(){
+		return this.node_count;
+	}
+}
@@ -0,0 +1,158 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SplitPlan records how the top part of a P3CTree was split under a memory budget, so it can be reported and replayed.
+ * </br>1. Split paths: each path is the selector IDs from a child of the root down to a node which was grown one more level,
+ * in pre-order of the nodes.
+ * </br>2. Work units: runs of adjacent leaf nodes (in the order of P3CTree.getLeafNodes()) whose estimated subtree footprints
+ * are summed up to the budget, a unit's subtrees can be alive together.
+ * </br>A plan can be written to and read from a text file.
+ */
+public class SplitPlan {
+	private long budget_bytes;
+	private List<int[]> split_paths;
+	private int[] unit_starts;	// leaf index of the first leaf of each unit, the last element is the leaf count
+	private long[] unit_bytes;
+	
+	public SplitPlan(long budget_bytes, List<int[]> split_paths, int[] unit_starts, long[] unit_bytes){
+		this.budget_bytes = budget_bytes;
+		this.split_paths = split_paths;
+		this.unit_starts = unit_starts;
+		this.unit_bytes = unit_bytes;
+	}
+	
+	public long getBudgetBytes(){
+		return this.budget_bytes;
+	}
+	
+	public List<int[]> getSplitPaths(){
+		return this.split_paths;
+	}
+	
+	public int getLeafCount(){
+		return this.unit_starts[this.unit_starts.length-1];
+	}
+	
+	public int getUnitCount(){
+		return this.unit_starts.length-1;
+	}
+	
+	/**
+	 * Return the index of the first leaf node of the unit
+	 */
+	public int getUnitStart(int unit){
+		return this.unit_starts[unit];
+	}
+	
+	/**
+	 * Return the index after the last leaf node of the unit
+	 */
+	public int getUnitEnd(int unit){
+		return this.unit_starts[unit+1];
+	}
+	
+	/**
+	 * Return the estimated footprint of the subtrees of the unit in bytes
+	 */
+	public long getUnitBytes(int unit){
+		return this.unit_bytes[unit];
+	}
+	
+	/**
+	 * Return the max estimated footprint of a unit in bytes
+	 */
+	public long getMaxUnitBytes(){
+		long max = 0;
+		for(long bytes : this.unit_bytes) max = Math.max(max, bytes);
+		return max;
+	}
+	
+	public String toString(){
+		StringBuilder sb = new StringBuilder(200);
+		sb.append("Budget: ").append(this.budget_bytes).append(" bytes, split nodes: ").append(this.split_paths.size())
+		.append(", leaf nodes: ").append(this.getLeafCount()).append(", units: ").append(this.getUnitCount())
+		.append(", max unit footprint: ").append(this.getMaxUnitBytes()).append(" bytes");
+		return sb.toString();
+	}
+	
+	/**
+	 * Write the plan to a text file, one line per item:
+	 * </br>budget &lt;bytes&gt;
+	 * </br>split &lt;id&gt; &lt;id&gt; ...
+	 * </br>unit &lt;start&gt; &lt;end&gt; &lt;bytes&gt;
+	 * @param file_name
+	 * @throws IOException
+	 */
+	public void write(String file_name) throws IOException{
+		BufferedWriter output = new BufferedWriter(new FileWriter(file_name));
+		StringBuilder sb = new StringBuilder(100);
+		try{
+			output.write("budget " + this.budget_bytes + "\n");
+			for(int[] path : this.split_paths){
+				sb.setLength(0);
+				sb.append("split");
+				for(int id : path) sb.append(' ').append(id);
+				output.write(sb.append('\n').toString());
+			}
+			for(int unit=0; unit<this.getUnitCount(); unit++){
+				output.write("unit " + this.unit_starts[unit] + " " + this.unit_starts[unit+1] + " " + this.unit_bytes[unit] + "\n");
+			}
+		}finally{
+			output.close();
+		}
+	}
+	
+	/**
+	 * Read a plan from a text file written by write(String)
+	 * @param file_name
+	 * @return the plan
+	 * @throws IOException
+	 */
+	public static SplitPlan read(String file_name) throws IOException{
+		long budget_bytes = -1;
+		List<int[]> split_paths = new ArrayList<int[]>();
+		List<long[]> units = new ArrayList<long[]>();
+		
+		BufferedReader input = new BufferedReader(new FileReader(file_name));
+		try{
+			String line;
+			String[] tokens;
+			while((line = input.readLine()) != null){
+				tokens = line.trim().split(" ");
+				if(tokens[0].equals("budget")){
+					budget_bytes = Long.parseLong(tokens[1]);
+				}else if(tokens[0].equals("split")){
+					int[] path = new int[tokens.length-1];
+					for(int i=1; i<tokens.length; i++) path[i-1] = Integer.parseInt(tokens[i]);
+					split_paths.add(path);
+				}else if(tokens[0].equals("unit")){
+					units.add(new long[]{Long.parseLong(tokens[1]), Long.parseLong(tokens[2]), Long.parseLong(tokens[3])});
+				}
+			}
+		}finally{
+			input.close();
+		}
+		
+		int[] unit_starts = new int[units.size()+1];
+		long[] unit_bytes = new long[units.size()];
+		for(int unit=0; unit<units.size(); unit++){
+			unit_starts[unit] = (int) units.get(unit)[0];
+			unit_starts[unit+1] = (int) units.get(unit)[1];
+			unit_bytes[unit] = units.get(unit)[2];
+		}
+		return new SplitPlan(budget_bytes, split_paths, unit_starts, unit_bytes);
+	}
+}
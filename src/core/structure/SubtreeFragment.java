@@ -0,0 +1,74 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * SubtreeFragment holds the nodes of a subtree (built at a leaf node of the top part of a P3CTree) in pre-order,
+ * with pre-order and post-order codes LOCAL to the subtree (both start from 0 at the subtree).
+ * </br>The absolute codes are obtained by adding the code offsets known when the fragment is spliced
+ * into the Nlists of selectors, so fragments can be produced concurrently and spliced in order afterward.
+ * </br>Node at position i has the local pre-order code i.
+ */
+class SubtreeFragment {
+	private static final float allocate_rate = 1.75f;
+	int[] itemIDs;
+	int[] poss;
+	int[] counts;
+	int size = 0;
+	
+	private SubtreeFragment(int capacity){
+		this.itemIDs = new int[capacity];
+		this.poss = new int[capacity];
+		this.counts = new int[capacity];
+	}
+	
+	/**
+	 * Collect all nodes of the subtree with root at 'sub_node' (including 'sub_node') into a fragment
+	 * @param sub_node root node of the subtree
+	 * @param stack an empty stack for the traversal, reused by the caller
+	 * @return the fragment of the subtree
+	 */
+	static SubtreeFragment extract(PPCNode sub_node, NodeStack stack){
+		SubtreeFragment fragment = new SubtreeFragment(Math.max(16, sub_node.children.size()*2));
+		fragment.traverse(sub_node, stack);
+		return fragment;
+	}
+	private void traverse(PPCNode sub_node, NodeStack stack){
+		// the pre-order code of a node is its index, it is kept in the 'pos' field until the node is popped
+		int pos = 0;
+		PPCNode node;
+		sub_node.pos = this.add(sub_node.itemID, sub_node.count);
+		stack.push(sub_node);
+		while(!stack.isEmpty()){
+			if((node = stack.next_child()) != null){
+				node.pos = this.add(node.itemID, node.count);
+				stack.push(node);
+			}else{
+				this.poss[stack.pop().pos] = pos;
+				pos++;
+			}
+		}
+	}
+	
+	private int add(int itemID, int count){
+		if(this.size == this.itemIDs.length){
+			// No spare room for new node, allocate new space
+			int new_capacity = (int)(this.size*allocate_rate) + 1;
+			int[] new_space = new int[new_capacity];
+			System.arraycopy(this.itemIDs, 0, new_space, 0, this.size);
+			this.itemIDs = new_space;
+			new_space = new int[new_capacity];
+			System.arraycopy(this.poss, 0, new_space, 0, this.size);
+			this.poss = new_space;
+			new_space = new int[new_capacity];
+			System.arraycopy(this.counts, 0, new_space, 0, this.size);
+			this.counts = new_space;
+		}
+		this.itemIDs[this.size] = itemID;
+		this.counts[this.size] = count;
+		return this.size++;
+	}
+}
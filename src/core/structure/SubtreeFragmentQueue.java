@@ -0,0 +1,98 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * Coordinates worker threads producing subtree fragments and the thread splicing them in the order of leaf nodes.
+ * </br>A worker can not claim a leaf node which is 'window' positions ahead of the next leaf node to splice,
+ * so at most 'window' subtrees (or their fragments) are alive at the same time.
+ * </br>With a byte budget, a leaf node is also not claimed while the estimated footprints of the subtrees
+ * from the next leaf node to splice up to it exceed the budget, unless it is the next leaf node to splice.
+ */
+class SubtreeFragmentQueue {
+	private SubtreeFragment[] fragments;
+	private int window;
+	// prefix sums of the estimated footprints of the subtrees, null for no budget
+	private long[] bytes_before;
+	private long budget_bytes;
+	private int claimedIndex = 0;
+	private int splicedIndex = 0;
+	private Throwable failure = null;
+	
+	SubtreeFragmentQueue(int leaf_count, int window){
+		this(leaf_count, window, null, -1);
+	}
+	
+	/**
+	 * @param leaf_count
+	 * @param window
+	 * @param leaf_bytes estimated footprint of the subtree of each leaf node, null for no budget
+	 * @param budget_bytes
+	 */
+	SubtreeFragmentQueue(int leaf_count, int window, long[] leaf_bytes, long budget_bytes){
+		this.fragments = new SubtreeFragment[leaf_count];
+		this.window = window;
+		if(leaf_bytes != null){
+			this.bytes_before = new long[leaf_count+1];
+			for(int i=0; i<leaf_count; i++) this.bytes_before[i+1] = this.bytes_before[i] + leaf_bytes[i];
+			this.budget_bytes = budget_bytes;
+		}
+	}
+	
+	/**
+	 * Return true if the leaf node at 'index' can not be claimed yet
+	 */
+	private boolean out_of_window(int index){
+		if(index >= this.splicedIndex + this.window) return true;
+		return this.bytes_before != null && index > this.splicedIndex
+				&& this.bytes_before[index+1] - this.bytes_before[this.splicedIndex] > this.budget_bytes;
+	}
+	
+	/**
+	 * Claim the next leaf node to build its subtree, wait if the claimed index is out of the window
+	 * @return the index of the claimed leaf node, -1 if there is no more leaf node to claim
+	 * @throws InterruptedException
+	 */
+	synchronized int claim() throws InterruptedException {
+		if(this.claimedIndex >= this.fragments.length || this.failure != null) return -1;
+		int index = this.claimedIndex;
+		this.claimedIndex++;
+		while(this.out_of_window(index) && this.failure == null) this.wait();
+		return (this.failure == null) ? index : -1;
+	}
+	
+	/**
+	 * Publish the fragment of the leaf node at 'index'
+	 */
+	synchronized void put(int index, SubtreeFragment fragment){
+		this.fragments[index] = fragment;
+		this.notifyAll();
+	}
+	
+	/**
+	 * Wait for and take the fragment of the leaf node at 'index', it moves the window forward
+	 * @throws InterruptedException
+	 */
+	synchronized SubtreeFragment take(int index) throws InterruptedException {
+		SubtreeFragment fragment;
+		while((fragment = this.fragments[index]) == null){
+			if(this.failure != null) throw new IllegalStateException("A subtree worker failed", this.failure);
+			this.wait();
+		}
+		this.fragments[index] = null;
+		this.splicedIndex = index + 1;
+		this.notifyAll();
+		return fragment;
+	}
+	
+	/**
+	 * Report a failure of a worker thread, all waiting threads are woken up
+	 */
+	synchronized void fail(Throwable e){
+		if(this.failure == null) this.failure = e;
+		this.notifyAll();
+	}
+}
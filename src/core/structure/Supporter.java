@@ -10,6 +10,28 @@ import java.util.List;
 
 
 public class Supporter {    
+	/**
+	 * The intersections gallop over an Nlist which has at least GALLOP_RATIO times the nodes of the other one
+	 */
+	public static final int GALLOP_RATIO = 16;
+	
+	// whether the non-galloping intersections skip nodes by SkipIndex.scan(...), in blocks of lanes, instead of one by one
+	private static boolean use_block_scan = Boolean.parseBoolean(System.getProperty("nlist.block_scan", "false"));
+	
+	/**
+	 * Switch the Nodelist intersections between the scalar loop (one node per step) and the block scan
+	 * which compares SkipIndex.LANES nodes at once, also set by the system property nlist.block_scan
+	 * @param value
+	 */
+	public static void setUseBlockScan(boolean value){
+		use_block_scan = value;
+	}
+	
+	public static boolean getUseBlockScan(){
+		return use_block_scan;
+	}
+	
+	
     /**
      * This function generates Descarte production from two sets of sub sets.
      * This power set does not include empty set
@@ -62,35 +84,43 @@ public class Supporter {
     public static INlist create_nlist(INlist nlist1, INlist nlist2){
     	int size1 = nlist1.size(), size2 = nlist2.size();
     	if(size1 == 0 || size2 == 0) return new NodelistEmpty();
+    	if(nlist1 instanceof Nodelist && nlist2 instanceof Nodelist) return create_nlist((Nodelist) nlist1, (Nodelist) nlist2);
+    	if(nlist1 instanceof WideNodelist || nlist2 instanceof WideNodelist)
+    		return create_nlist(WideNodelist.widen(nlist1), WideNodelist.widen(nlist2));
+    	if(StridedNodes.supports(nlist1, nlist2)) return create_nlist(new StridedNodes(nlist1), new StridedNodes(nlist2));
+    	if(nlist1 instanceof CompressedNodelist || nlist2 instanceof CompressedNodelist)
+    		return create_nlist(NlistCursor.open(nlist1), NlistCursor.open(nlist2), size1);
 		
+    	// Other implementations (e.g. OffHeapNlist) are read by the primitive accessors
     	int index1=0, index2=0, parent_node_index = -1, parent_node_pre = -1;
     	Nodelist nodelist = new Nodelist(size1);
-		Node i1_node = new Node(), i2_node = new Node();
-		nlist1.get(index1, i1_node);
-		nlist2.get(index2, i2_node);
+    	int i1_pre = nlist1.pre(index1), i2_pre = nlist2.pre(index2), i2_pos = nlist2.pos(index2);
 		
     	while(true){
-    		if(i1_node.pre > i2_node.pre){
-    			if(i1_node.pos < i2_node.pos){
+    		if(i1_pre > i2_pre){
+    			if(nlist1.pos(index1) < i2_pos){
     				// This desired case says that: i1_node is a descendant of i2_node. 
     				// So i2_node (ancestor) is added to the node list of i1i2 itemset --> increase index1
     				// NOTE: i2_node can be an ancestor of other nodes in nlist1 --> stay index2
-    				if(parent_node_pre == i2_node.pre){
-    					nodelist.accSupportCount(parent_node_index, i1_node.count);
+    				if(parent_node_pre == i2_pre){
+    					nodelist.accSupportCount(parent_node_index, nlist1.count(index1));
     				}else{
-    					nodelist.add(i2_node.pre, i2_node.pos, i1_node.count);
-    					parent_node_pre = i2_node.pre;
+    					nodelist.add(i2_pre, i2_pos, nlist1.count(index1));
+    					parent_node_pre = i2_pre;
     					parent_node_index++;
     				}
     				index1++;
-    				if(index1 < size1) nlist1.get(index1, i1_node);
+    				if(index1 < size1) i1_pre = nlist1.pre(index1);
     				else break;
     			}else{ // i1_node.pre > i2_node.pre && i1_node.pos > i2_node.pos
     				// This undesired case says that: 
     				// All nodes from i1_node in nlist1 are NOT descendant of i2_node --> increase index2
     				// but i1_node can be a descendant of other nodes in nlist2 --> stay index1
     				index2++;
-    				if(index2 < size2) nlist2.get(index2, i2_node);
+    				if(index2 < size2){
+    					i2_pre = nlist2.pre(index2);
+    					i2_pos = nlist2.pos(index2);
+    				}
     				else break;
     			}
     		}else{ // i1_node.pre < i2_node.pre --> it must be i1_node.pos < i2_node.pos
@@ -98,7 +128,7 @@ public class Supporter {
 				// All nodes from i2_node in nlist2 are not ancestors of i1_node --> increase index1
 				// but i2_node can be a ancestor of other nodes in nlist1 --> stay index2
     			index1++;
-    			if(index1 < size1) nlist1.get(index1, i1_node);
+    			if(index1 < size1) i1_pre = nlist1.pre(index1);
 				else break;
     		}
     	}
@@ -118,12 +148,18 @@ public class Supporter {
     public static INlist create_nlist_conj(INlist nlist1, INlist nlist2){
     	int size1 = nlist1.size(), size2 = nlist2.size();
     	if(size1 == 0 || size2 == 0) return new NodelistEmpty();
+    	if(nlist1 instanceof Nodelist && nlist2 instanceof Nodelist) return create_nlist_conj((Nodelist) nlist1, (Nodelist) nlist2);
+    	if(nlist1 instanceof WideNodelist || nlist2 instanceof WideNodelist)
+    		return create_nlist_conj(WideNodelist.widen(nlist1), WideNodelist.widen(nlist2));
+    	if(StridedNodes.supports(nlist1, nlist2)) return create_nlist_conj(new StridedNodes(nlist1), new StridedNodes(nlist2));
+    	if(nlist1 instanceof CompressedNodelist || nlist2 instanceof CompressedNodelist)
+    		return create_nlist_conj(NlistCursor.open(nlist1), NlistCursor.open(nlist2), (size2 > size1) ? size2 : size1);
 		
+    	// Other implementations (e.g. OffHeapNlist) are read by the primitive accessors
     	int index1=0, index2=0;
 		Nodelist nodelist = new Nodelist((size2 > size1) ? size2 : size1);
-		Node i1_node = new Node(), i2_node = new Node();
-		nlist1.get(index1, i1_node);
-		nlist2.get(index2, i2_node);
+		int i1_pre = nlist1.pre(index1), i1_pos = nlist1.pos(index1);
+		int i2_pre = nlist2.pre(index2), i2_pos = nlist2.pos(index2);
 		
 		/*
 		 * Operation principle:
@@ -131,50 +167,68 @@ public class Supporter {
 		 */
 		
     	while(true){
-    		if(i1_node.pre > i2_node.pre){
-    			if(i1_node.pos < i2_node.pos){
+    		if(i1_pre > i2_pre){
+    			if(i1_pos < i2_pos){
     				// ancestor-descendant relationship (i1_node.pre > i2_node.pre && i1_node.pos < i2_node.pos)
     				// i1_node: descendant, i2_node: ancestor
     				// add i1_node to the result nodelist, increase index1, stay index2
-    				nodelist.add(i1_node);
+    				nodelist.add(i1_pre, i1_pos, nlist1.count(index1));
     				index1++;
-    				if(index1 < size1) nlist1.get(index1, i1_node);
+    				if(index1 < size1){
+    					i1_pre = nlist1.pre(index1);
+    					i1_pos = nlist1.pos(index1);
+    				}
     				else break;
     			}else{
     				// NO ancestor-descendant relationship (i1_node.pre > i2_node.pre && i1_node.pos > i2_node.pos) 
     				// all nodes from i1_node in nodelist1 are NOT descendant of i2_node --> increase index2
     				// but i1_node can be a descendant of other nodes in nodelist2 --> stay index1
     				index2++;
-    				if(index2 < size2) nlist2.get(index2, i2_node);
+    				if(index2 < size2){
+    					i2_pre = nlist2.pre(index2);
+    					i2_pos = nlist2.pos(index2);
+    				}
     				else break;
     			}
-    		}else if(i1_node.pre < i2_node.pre){
-    			if(i1_node.pos < i2_node.pos){
+    		}else if(i1_pre < i2_pre){
+    			if(i1_pos < i2_pos){
     				// NO ancestor-descendant relationship (i1_node.pre < i2_node.pre && i1_node.pos < i2_node.pos)
     				// all nodes from i2_node in nodelist2 are NOT descendant of i1_node --> increase index1
     				// but i2_node can be a descendant of other nodes in nodelist1 --> stay index2
     				index1++;
-    				if(index1 < size1) nlist1.get(index1, i1_node);
+    				if(index1 < size1){
+    					i1_pre = nlist1.pre(index1);
+    					i1_pos = nlist1.pos(index1);
+    				}
     				else break;
     			}else{
     				// ancestor-descendant relationship (i1_node.pre < i2_node.pre && i1_node.pos > i2_node.pos)
     				// i1_node: ancestor, i2_node: descendant
     				// add i2_node to the result nodelist, increase index2, stay index1
-    				nodelist.add(i2_node);
+    				nodelist.add(i2_pre, i2_pos, nlist2.count(index2));
     				index2++;
-    				if(index2 < size2) nlist2.get(index2, i2_node);
+    				if(index2 < size2){
+    					i2_pre = nlist2.pre(index2);
+    					i2_pos = nlist2.pos(index2);
+    				}
     				else break;
     			}
     		}else{
     			// identical nodes
     			// i1_node.pre == i2_node.pre --> i1_node.pos == i2_node.pos
-    			nodelist.add(i1_node);
+    			nodelist.add(i1_pre, i1_pos, nlist1.count(index1));
     			index1++;
-				if(index1 < size1) nlist1.get(index1, i1_node);
+				if(index1 < size1){
+					i1_pre = nlist1.pre(index1);
+					i1_pos = nlist1.pos(index1);
+				}
 				else break;
 				
 				index2++;
-				if(index2 < size2) nlist2.get(index2, i2_node);
+				if(index2 < size2){
+					i2_pre = nlist2.pre(index2);
+					i2_pos = nlist2.pos(index2);
+				}
 				else break;
     		}
     	}
@@ -185,6 +239,813 @@ public class Supporter {
     	
     }
     
+    /**
+     * The same as create_nlist(INlist, INlist) for two non-empty Nodelists, the backing arrays are read directly.
+     * </br>Each node of the result takes at least one node of nlist1 and is a distinct node of nlist2,
+     * so the result needs at most min(size1, size2) nodes.
+     * </br>If one Nlist is GALLOP_RATIO times longer than the other one, the nodes of the longer Nlist which can not match
+     * are jumped over by SkipIndex.seek(...) instead of one by one.
+     * </br>If nlist2 has a bitmap of pre-codes, the ancestor of each node of nlist1 is looked up by create_nlist_by_rank(...).
+     */
+    private static INlist create_nlist(Nodelist nlist1, Nodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	if(nlist2.preBitmap() != null && size1 < (long) GALLOP_RATIO*size2) return create_nlist_by_rank(nlist1, nlist2);
+    	int[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), counts1 = nlist1.counts();
+    	int[] pres2 = nlist2.pres(), poss2 = nlist2.poss();
+    	int capacity = Math.min(size1, size2);
+    	int[] pres = new int[capacity], poss = new int[capacity], counts = new int[capacity];
+    	int size = 0, index1 = 0, index2 = 0, parent_node_pre = -1;
+    	int pre1 = pres1[0], pre2 = pres2[0], pos2 = poss2[0];
+    	boolean gallop1 = size1 >= (long) GALLOP_RATIO*size2, gallop2 = size2 >= (long) GALLOP_RATIO*size1;
+    	boolean block_scan = use_block_scan;
+    	SkipIndex skip1 = nlist1.skipIndex(), skip2 = nlist2.skipIndex();
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[index1] < pos2){
+    				// node1 is a descendant of node2, node2 can be an ancestor of the next nodes in nlist1
+    				if(parent_node_pre == pre2){
+    					counts[size-1] += counts1[index1];
+    				}else{
+    					pres[size] = pre2;
+    					poss[size] = pos2;
+    					counts[size] = counts1[index1];
+    					size++;
+    					parent_node_pre = pre2;
+    				}
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// all nodes from node1 in nlist1 are NOT descendant of node2
+    				// jump to the first node of nlist2 which is not before node1
+    				if(gallop2) index2 = SkipIndex.seek(pres2, poss2, index2+1, size2, pre1, poss1[index1], skip2);
+    				else if(block_scan) index2 = SkipIndex.scan(pres2, poss2, index2+1, size2, pre1, poss1[index1]);
+    				else index2++;
+    				if(index2 == size2) break;
+    				pre2 = pres2[index2];
+    				pos2 = poss2[index2];
+    			}
+    		}else{
+    			// all nodes from node2 in nlist2 are not ancestors of node1
+    			// jump to the first node of nlist1 after node2 in pre-order
+    			if(gallop1) index1 = SkipIndex.seek(pres1, poss1, index1+1, size1, pre2+1, Integer.MAX_VALUE, skip1);
+    			else if(block_scan) index1 = SkipIndex.scan(pres1, poss1, index1+1, size1, pre2+1, Integer.MAX_VALUE);
+    			else index1++;
+    			if(index1 == size1) break;
+    			pre1 = pres1[index1];
+    		}
+    	}
+    	
+    	return new Nodelist(pres, poss, counts, size);
+    }
+    
+    /**
+     * The same as create_nlist_conj(INlist, INlist) for two non-empty Nodelists, the backing arrays are read directly.
+     * </br>Each step adds at most one node and passes at least one node, so the result needs at most size1+size2 nodes.
+     * </br>The same galloping as create_nlist(Nodelist, Nodelist) is used if one Nlist is much longer than the other one.
+     * </br>If one Nlist has a bitmap of pre-codes, the other one is walked by create_nlist_conj_by_rank(...).
+     */
+    private static INlist create_nlist_conj(Nodelist nlist1, Nodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	PreCodeBitmap bitmap1 = nlist1.preBitmap(), bitmap2 = nlist2.preBitmap();
+    	if(bitmap2 != null && (bitmap1 == null || size1 <= size2) && size1 < (long) GALLOP_RATIO*size2)
+    		return create_nlist_conj_by_rank(nlist1, nlist2);
+    	if(bitmap1 != null && size2 < (long) GALLOP_RATIO*size1) return create_nlist_conj_by_rank(nlist2, nlist1);
+    	int[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), counts1 = nlist1.counts();
+    	int[] pres2 = nlist2.pres(), poss2 = nlist2.poss(), counts2 = nlist2.counts();
+    	int capacity = size1 + size2;
+    	int[] pres = new int[capacity], poss = new int[capacity], counts = new int[capacity];
+    	int size = 0, index1 = 0, index2 = 0;
+    	int pre1 = pres1[0], pre2 = pres2[0];
+    	boolean gallop1 = size1 >= (long) GALLOP_RATIO*size2, gallop2 = size2 >= (long) GALLOP_RATIO*size1;
+    	boolean block_scan = use_block_scan;
+    	SkipIndex skip1 = nlist1.skipIndex(), skip2 = nlist2.skipIndex();
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// node1: descendant, node2: ancestor
+    				pres[size] = pre1;
+    				poss[size] = poss1[index1];
+    				counts[size] = counts1[index1];
+    				size++;
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// NO ancestor-descendant relationship, node2 is before node1
+    				if(gallop2) index2 = SkipIndex.seek(pres2, poss2, index2+1, size2, pre1, poss1[index1], skip2);
+    				else if(block_scan) index2 = SkipIndex.scan(pres2, poss2, index2+1, size2, pre1, poss1[index1]);
+    				else index2++;
+    				if(index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else if(pre1 < pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// NO ancestor-descendant relationship, node1 is before node2
+    				if(gallop1) index1 = SkipIndex.seek(pres1, poss1, index1+1, size1, pre2, poss2[index2], skip1);
+    				else if(block_scan) index1 = SkipIndex.scan(pres1, poss1, index1+1, size1, pre2, poss2[index2]);
+    				else index1++;
+    				if(index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// node1: ancestor, node2: descendant
+    				pres[size] = pre2;
+    				poss[size] = poss2[index2];
+    				counts[size] = counts2[index2];
+    				size++;
+    				if(++index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else{
+    			// identical nodes
+    			pres[size] = pre1;
+    			poss[size] = poss1[index1];
+    			counts[size] = counts1[index1];
+    			size++;
+    			if(++index1 == size1) break;
+    			pre1 = pres1[index1];
+    			if(++index2 == size2) break;
+    			pre2 = pres2[index2];
+    		}
+    	}
+    	
+    	Nodelist nodelist = new Nodelist(pres, poss, counts, size);
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist(Nodelist, Nodelist) where nlist2 has a bitmap of pre-codes.
+     * </br>Nodes of nlist2 are never ancestors of each other, so the only node of nlist2 which can be an ancestor of a node1
+     * is the last one before node1 in pre-order, at rank(node1.pre)-1. Each node of nlist1 costs one lookup,
+     * the nodes of nlist2 are not walked.
+     */
+    private static INlist create_nlist_by_rank(Nodelist nlist1, Nodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	int[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), counts1 = nlist1.counts();
+    	int[] pres2 = nlist2.pres(), poss2 = nlist2.poss();
+    	PreCodeBitmap bitmap2 = nlist2.preBitmap();
+    	int capacity = Math.min(size1, size2);
+    	int[] pres = new int[capacity], poss = new int[capacity], counts = new int[capacity];
+    	int size = 0, parent_index = -1, index2;
+    	
+    	for(int index1=0; index1<size1; index1++){
+    		index2 = bitmap2.rank(pres1[index1]) - 1;
+    		// node1 is not a descendant of any node of nlist2
+    		if(index2 < 0 || poss1[index1] > poss2[index2]) continue;
+    		
+    		// node1 is a descendant of node2, node2 can be an ancestor of the next nodes in nlist1
+    		if(index2 == parent_index){
+    			counts[size-1] += counts1[index1];
+    		}else{
+    			pres[size] = pres2[index2];
+    			poss[size] = poss2[index2];
+    			counts[size] = counts1[index1];
+    			size++;
+    			parent_index = index2;
+    		}
+    	}
+    	
+    	return new Nodelist(pres, poss, counts, size);
+    }
+    
+    /**
+     * The same as create_nlist_conj(Nodelist, Nodelist) where nlist2 has a bitmap of pre-codes.
+     * </br>For each node1 of nlist1, the node of nlist2 at rank(node1.pre)-1 is the only one which can be its ancestor.
+     * Otherwise the descendants of node1 in nlist2 (or the node identical to node1) are the nodes from rank(node1.pre).
+     * Nodes of nlist2 which are not in the result are not walked.
+     */
+    private static INlist create_nlist_conj_by_rank(Nodelist nlist1, Nodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	int[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), counts1 = nlist1.counts();
+    	int[] pres2 = nlist2.pres(), poss2 = nlist2.poss(), counts2 = nlist2.counts();
+    	PreCodeBitmap bitmap2 = nlist2.preBitmap();
+    	Nodelist nodelist = new Nodelist(size1);
+    	int pre1, pos1, index2;
+    	
+    	for(int index1=0; index1<size1; index1++){
+    		pre1 = pres1[index1];
+    		pos1 = poss1[index1];
+    		index2 = bitmap2.rank(pre1);
+    		if((index2 > 0 && pos1 < poss2[index2-1]) || (index2 < size2 && pres2[index2] == pre1)){
+    			// node1 is a descendant of a node of nlist2, or identical to a node of nlist2
+    			nodelist.add(pre1, pos1, counts1[index1]);
+    		}else{
+    			// add the descendants of node1 in nlist2
+    			while(index2 < size2 && poss2[index2] < pos1){
+    				nodelist.add(pres2[index2], poss2[index2], counts2[index2]);
+    				index2++;
+    			}
+    		}
+    	}
+    	
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist_disj(INlist, INlist) for two non-empty Nodelists, the backing arrays are read directly.
+     * </br>The result needs at most size1+size2 nodes.
+     */
+    private static INlist create_nlist_disj(Nodelist nlist1, Nodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	int[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), counts1 = nlist1.counts();
+    	int[] pres2 = nlist2.pres(), poss2 = nlist2.poss(), counts2 = nlist2.counts();
+    	int capacity = size1 + size2;
+    	int[] pres = new int[capacity], poss = new int[capacity], counts = new int[capacity];
+    	int size = 0, index1 = 0, index2 = 0, ancestor_node_pre = -1;
+    	int pre1 = pres1[0], pre2 = pres2[0];
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// node1: descendant, node2: ancestor, add node2 if it is not added yet
+    				if(ancestor_node_pre != pre2){
+    					pres[size] = pre2;
+    					poss[size] = poss2[index2];
+    					counts[size] = counts2[index2];
+    					size++;
+    					ancestor_node_pre = pre2;
+    				}
+    				if(++index1 == size1){
+    					index2++;	// ancestor has added
+    					break;
+    				}
+    				pre1 = pres1[index1];
+    			}else{
+    				// NO ancestor-descendant relationship, add node2 if it is not an ancestor added previously
+    				if(ancestor_node_pre != pre2){
+    					pres[size] = pre2;
+    					poss[size] = poss2[index2];
+    					counts[size] = counts2[index2];
+    					size++;
+    				}
+    				if(++index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else if(pre1 < pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// NO ancestor-descendant relationship, add node1 if it is not an ancestor added previously
+    				if(ancestor_node_pre != pre1){
+    					pres[size] = pre1;
+    					poss[size] = poss1[index1];
+    					counts[size] = counts1[index1];
+    					size++;
+    				}
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// node1: ancestor, node2: descendant, add node1 if it is not added yet
+    				if(ancestor_node_pre != pre1){
+    					pres[size] = pre1;
+    					poss[size] = poss1[index1];
+    					counts[size] = counts1[index1];
+    					size++;
+    					ancestor_node_pre = pre1;
+    				}
+    				if(++index2 == size2){
+    					index1++;	// ancestor has added
+    					break;
+    				}
+    				pre2 = pres2[index2];
+    			}
+    		}else{
+    			// identical nodes
+    			pres[size] = pre1;
+    			poss[size] = poss1[index1];
+    			counts[size] = counts1[index1];
+    			size++;
+    			index1++;
+    			index2++;
+    			if(index1 == size1) break;
+    			pre1 = pres1[index1];
+    			if(index2 == size2) break;
+    			pre2 = pres2[index2];
+    		}
+    	}
+    	
+    	// add the remaining nodes in one of the two input node lists
+    	if(index1 < size1){
+    		System.arraycopy(pres1, index1, pres, size, size1-index1);
+    		System.arraycopy(poss1, index1, poss, size, size1-index1);
+    		System.arraycopy(counts1, index1, counts, size, size1-index1);
+    		return new Nodelist(pres, poss, counts, size+size1-index1);
+    	}
+    	
+    	if(index2 < size2){
+    		System.arraycopy(pres2, index2, pres, size, size2-index2);
+    		System.arraycopy(poss2, index2, poss, size, size2-index2);
+    		System.arraycopy(counts2, index2, counts, size, size2-index2);
+    		size += size2-index2;
+    	}
+    	
+    	Nodelist nodelist = new Nodelist(pres, poss, counts, size);
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist(INlist, INlist) for two non-empty WideNodelists (64-bit codes).
+     */
+    private static INlist create_nlist(WideNodelist nlist1, WideNodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	long[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), pres2 = nlist2.pres(), poss2 = nlist2.poss();
+    	int[] counts1 = nlist1.counts();
+    	int capacity = Math.min(size1, size2);
+    	long[] pres = new long[capacity], poss = new long[capacity];
+    	int[] counts = new int[capacity];
+    	int size = 0, index1 = 0, index2 = 0;
+    	long pre1 = pres1[0], pre2 = pres2[0], parent_node_pre = -1;
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// node1 is a descendant of node2, node2 can be an ancestor of other nodes in nlist1
+    				if(parent_node_pre == pre2){
+    					counts[size-1] += counts1[index1];
+    				}else{
+    					pres[size] = pre2;
+    					poss[size] = poss2[index2];
+    					counts[size] = counts1[index1];
+    					size++;
+    					parent_node_pre = pre2;
+    				}
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// all nodes from node1 in nlist1 are NOT descendants of node2
+    				if(++index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else{
+    			// node1 is not a descendant of any node from node2 in nlist2
+    			if(++index1 == size1) break;
+    			pre1 = pres1[index1];
+    		}
+    	}
+    	
+    	return new WideNodelist(pres, poss, counts, size);
+    }
+    
+    /**
+     * The same as create_nlist_conj(INlist, INlist) for two non-empty WideNodelists (64-bit codes).
+     */
+    private static INlist create_nlist_conj(WideNodelist nlist1, WideNodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	long[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), pres2 = nlist2.pres(), poss2 = nlist2.poss();
+    	int[] counts1 = nlist1.counts(), counts2 = nlist2.counts();
+    	int capacity = size1 + size2;
+    	long[] pres = new long[capacity], poss = new long[capacity];
+    	int[] counts = new int[capacity];
+    	int size = 0, index1 = 0, index2 = 0;
+    	long pre1 = pres1[0], pre2 = pres2[0];
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// node1: descendant, node2: ancestor
+    				pres[size] = pre1;
+    				poss[size] = poss1[index1];
+    				counts[size] = counts1[index1];
+    				size++;
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// NO ancestor-descendant relationship, node2 is before node1
+    				if(++index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else if(pre1 < pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// NO ancestor-descendant relationship, node1 is before node2
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// node1: ancestor, node2: descendant
+    				pres[size] = pre2;
+    				poss[size] = poss2[index2];
+    				counts[size] = counts2[index2];
+    				size++;
+    				if(++index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else{
+    			// identical nodes
+    			pres[size] = pre1;
+    			poss[size] = poss1[index1];
+    			counts[size] = counts1[index1];
+    			size++;
+    			if(++index1 == size1) break;
+    			pre1 = pres1[index1];
+    			if(++index2 == size2) break;
+    			pre2 = pres2[index2];
+    		}
+    	}
+    	
+    	WideNodelist nodelist = new WideNodelist(pres, poss, counts, size);
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist_disj(INlist, INlist) for two non-empty WideNodelists (64-bit codes).
+     */
+    private static INlist create_nlist_disj(WideNodelist nlist1, WideNodelist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	long[] pres1 = nlist1.pres(), poss1 = nlist1.poss(), pres2 = nlist2.pres(), poss2 = nlist2.poss();
+    	int[] counts1 = nlist1.counts(), counts2 = nlist2.counts();
+    	int capacity = size1 + size2;
+    	long[] pres = new long[capacity], poss = new long[capacity];
+    	int[] counts = new int[capacity];
+    	int size = 0, index1 = 0, index2 = 0;
+    	long pre1 = pres1[0], pre2 = pres2[0], ancestor_node_pre = -1;
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// node1: descendant, node2: ancestor, add node2 if it is not added yet
+    				if(ancestor_node_pre != pre2){
+    					pres[size] = pre2;
+    					poss[size] = poss2[index2];
+    					counts[size] = counts2[index2];
+    					size++;
+    					ancestor_node_pre = pre2;
+    				}
+    				if(++index1 == size1){
+    					index2++;	// ancestor has added
+    					break;
+    				}
+    				pre1 = pres1[index1];
+    			}else{
+    				// NO ancestor-descendant relationship, add node2 if it is not an ancestor added previously
+    				if(ancestor_node_pre != pre2){
+    					pres[size] = pre2;
+    					poss[size] = poss2[index2];
+    					counts[size] = counts2[index2];
+    					size++;
+    				}
+    				if(++index2 == size2) break;
+    				pre2 = pres2[index2];
+    			}
+    		}else if(pre1 < pre2){
+    			if(poss1[index1] < poss2[index2]){
+    				// NO ancestor-descendant relationship, add node1 if it is not an ancestor added previously
+    				if(ancestor_node_pre != pre1){
+    					pres[size] = pre1;
+    					poss[size] = poss1[index1];
+    					counts[size] = counts1[index1];
+    					size++;
+    				}
+    				if(++index1 == size1) break;
+    				pre1 = pres1[index1];
+    			}else{
+    				// node1: ancestor, node2: descendant, add node1 if it is not added yet
+    				if(ancestor_node_pre != pre1){
+    					pres[size] = pre1;
+    					poss[size] = poss1[index1];
+    					counts[size] = counts1[index1];
+    					size++;
+    					ancestor_node_pre = pre1;
+    				}
+    				if(++index2 == size2){
+    					index1++;	// ancestor has added
+    					break;
+    				}
+    				pre2 = pres2[index2];
+    			}
+    		}else{
+    			// identical nodes
+    			pres[size] = pre1;
+    			poss[size] = poss1[index1];
+    			counts[size] = counts1[index1];
+    			size++;
+    			index1++;
+    			index2++;
+    			if(index1 == size1) break;
+    			pre1 = pres1[index1];
+    			if(index2 == size2) break;
+    			pre2 = pres2[index2];
+    		}
+    	}
+    	
+    	// add the remaining nodes in one of the two input node lists
+    	if(index1 < size1){
+    		System.arraycopy(pres1, index1, pres, size, size1-index1);
+    		System.arraycopy(poss1, index1, poss, size, size1-index1);
+    		System.arraycopy(counts1, index1, counts, size, size1-index1);
+    		size += size1-index1;
+    	}else if(index2 < size2){
+    		System.arraycopy(pres2, index2, pres, size, size2-index2);
+    		System.arraycopy(poss2, index2, poss, size, size2-index2);
+    		System.arraycopy(counts2, index2, counts, size, size2-index2);
+    		size += size2-index2;
+    	}
+    	
+    	WideNodelist nodelist = new WideNodelist(pres, poss, counts, size);
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * Array access to the nodes of a Nodelist or a FrozenNlist, the fields of a node are
+     * pres[p], poss[p+shift] and counts[p+2*shift], p goes from 'begin' to 'end' by 'stride'.
+     * </br>A Nodelist has three arrays (stride 1, shift 0), a FrozenNlist has one interleaved array (stride 3, shift 1).
+     */
+    private static final class StridedNodes {
+    	final int[] pres, poss, counts;
+    	final int begin, end, stride, shift;
+    	
+    	StridedNodes(INlist nlist){
+    		if(nlist instanceof FrozenNlist){
+    			FrozenNlist frozen = (FrozenNlist) nlist;
+    			this.pres = this.poss = this.counts = frozen.triples;
+    			this.stride = 3;
+    			this.shift = 1;
+    			this.begin = 3*frozen.start;
+    		}else{
+    			Nodelist nodelist = (Nodelist) nlist;
+    			this.pres = nodelist.pres();
+    			this.poss = nodelist.poss();
+    			this.counts = nodelist.counts();
+    			this.stride = 1;
+    			this.shift = 0;
+    			this.begin = 0;
+    		}
+    		this.end = this.begin + nlist.size()*this.stride;
+    	}
+    	
+    	/**
+    	 * Return true if a FrozenNlist is involved and both Nlists are array-based
+    	 */
+    	static boolean supports(INlist nlist1, INlist nlist2){
+    		return (nlist1 instanceof FrozenNlist || nlist2 instanceof FrozenNlist)
+    				&& (nlist1 instanceof FrozenNlist || nlist1 instanceof Nodelist)
+    				&& (nlist2 instanceof FrozenNlist || nlist2 instanceof Nodelist);
+    	}
+    }
+    
+    /**
+     * The same as create_nlist(Nodelist, Nodelist) for two non-empty strided Nlists, e.g. frozen Nlists
+     */
+    private static INlist create_nlist(StridedNodes nodes1, StridedNodes nodes2){
+    	int[] pres1 = nodes1.pres, poss1 = nodes1.poss, counts1 = nodes1.counts;
+    	int[] pres2 = nodes2.pres, poss2 = nodes2.poss;
+    	int stride1 = nodes1.stride, stride2 = nodes2.stride, end1 = nodes1.end, end2 = nodes2.end;
+    	int pos_shift1 = nodes1.shift, count_shift1 = 2*nodes1.shift, pos_shift2 = nodes2.shift;
+    	int capacity = (end1-nodes1.begin)/stride1;
+    	int[] pres = new int[capacity], poss = new int[capacity], counts = new int[capacity];
+    	int size = 0, p1 = nodes1.begin, p2 = nodes2.begin, parent_node_pre = -1;
+    	int pre1 = pres1[p1], pre2 = pres2[p2], pos2 = poss2[p2+pos_shift2];
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[p1+pos_shift1] < pos2){
+    				// node1 is a descendant of node2, node2 can be an ancestor of the next nodes in nlist1
+    				if(parent_node_pre == pre2){
+    					counts[size-1] += counts1[p1+count_shift1];
+    				}else{
+    					pres[size] = pre2;
+    					poss[size] = pos2;
+    					counts[size] = counts1[p1+count_shift1];
+    					size++;
+    					parent_node_pre = pre2;
+    				}
+    				if((p1 += stride1) == end1) break;
+    				pre1 = pres1[p1];
+    			}else{
+    				// all nodes from node1 in nlist1 are NOT descendant of node2
+    				if((p2 += stride2) == end2) break;
+    				pre2 = pres2[p2];
+    				pos2 = poss2[p2+pos_shift2];
+    			}
+    		}else{
+    			// all nodes from node2 in nlist2 are not ancestors of node1
+    			if((p1 += stride1) == end1) break;
+    			pre1 = pres1[p1];
+    		}
+    	}
+    	
+    	return new Nodelist(pres, poss, counts, size);
+    }
+    
+    /**
+     * The same as create_nlist_conj(Nodelist, Nodelist) for two non-empty strided Nlists, e.g. frozen Nlists
+     */
+    private static INlist create_nlist_conj(StridedNodes nodes1, StridedNodes nodes2){
+    	int[] pres1 = nodes1.pres, poss1 = nodes1.poss, counts1 = nodes1.counts;
+    	int[] pres2 = nodes2.pres, poss2 = nodes2.poss, counts2 = nodes2.counts;
+    	int stride1 = nodes1.stride, stride2 = nodes2.stride, end1 = nodes1.end, end2 = nodes2.end;
+    	int pos_shift1 = nodes1.shift, count_shift1 = 2*nodes1.shift;
+    	int pos_shift2 = nodes2.shift, count_shift2 = 2*nodes2.shift;
+    	int capacity = (end1-nodes1.begin)/stride1 + (end2-nodes2.begin)/stride2;
+    	int[] pres = new int[capacity], poss = new int[capacity], counts = new int[capacity];
+    	int size = 0, p1 = nodes1.begin, p2 = nodes2.begin;
+    	int pre1 = pres1[p1], pre2 = pres2[p2];
+    	
+    	while(true){
+    		if(pre1 > pre2){
+    			if(poss1[p1+pos_shift1] < poss2[p2+pos_shift2]){
+    				// node1: descendant, node2: ancestor
+    				pres[size] = pre1;
+    				poss[size] = poss1[p1+pos_shift1];
+    				counts[size] = counts1[p1+count_shift1];
+    				size++;
+    				if((p1 += stride1) == end1) break;
+    				pre1 = pres1[p1];
+    			}else{
+    				// NO ancestor-descendant relationship
+    				if((p2 += stride2) == end2) break;
+    				pre2 = pres2[p2];
+    			}
+    		}else if(pre1 < pre2){
+    			if(poss1[p1+pos_shift1] < poss2[p2+pos_shift2]){
+    				// NO ancestor-descendant relationship
+    				if((p1 += stride1) == end1) break;
+    				pre1 = pres1[p1];
+    			}else{
+    				// node1: ancestor, node2: descendant
+    				pres[size] = pre2;
+    				poss[size] = poss2[p2+pos_shift2];
+    				counts[size] = counts2[p2+count_shift2];
+    				size++;
+    				if((p2 += stride2) == end2) break;
+    				pre2 = pres2[p2];
+    			}
+    		}else{
+    			// identical nodes
+    			pres[size] = pre1;
+    			poss[size] = poss1[p1+pos_shift1];
+    			counts[size] = counts1[p1+count_shift1];
+    			size++;
+    			if((p1 += stride1) == end1) break;
+    			pre1 = pres1[p1];
+    			if((p2 += stride2) == end2) break;
+    			pre2 = pres2[p2];
+    		}
+    	}
+    	
+    	Nodelist nodelist = new Nodelist(pres, poss, counts, size);
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist(INlist, INlist), the two Nlists are read sequentially by cursors,
+     * e.g. Nlists which are decoded block by block.
+     * @param cursor1 of the Nlist of itemset common|i1 or [itemset], at its first node
+     * @param cursor2 of the Nlist of itemset common|i2 or [item], at its first node
+     * @param capacity initial capacity of the result Nlist
+     * @return the nlist of itemset common|i1|i2 or [itemset][item]
+     */
+    public static INlist create_nlist(NlistCursor cursor1, NlistCursor cursor2, int capacity){
+    	int parent_node_index = -1, parent_node_pre = -1;
+    	Node i1_node = new Node(), i2_node = new Node();
+    	if(!cursor1.next(i1_node) || !cursor2.next(i2_node)) return new NodelistEmpty();
+    	Nodelist nodelist = new Nodelist(capacity);
+    	
+    	while(true){
+    		if(i1_node.pre > i2_node.pre){
+    			if(i1_node.pos < i2_node.pos){
+    				// i1_node is a descendant of i2_node, i2_node can be an ancestor of the next nodes in nlist1
+    				if(parent_node_pre == i2_node.pre){
+    					nodelist.accSupportCount(parent_node_index, i1_node.count);
+    				}else{
+    					nodelist.add(i2_node.pre, i2_node.pos, i1_node.count);
+    					parent_node_pre = i2_node.pre;
+    					parent_node_index++;
+    				}
+    				if(!cursor1.next(i1_node)) break;
+    			}else{
+    				// all nodes from i1_node in nlist1 are NOT descendant of i2_node
+    				if(!cursor2.next(i2_node)) break;
+    			}
+    		}else{
+    			// all nodes from i2_node in nlist2 are not ancestors of i1_node
+    			if(!cursor1.next(i1_node)) break;
+    		}
+    	}
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist_conj(INlist, INlist), the two Nlists are read sequentially by cursors,
+     * e.g. Nlists which are decoded block by block.
+     * @param cursor1 of the Nlist of boolean expression 1, at its first node
+     * @param cursor2 of the Nlist of boolean expression 2, at its first node
+     * @param capacity initial capacity of the result Nlist
+     * @return The Nlist (Nodelist object) of the result 'And' boolean expression
+     */
+    public static INlist create_nlist_conj(NlistCursor cursor1, NlistCursor cursor2, int capacity){
+    	Node i1_node = new Node(), i2_node = new Node();
+    	if(!cursor1.next(i1_node) || !cursor2.next(i2_node)) return new NodelistEmpty();
+    	Nodelist nodelist = new Nodelist(capacity);
+    	
+    	while(true){
+    		if(i1_node.pre > i2_node.pre){
+    			if(i1_node.pos < i2_node.pos){
+    				// i1_node: descendant, i2_node: ancestor
+    				nodelist.add(i1_node);
+    				if(!cursor1.next(i1_node)) break;
+    			}else{
+    				// NO ancestor-descendant relationship
+    				if(!cursor2.next(i2_node)) break;
+    			}
+    		}else if(i1_node.pre < i2_node.pre){
+    			if(i1_node.pos < i2_node.pos){
+    				// NO ancestor-descendant relationship
+    				if(!cursor1.next(i1_node)) break;
+    			}else{
+    				// i1_node: ancestor, i2_node: descendant
+    				nodelist.add(i2_node);
+    				if(!cursor2.next(i2_node)) break;
+    			}
+    		}else{
+    			// identical nodes
+    			nodelist.add(i1_node);
+    			if(!cursor1.next(i1_node) || !cursor2.next(i2_node)) break;
+    		}
+    	}
+    	
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
+    /**
+     * The same as create_nlist_disj(INlist, INlist), the two Nlists are read sequentially by cursors,
+     * e.g. Nlists which are decoded block by block.
+     * @param cursor1 of the Nlist of boolean expression 1, at its first node
+     * @param cursor2 of the Nlist of boolean expression 2, at its first node
+     * @param capacity initial capacity of the result Nlist
+     * @return The Nlist (Nodelist object) of the result 'Or' boolean expression
+     */
+    public static INlist create_nlist_disj(NlistCursor cursor1, NlistCursor cursor2, int capacity){
+    	int ancestor_node_pre = -1;
+    	Nodelist nodelist = new Nodelist(capacity);
+    	Node i1_node = new Node(), i2_node = new Node();
+    	boolean has1 = cursor1.next(i1_node), has2 = cursor2.next(i2_node);
+    	
+    	while(has1 && has2){
+    		if(i1_node.pre > i2_node.pre){
+    			if(i1_node.pos < i2_node.pos){
+    				// i1_node: descendant, i2_node: ancestor, add i2_node once
+    				if(ancestor_node_pre != i2_node.pre){
+    					nodelist.add(i2_node);
+    					ancestor_node_pre = i2_node.pre;
+    				}
+    				has1 = cursor1.next(i1_node);
+    				// the ancestor has been added
+    				if(!has1) has2 = cursor2.next(i2_node);
+    			}else{
+    				// NO ancestor-descendant relationship, add i2_node if it is not an ancestor added previously
+    				if(ancestor_node_pre != i2_node.pre) nodelist.add(i2_node);
+    				has2 = cursor2.next(i2_node);
+    			}
+    		}else if(i1_node.pre < i2_node.pre){
+    			if(i1_node.pos < i2_node.pos){
+    				// NO ancestor-descendant relationship, add i1_node if it is not an ancestor added previously
+    				if(ancestor_node_pre != i1_node.pre) nodelist.add(i1_node);
+    				has1 = cursor1.next(i1_node);
+    			}else{
+    				// i1_node: ancestor, i2_node: descendant, add i1_node once
+    				if(ancestor_node_pre != i1_node.pre){
+    					nodelist.add(i1_node);
+    					ancestor_node_pre = i1_node.pre;
+    				}
+    				has2 = cursor2.next(i2_node);
+    				// the ancestor has been added
+    				if(!has2) has1 = cursor1.next(i1_node);
+    			}
+    		}else{
+    			// identical nodes
+    			nodelist.add(i1_node);
+    			has1 = cursor1.next(i1_node);
+    			has2 = cursor2.next(i2_node);
+    		}
+    	}
+    	
+    	// add the remaining nodes in one of the two input node lists
+    	while(has1){
+    		nodelist.add(i1_node);
+    		has1 = cursor1.next(i1_node);
+    	}
+    	while(has2){
+    		nodelist.add(i2_node);
+    		has2 = cursor2.next(i2_node);
+    	}
+    	
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
     /**
      * DISJUNCTION ('or' operator) between two boolean expressions each of which is represented by an Nlist.
      * </br> The operator is commutative between nlist1 and nlist2
@@ -196,6 +1057,11 @@ public class Supporter {
     	int size1 = nlist1.size(), size2 = nlist2.size();
     	if (size1 == 0) return nlist2;
     	if (size2 == 0) return nlist1;
+    	if(nlist1 instanceof Nodelist && nlist2 instanceof Nodelist) return create_nlist_disj((Nodelist) nlist1, (Nodelist) nlist2);
+    	if(nlist1 instanceof WideNodelist || nlist2 instanceof WideNodelist)
+    		return create_nlist_disj(WideNodelist.widen(nlist1), WideNodelist.widen(nlist2));
+    	if(nlist1 instanceof CompressedNodelist || nlist2 instanceof CompressedNodelist)
+    		return create_nlist_disj(NlistCursor.open(nlist1), NlistCursor.open(nlist2), size1+size2);
 		
     	int index1=0, index2=0, ancestor_node_pre=-1;
 		Nodelist nodelist = new Nodelist(size1+size2);
@@ -308,6 +1174,350 @@ public class Supporter {
     	return nodelist;
     }
     
+    /**
+     * Calculate the Nlist of the itemset [i1][i2]...[ik] from the Nlists of its items in one pass, the same as folding
+     * create_nlist(INlist, INlist) from the left but without the intermediate Nlists.
+     * </br>Each node of nlists[0] is checked against the current nodes (cursors) of the other Nlists, which are
+     * the only candidates for its ancestors. If some Nlist has no ancestor of the node, the next nodes of nlists[0]
+     * which can not have one are jumped over. The ancestor in nlists[1] is the deepest one, so the next nodes of nlists[0]
+     * in its subtree are added without checking the other Nlists.
+     * </br>Nlists which are not Nodelists are folded pairwise.
+     * @param nlists Nlists of the items i1 < i2 < ... < ik
+     * @return the Nlist of the itemset, nlists[0] itself if there is only one item
+     */
+    public static INlist create_nlist(INlist[] nlists){
+    	int k = nlists.length;
+    	for(INlist nlist : nlists){
+    		if(nlist.size() == 0) return new NodelistEmpty();
+    	}
+    	if(k == 1) return nlists[0];
+    	KWayCursors cursors = kway_cursors.get();
+    	if(!cursors.load(nlists, null)){
+    		INlist nlist = nlists[0];
+    		for(int i=1; i<k; i++) nlist = create_nlist(nlist, nlists[i]);
+    		return nlist;
+    	}
+    	
+    	int capacity = Math.min(cursors.sizes[0], cursors.sizes[k-1]);
+    	int[] result_pres = new int[capacity], result_poss = new int[capacity], result_counts = new int[capacity];
+    	int size = intersect(cursors, result_pres, result_poss, result_counts, 0);
+    	cursors.clear();
+    	return new Nodelist(result_pres, result_poss, result_counts, size);
+    }
+    
+    // scratch of the k-way intersections, one per thread
+    private static final ThreadLocal<KWayCursors> kway_cursors = new ThreadLocal<KWayCursors>(){
+    	protected KWayCursors initialValue(){
+    		return new KWayCursors();
+    	}
+    };
+    
+    /**
+     * The k-way intersection over the Nodelists loaded in 'cursors', k >= 2.
+     * </br>If 'result_pres' is null nothing is added, the support count of the itemset is summed instead.
+     * Then if 'min_count' is positive, the intersection stops as soon as the sum reaches 'min_count', or the sum plus
+     * the counts of the nodes of nlists[0] not passed yet (an upper bound of the support count) falls below 'min_count'.
+     * @return the number of nodes of the result, or the support count if 'result_pres' is null,
+     * or the sum (>= min_count) or the upper bound (< min_count) at which the bounded intersection stopped
+     */
+    private static int intersect(KWayCursors cursors, int[] result_pres, int[] result_poss, int[] result_counts, int min_count){
+    	int k = cursors.k;
+    	int[][] pres = cursors.pres, poss = cursors.poss;
+    	int[] sizes = cursors.sizes, positions = cursors.cursors;
+    	PreCodeBitmap[] bitmaps = cursors.bitmaps;
+    	SkipIndex[] skips = cursors.skips;
+    	int[] pres0 = pres[0], poss0 = poss[0], counts0 = cursors.counts0;
+    	int[] top_pres = pres[k-1], top_poss = poss[k-1];
+    	int size0 = sizes[0];
+    	boolean count_only = result_pres == null;
+    	boolean bounded = count_only && min_count > 0;
+    	// counts of the nodes of nlists[0] from index0, only for the bounded intersection
+    	long remaining = bounded ? cursors.total0 : 0;
+    	
+    	int size = 0, support_count = 0, parent_index = -1, count;
+    	int index0 = 0, pre, pos, index, index1 = -1, next_pre, bound_pos, next_index0;
+    	
+    	search:
+    	while(index0 < size0){
+    		pre = pres0[index0];
+    		pos = poss0[index0];
+    		index = -1;
+    		for(int j=1; j<k; j++){
+    			if(j == 2) index1 = index;
+    			int[] pres_j = pres[j], poss_j = poss[j];
+    			if(bitmaps[j] != null){
+    				// the only candidate is the last node before node0 in pre-order
+    				index = bitmaps[j].rank(pre) - 1;
+    				if(index > -1 && poss_j[index] > pos) continue;
+    				if(++index == sizes[j]) break search;
+    			}else{
+    				// pass the nodes before node0 which are not its ancestors, mostly the cursor is still on its ancestor
+    				index = positions[j];
+    				if(pres_j[index] < pre && poss_j[index] < pos){
+    					index = positions[j] = SkipIndex.seek(pres_j, poss_j, index+1, sizes[j], pre, pos, skips[j]);
+    					if(index == sizes[j]) break search;
+    				}
+    				if(pres_j[index] < pre) continue;	// then poss_j[index] > pos, an ancestor
+    			}
+    			// the node at 'index' is after node0 in pre-order, the next nodes of nlists[0] which are not
+    			// its descendants (or descendants of the next nodes of nlists[j]) can not match
+    			next_pre = pres_j[index];
+    			next_index0 = index0 + 1;
+    			if(next_index0 < size0 && pres0[next_index0] <= next_pre)
+    				next_index0 = SkipIndex.seek(pres0, poss0, next_index0+1, size0, next_pre+1, Integer.MAX_VALUE, skips[0]);
+    			if(bounded){
+    				for(; index0<next_index0; index0++) remaining -= counts0[index0];
+    				if(support_count + remaining < min_count) return (int) (support_count + remaining);
+    			}
+    			index0 = next_index0;
+    			continue search;
+    		}
+    		if(k == 2) index1 = index;
+    		
+    		// node0 has an ancestor in all Nlists, 'index' is the one in nlists[k-1], 'index1' the one in nlists[1].
+    		// The ancestor in nlists[1] is the deepest one, the next nodes of nlists[0] in its subtree have the same ancestors
+    		count = counts0[index0];
+    		bound_pos = poss[1][index1];
+    		while(++index0 < size0 && poss0[index0] < bound_pos) count += counts0[index0];
+    		
+    		if(count_only){
+    			support_count += count;
+    			if(bounded){
+    				if(support_count >= min_count) return support_count;
+    				remaining -= count;
+    			}
+    		}else if(index == parent_index){
+    			result_counts[size-1] += count;
+    		}else{
+    			result_pres[size] = top_pres[index];
+    			result_poss[size] = top_poss[index];
+    			result_counts[size] = count;
+    			size++;
+    			parent_index = index;
+    		}
+    	}
+    	
+    	return count_only ? support_count : size;
+    }
+    
+    /**
+     * Return the indexes of 'itemsets' in ascending lexicographic order of the itemsets, by an MSD radix sort
+     * whose cost does not depend on the number of selectors (RecordRadixSorter)
+     * @param itemsets arrays of selector IDs smaller than 'selector_count'
+     * @param selector_count
+     */
+    public static int[] sort_itemsets(int[][] itemsets, int selector_count){
+    	return RecordRadixSorter.sort_itemsets(itemsets, selector_count);
+    }
+    
+    /**
+     * Return the support count of the itemset whose Nlists of items are 'nlists' (i1 < i2 < ... < ik), the same as
+     * create_nlist(INlist[]).supportCount() but without materializing the Nlist.
+     * </br>nlists[0] can also be the Nlist of a prefix of the itemset, followed by the Nlists of the remaining items.
+     * @param nlists
+     */
+    public static int support_count(INlist[] nlists){
+    	int k = nlists.length;
+    	for(INlist nlist : nlists){
+    		if(nlist.size() == 0) return 0;
+    	}
+    	if(k == 1) return nlists[0].supportCount();
+    	
+    	KWayCursors cursors = kway_cursors.get();
+    	if(!cursors.load(nlists, null)){
+    		INlist nlist = nlists[0];
+    		for(int i=1; i<k-1; i++) nlist = create_nlist(nlist, nlists[i]);
+    		return support_count(nlist, nlists[k-1]);
+    	}
+    	int support_count = intersect(cursors, null, null, null, 0);
+    	cursors.clear();
+    	return support_count;
+    }
+    
+    /**
+     * Return the support count of the itemset whose items are 'itemset' (i1 < i2 < ... < ik), the same as
+     * create_nlist(INlist[]).supportCount() but without materializing the Nlist.
+     * </br>If the Nlists are Nodelists, the k-way intersection only sums the counts, its cursors are scratch space of
+     * the thread, so nothing is allocated. Otherwise the Nlists are folded pairwise and the last step only counts
+     * (by cursors for CompressedNodelists), only the cursors and the intermediate Nlists are allocated then.
+     * @param nlists Nlists of the items (selectors), indexed by item ID
+     * @param itemset item IDs in ascending order
+     */
+    public static int support_count(INlist[] nlists, int[] itemset){
+    	return support_count_bounded(nlists, itemset, 0);
+    }
+    
+    /**
+     * The same as support_count(INlist[], int[]) but the intersection stops as soon as the result against 'min_count'
+     * is known: the counted support reaches 'min_count', or an upper bound of the support falls below 'min_count'.
+     * The upper bound is the counted support plus the counts of the nodes of the first Nlist which are not passed yet.
+     * </br>The support count of any item is also an upper bound, so nothing is intersected if one is below 'min_count'.
+     * @param nlists Nlists of the items (selectors), indexed by item ID
+     * @param itemset item IDs in ascending order
+     * @param min_count non-positive to count the exact support
+     * @return a value >= min_count if and only if the support count >= min_count,
+     * it is the support count if the intersection did not stop early
+     */
+    public static int support_count_bounded(INlist[] nlists, int[] itemset, int min_count){
+    	int k = itemset.length, bound = Integer.MAX_VALUE, support_count;
+    	for(int id : itemset){
+    		if(nlists[id].size() == 0) return 0;
+    		if(min_count > 0) bound = Math.min(bound, nlists[id].supportCount());
+    	}
+    	if(k == 1) return nlists[itemset[0]].supportCount();
+    	if(bound < min_count) return bound;
+    	
+    	KWayCursors cursors = kway_cursors.get();
+    	if(!cursors.load(nlists, itemset)){
+    		INlist nlist = nlists[itemset[0]];
+    		for(int i=1; i<k-1; i++) nlist = create_nlist(nlist, nlists[itemset[i]]);
+    		return support_count(nlist, nlists[itemset[k-1]]);
+    	}
+    	cursors.total0 = nlists[itemset[0]].supportCount();
+    	support_count = intersect(cursors, null, null, null, min_count);
+    	cursors.clear();
+    	return support_count;
+    }
+    
+    /**
+     * The same as create_nlist(nlist1, nlist2).supportCount() without materializing the Nlist:
+     * the sum of the counts of the nodes of nlist1 which are descendants of a node of nlist2.
+     * @param nlist1 of itemset [itemset]
+     * @param nlist2 of item [item]
+     */
+    public static int support_count(INlist nlist1, INlist nlist2){
+    	int size1 = nlist1.size(), size2 = nlist2.size();
+    	if(size1 == 0 || size2 == 0) return 0;
+    	if(nlist1 instanceof WideNodelist || nlist2 instanceof WideNodelist) return create_nlist(nlist1, nlist2).supportCount();
+    	if(nlist1 instanceof CompressedNodelist || nlist2 instanceof CompressedNodelist)
+    		return support_count(NlistCursor.open(nlist1), NlistCursor.open(nlist2));
+    	
+    	// Nodelists and the other implementations (e.g. FrozenNlist, OffHeapNlist) are read by the primitive accessors
+    	int index1 = 0, index2 = 0, support_count = 0;
+    	int pre1 = nlist1.pre(0), pre2 = nlist2.pre(0), pos2 = nlist2.pos(0);
+    	while(true){
+    		if(pre1 > pre2){
+    			if(nlist1.pos(index1) < pos2){
+    				// node1 is a descendant of node2
+    				support_count += nlist1.count(index1);
+    				if(++index1 == size1) break;
+    				pre1 = nlist1.pre(index1);
+    			}else{
+    				// all nodes from node1 in nlist1 are NOT descendant of node2
+    				if(++index2 == size2) break;
+    				pre2 = nlist2.pre(index2);
+    				pos2 = nlist2.pos(index2);
+    			}
+    		}else{
+    			// node2 is not an ancestor of node1
+    			if(++index1 == size1) break;
+    			pre1 = nlist1.pre(index1);
+    		}
+    	}
+    	return support_count;
+    }
+    
+    /**
+     * The same as support_count(INlist, INlist), the two Nlists are read sequentially by cursors,
+     * e.g. Nlists which are decoded block by block.
+     * @param cursor1 of the Nlist of itemset [itemset], at its first node
+     * @param cursor2 of the Nlist of item [item], at its first node
+     */
+    public static int support_count(NlistCursor cursor1, NlistCursor cursor2){
+    	int support_count = 0;
+    	Node i1_node = new Node(), i2_node = new Node();
+    	if(!cursor1.next(i1_node) || !cursor2.next(i2_node)) return 0;
+    	
+    	while(true){
+    		if(i1_node.pre > i2_node.pre){
+    			if(i1_node.pos < i2_node.pos){
+    				// i1_node is a descendant of i2_node
+    				support_count += i1_node.count;
+    				if(!cursor1.next(i1_node)) break;
+    			}else{
+    				// all nodes from i1_node in nlist1 are NOT descendant of i2_node
+    				if(!cursor2.next(i2_node)) break;
+    			}
+    		}else{
+    			// i2_node is not an ancestor of i1_node
+    			if(!cursor1.next(i1_node)) break;
+    		}
+    	}
+    	return support_count;
+    }
+    
+    /**
+     * DISJUNCTION ('or' operator) of k boolean expressions each of which is represented by an Nlist, e.g. the selectors
+     * of the values of an attribute in "attribute in {v1, v2, v3}". The same as folding create_nlist_disj(INlist, INlist)
+     * but in one k-way merge without the intermediate Nlists.
+     * </br>Nodes are merged in pre-order, a node is added unless it is a descendant of (or identical to) the last added node.
+     * @param nlists
+     * @return the Nlist of the disjunction, the only non-empty Nlist itself if there is only one
+     */
+    public static INlist create_nlist_disj(INlist[] nlists){
+    	int k = 0;
+    	boolean all_nodelists = true;
+    	INlist[] non_empty = new INlist[nlists.length];
+    	for(INlist nlist : nlists){
+    		if(nlist.size() == 0) continue;
+    		if(!(nlist instanceof Nodelist)) all_nodelists = false;
+    		non_empty[k] = nlist;
+    		k++;
+    	}
+    	if(k == 0) return nlists[0];
+    	if(k == 1) return non_empty[0];
+    	if(k == 2 || !all_nodelists){
+    		INlist nlist = non_empty[0];
+    		for(int i=1; i<k; i++) nlist = create_nlist_disj(nlist, non_empty[i]);
+    		return nlist;
+    	}
+    	
+    	int[][] pres = new int[k][], poss = new int[k][], counts = new int[k][];
+    	int[] sizes = new int[k], cursors = new int[k];
+    	int capacity = 0;
+    	for(int j=0; j<k; j++){
+    		Nodelist nodelist = (Nodelist) non_empty[j];
+    		pres[j] = nodelist.pres();
+    		poss[j] = nodelist.poss();
+    		counts[j] = nodelist.counts();
+    		sizes[j] = nodelist.size();
+    		capacity += sizes[j];
+    	}
+    	
+    	int[] result_pres = new int[capacity], result_poss = new int[capacity], result_counts = new int[capacity];
+    	int size = 0, last_pre = -1, last_pos = -1;
+    	int active = k, min_list, min_pre;
+    	
+    	while(active > 0){
+    		// the list whose current node is the first one in pre-order, k is small
+    		min_list = -1;
+    		min_pre = Integer.MAX_VALUE;
+    		for(int j=0; j<k; j++){
+    			if(cursors[j] < sizes[j] && pres[j][cursors[j]] < min_pre){
+    				min_pre = pres[j][cursors[j]];
+    				min_list = j;
+    			}
+    		}
+    		
+    		int pos = poss[min_list][cursors[min_list]];
+    		// not a descendant of (or identical to) the last added node
+    		if(min_pre > last_pre && pos > last_pos){
+    			result_pres[size] = min_pre;
+    			result_poss[size] = pos;
+    			result_counts[size] = counts[min_list][cursors[min_list]];
+    			size++;
+    			last_pre = min_pre;
+    			last_pos = pos;
+    		}
+    		if(++cursors[min_list] == sizes[min_list]) active--;
+    	}
+    	
+    	Nodelist nodelist = new Nodelist(result_pres, result_poss, result_counts, size);
+    	nodelist.shrink();	// for memory save
+    	
+    	return nodelist;
+    }
+    
     /**
      * Convert string s into integer array
      * @param s String of integers with space characters as delimiters
@@ -0,0 +1,124 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+import java.util.Arrays;
+
+/**
+ * TopPartPartitioner partitions a range of the index array of records in place, counting-sort style,
+ * by the selector ID of each record at a level of the top part of a P3CTree.
+ * </br>In the bucket of a selector ID, the records which can grow the tree further come first,
+ * the records ending at that level come last, so the group of the child node is the front part of the bucket.
+ * </br>'order' and 'buffer' can be shared by several partitioners working on disjoint ranges,
+ * the other arrays are owned by one partitioner (thread). Counters are reset by the list of touched keys.
+ */
+class TopPartPartitioner {
+	private final int[][] records;
+	private final int[] order;
+	private final int[] buffer;
+	
+	// counters indexed by selector ID, all zeros between two partitions
+	private final int[] fronts;
+	private final int[] backs;
+	
+	// the result of the last partition, one entry per distinct selector ID in ascending order
+	private final int[] keys;
+	private final int[] starts;
+	private final int[] counts;
+	private final int[] grow_counts;
+	
+	TopPartPartitioner(int[][] records, int[] order, int[] buffer, int selector_count){
+		this.records = records;
+		this.order = order;
+		this.buffer = buffer;
+		this.fronts = new int[selector_count];
+		this.backs = new int[selector_count];
+		this.keys = new int[selector_count];
+		this.starts = new int[selector_count];
+		this.counts = new int[selector_count];
+		this.grow_counts = new int[selector_count];
+	}
+	
+	/**
+	 * Partition order[offset, offset+length) by the ids at 'level', all records in the range have at least 'level' ids
+	 * @return the number of distinct ids, the buckets are available by key(i), start(i), count(i) and grow_count(i)
+	 */
+	int partition(int offset, int length, int level){
+		int[][] records = this.records;
+		int[] order = this.order, buffer = this.buffer, fronts = this.fronts, backs = this.backs;
+		int end = offset + length;
+		int key_count = 0, key;
+		int[] record;
+		
+		// count the ids (in 'backs') and the records to grow further (in 'fronts')
+		for(int i=offset; i<end; i++){
+			record = records[order[i]];
+			key = record[record.length-level];
+			if(backs[key] == 0){
+				this.keys[key_count] = key;
+				key_count++;
+			}
+			backs[key]++;
+			if(record.length > level) fronts[key]++;
+		}
+		
+		// the bucket of each id, 'fronts' and 'backs' become the write positions
+		Arrays.sort(this.keys, 0, key_count);
+		int position = offset;
+		for(int i=0; i<key_count; i++){
+			key = this.keys[i];
+			this.starts[i] = position;
+			this.counts[i] = backs[key];
+			this.grow_counts[i] = fronts[key];
+			fronts[key] = position;
+			position += backs[key];
+			backs[key] = position;
+		}
+		
+		// scatter to the buffer and copy back
+		int index;
+		for(int i=offset; i<end; i++){
+			index = order[i];
+			record = records[index];
+			key = record[record.length-level];
+			if(record.length > level){
+				buffer[fronts[key]] = index;
+				fronts[key]++;
+			}else{
+				backs[key]--;
+				buffer[backs[key]] = index;
+			}
+		}
+		System.arraycopy(buffer, offset, order, offset, length);
+		
+		for(int i=0; i<key_count; i++){
+			key = this.keys[i];
+			fronts[key] = 0;
+			backs[key] = 0;
+		}
+		return key_count;
+	}
+	
+	int[] getBuffer(){
+		return this.buffer;
+	}
+	
+	int key(int i){
+		return this.keys[i];
+	}
+	
+	int start(int i){
+		return this.starts[i];
+	}
+	
+	int count(int i){
+		return this.counts[i];
+	}
+	
+	int grow_count(int i){
+		return this.grow_counts[i];
+	}
+}
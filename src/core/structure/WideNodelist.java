@@ -0,0 +1,286 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package core.structure;
+
+/**
+ * An array implementation for Nlist with 64-bit pre-codes and pos-codes, for the trees of more than Integer.MAX_VALUE nodes.
+ * </br>The int accessors of INlist (pre, pos, get) throw ArithmeticException if a code does not fit an int,
+ * widePre(int) and widePos(int) return the full codes.
+ * </br>The Nlists of selectors built by a P3CTree share a code base: the int codes given to add(int, int, int) are relative
+ * to the code base, so the nodes of a subtree are coded locally from 0 and then added with the offsets of the subtree.
+ */
+public class WideNodelist implements INlist {
+	private static final float allocate_rate = 1.75f;
+	private long[] pres;
+	private long[] poss;
+	private int[] counts;
+	private int size = 0;
+	private int supportCount = -1;
+	
+	// [0] pre-code base, [1] pos-code base, null for no base
+	private final long[] code_base;
+ 	
+ 	public WideNodelist(int capacity){
+ 		this(capacity, null);
+	}
+ 	
+ 	public WideNodelist(){
+ 		this(16, null);
+	}
+ 	
+ 	/**
+ 	 * New a WideNodelist whose int codes added by add(int, int, int) are relative to 'code_base'
+ 	 * @param capacity
+ 	 * @param code_base [0] pre-code base, [1] pos-code base, it is shared and can be changed between the adds
+ 	 */
+ 	public WideNodelist(int capacity, long[] code_base){
+ 		this.pres = new long[capacity];
+ 		this.poss = new long[capacity];
+ 		this.counts = new int[capacity];
+ 		this.code_base = code_base;
+ 	}
+ 	
+ 	/**
+ 	 * New a WideNodelist on the given arrays of pre-codes, pos-codes and support counts without copying
+ 	 */
+ 	WideNodelist(long[] pres, long[] poss, int[] counts, int size){
+ 		this.pres = pres;
+ 		this.poss = poss;
+ 		this.counts = counts;
+ 		this.size = size;
+ 		this.code_base = null;
+ 	}
+ 	
+ 	/**
+ 	 * Return 'nlist' if it is a WideNodelist, otherwise a WideNodelist copy of it
+ 	 * @param nlist
+ 	 */
+ 	public static WideNodelist widen(INlist nlist){
+ 		if(nlist instanceof WideNodelist) return (WideNodelist) nlist;
+ 		
+ 		int size = nlist.size();
+ 		long[] pres = new long[size], poss = new long[size];
+ 		int[] counts = new int[size];
+ 		for(int i=0; i<size; i++){
+ 			pres[i] = nlist.pre(i);
+ 			poss[i] = nlist.pos(i);
+ 			counts[i] = nlist.count(i);
+ 		}
+ 		return new WideNodelist(pres, poss, counts, size);
+ 	}
+ 	
+ 	public int size(){
+ 		return this.size;
+ 	}
+ 	
+ 	public int capacity(){
+ 		return this.pres.length;
+ 	}
+ 	
+ 	/**
+ 	 * Fill information of the node at position 'index' to the parameter 'node'
+ 	 * @param index
+ 	 * @param node
+ 	 * @throws ArithmeticException if a code of the node does not fit an int
+ 	 */
+ 	public void get(int index, Node node){
+ 		node.pre = Math.toIntExact(this.pres[index]);
+ 		node.pos = Math.toIntExact(this.poss[index]);
+ 		node.count = this.counts[index];
+ 	}
+ 	
+ 	public int pre(int index){
+ 		return Math.toIntExact(this.pres[index]);
+ 	}
+ 	
+ 	public int pos(int index){
+ 		return Math.toIntExact(this.poss[index]);
+ 	}
+ 	
+ 	public int count(int index){
+ 		return this.counts[index];
+ 	}
+ 	
+ 	public long widePre(int index){
+ 		return this.pres[index];
+ 	}
+ 	
+ 	public long widePos(int index){
+ 		return this.poss[index];
+ 	}
+ 	
+ 	/**
+ 	 * Bulk views of the backing arrays, valid up to size() and until a new node is added
+ 	 */
+ 	long[] pres(){
+ 		return this.pres;
+ 	}
+ 	
+ 	long[] poss(){
+ 		return this.poss;
+ 	}
+ 	
+ 	int[] counts(){
+ 		return this.counts;
+ 	}
+ 	
+ 	/**
+ 	 * Return the sum of support counts of all nodes
+ 	 * @return
+ 	 */
+ 	public int supportCount(){
+ 		if(this.supportCount == -1){
+ 			int sc = 0;
+ 			for(int i=0; i<this.size; i++) sc += this.counts[i];
+ 	 		return (this.supportCount = sc);
+ 		}
+ 		return this.supportCount;
+ 	}
+ 	
+ 	/**
+ 	 * Reset the support count
+ 	 */
+ 	public void resetSC() {
+		this.supportCount = -1;
+	}
+ 	
+ 	/**
+ 	 * The space is enlarged to 'capacity' if it is smaller.
+ 	 * @param capacity
+ 	 */
+ 	public void allocate(int capacity){
+ 		if(capacity > this.pres.length) this.resize(capacity);
+ 	}
+ 	
+ 	private void resize(int capacity){
+ 		long[] new_pres = new long[capacity], new_poss = new long[capacity];
+ 		int[] new_counts = new int[capacity];
+ 		// Copy
+ 		System.arraycopy(this.pres, 0, new_pres, 0, size);
+ 		System.arraycopy(this.poss, 0, new_poss, 0, size);
+ 		System.arraycopy(this.counts, 0, new_counts, 0, size);
+ 		this.pres = new_pres;
+ 		this.poss = new_poss;
+ 		this.counts = new_counts;
+ 	}
+ 	
+ 	/**
+ 	 * This function should only be used when being sure that there will not be any new nodes added.
+ 	 * @param efficient_rate: if the size < capacity*efficient_rate, the shrink will be done.
+ 	 */
+ 	public WideNodelist shrink(float efficient_rate){
+ 		// Too much waste room, shrink
+ 		if(this.size < this.pres.length*efficient_rate) this.resize(this.size);
+ 		return this;
+ 	}
+ 	
+ 	/**
+ 	 * This function should only be used when being sure that there will not be any new nodes added.
+ 	 * </br> Shrink the capacity to the size, nothing is copied if the WideNodelist is full.
+ 	 */
+ 	public WideNodelist shrink(){
+ 		if(this.size < this.pres.length) this.resize(this.size);
+ 		return this;
+ 	}
+ 	
+ 	/**
+ 	 * Return the string representation of the Nlist, just for testing
+ 	 */
+ 	public String toString(){
+ 		StringBuilder sb = new StringBuilder(200);
+ 		sb.append('{');
+ 		for(int i=0; i<size; i++){
+ 			sb.append('<').append(this.pres[i]).append(',')
+ 			.append(this.poss[i]).append(">:")
+ 			.append(this.counts[i]).append("; ");
+ 		}
+ 		if (size > 0) sb.setLength(sb.length()-2);	// not an empty list
+ 		sb.append("}, freq:").append(this.supportCount());
+ 		
+ 		return sb.toString();
+ 	}
+ 	
+ 	/**
+ 	 * Add a new node to the end of the node list
+ 	 * @param pre
+ 	 * @param pos
+ 	 * @param count
+ 	 */
+ 	public void add(long pre, long pos, int count){
+ 		if(this.size == this.pres.length){
+ 			// No spare room for new node, allocate new space
+ 			// +1: a list of capacity 0 or 1 must still grow
+ 			this.resize((int)(this.size*allocate_rate) + 1);
+ 		}
+ 		// Add new node
+ 		this.pres[size] = pre;
+ 		this.poss[size] = pos;
+ 		this.counts[size] = count;
+ 		this.size++;
+ 	}
+ 	
+ 	/**
+ 	 * Add a new node to the end of the node list, 'pre' and 'pos' are relative to the code base if there is one
+ 	 * @param pre
+ 	 * @param pos
+ 	 * @param count
+ 	 */
+ 	public void add(int pre, int pos, int count){
+ 		if(this.code_base == null) this.add((long) pre, (long) pos, count);
+ 		else this.add(this.code_base[0] + pre, this.code_base[1] + pos, count);
+ 	}
+ 	
+ 	/**
+ 	 * Based on the information of parameter 'node', a new node is added to the end of the node list
+ 	 * @param node
+ 	 */
+ 	public void add(Node node){
+ 		this.add(node.pre, node.pos, node.count);
+ 	}
+ 	
+ 	/**
+ 	 * Add the 'supportCount' to the support count of node at the position 'index'
+ 	 * @param index
+ 	 * @param supportCount
+ 	 */
+ 	public void accSupportCount(int index, int supportCount){
+ 		this.counts[index] += supportCount;
+ 	}
+ 	
+ 	public boolean isIdentical(INlist nlist) {
+		if (this.size != nlist.size()) return false;
+		
+		int size = this.size;
+		if (nlist instanceof WideNodelist){
+			WideNodelist wide = (WideNodelist) nlist;
+			for (int i=0; i<size; i++){
+				if (this.pres[i] != wide.pres[i] || this.poss[i] != wide.poss[i] || this.counts[i] != wide.counts[i]) return false;
+			}
+			return true;
+		}
+		
+		for (int i=0; i<size; i++){
+			if (this.pres[i] != nlist.pre(i) || this.poss[i] != nlist.pos(i) || this.counts[i] != nlist.count(i)) return false;
+		}
+		return true;
+	}
+ 	
+ 	/**
+ 	 * WideNodelist does not support this method.
+ 	 */
+	public void add(PPCNode ppcNode) {
+		System.err.println("add(PPCNode ppcNode) method is not supported by WideNodelist");
+ 		System.exit(0);
+	}
+	
+	/**
+	 * WideNodelist does not support this method.
+	 */
+	public void insert(PPCNode ppcNode) {
+		System.err.println("insert(PPCNode ppcNode) method is not supported by WideNodelist");
+ 		System.exit(0);
+	}
+}
@@ -6,10 +6,12 @@
 package nlistbase;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.zip.DataFormatException;
@@ -17,10 +19,22 @@ import java.util.zip.DataFormatException;
 import core.prepr.Attribute;
 import core.prepr.DataReader;
 import core.prepr.Selector;
+import core.structure.ArenaPPCTree;
+import core.structure.CompressedNodelist;
+import core.structure.ExternalSortNlistBuilder;
+import core.structure.FrozenNlists;
 import core.structure.INlist;
+import core.structure.NlistCache;
+import core.structure.NodeArena;
+import core.structure.Nodelist;
+import core.structure.OffHeapNlist;
+import core.structure.OffHeapNlistArena;
 import core.structure.PPCNode;
+import core.structure.PPCNodePool;
 import core.structure.PPCTree;
 import core.structure.P3CTree;
+import core.structure.SortedRecordNlistBuilder;
+import core.structure.SplitPlan;
 import core.structure.Supporter;
 import core.structure.P3CNode;
 
@@ -138,6 +152,61 @@ public class InfoBase {
 	 */
 	protected int furtherEfficiency = -1;
 	
+	/**
+	 * Whether tree nodes are stored in a NodeArena (primitive arrays) instead of PPCNode objects
+	 */
+	protected boolean use_node_arena = false;
+	
+	/**
+	 * Whether nodes of freed subtrees of the P3CTree are recycled for the next subtrees
+	 */
+	protected boolean use_node_pool = true;
+	
+	/**
+	 * The node pool of the last built P3CTree, for its statistics
+	 */
+	protected PPCNodePool node_pool = null;
+	
+	/**
+	 * Arena of off-heap Nlists of selectors built by a P3CTree, null for Nlists on the heap
+	 */
+	protected OffHeapNlistArena off_heap_arena = null;
+	
+	/**
+	 * Heap byte budget for a subtree of the P3CTree, used instead of 'efficiency' if it is positive
+	 */
+	protected long memory_budget = -1;
+	
+	/**
+	 * Split plan of the top part of the P3CTree, made under 'memory_budget' or given to be replayed
+	 */
+	protected SplitPlan split_plan = null;
+	
+	/**
+	 * Whether 'split_plan' was given by setSplitPlan to be replayed, a plan made under 'memory_budget' is never replayed
+	 */
+	protected boolean replay_split_plan = false;
+	
+	/**
+	 * Whether the P3CTree codes its nodes with 64-bit pre-codes and pos-codes even if the tree fits int codes
+	 */
+	protected boolean force_wide_codes = false;
+	
+	/**
+	 * Max pre-codes per node of an Nlist of a selector (Nodelist) to get a bitmap of pre-codes, non-positive to disable
+	 */
+	protected int pre_bitmap_span = 64;
+	
+	/**
+	 * Cache of the Nlists of prefixes of queried itemsets, null for no cache
+	 */
+	protected NlistCache nlist_cache = null;
+	
+	/**
+	 * The min number of itemsets of a batch sharing a prefix, for which support_counts(int[][]) materializes the Nlist of the prefix
+	 */
+	protected static final int MIN_SHARING_ITEMSETS = 4;
+	
 	
 	///////////////////////////////////////////////GET/SET METHODS//////////////////////////////////////////////
 	/**
@@ -183,6 +252,14 @@ public class InfoBase {
     	return this.min_sup_count;
     }
     
+    /**
+     * Set the minimum support count used by is_frequent(int[]), it is read from the dataset by the fetching methods
+     * @param min_sup_count
+     */
+    public void setMinSupCount(int min_sup_count){
+    	this.min_sup_count = min_sup_count;
+    }
+    
     /**
      * @return The number of attributes in the input dataset
      */
@@ -311,6 +388,139 @@ public class InfoBase {
     	return this.furtherEfficiency;
     }
     
+    /**
+     * Set whether nodes of the PPCTree (or subtrees of the P3CTree) are stored in a NodeArena
+     * instead of PPCNode objects, the generated Nlists are the same.
+     * @param value
+     */
+    public void setUseNodeArena(boolean value){
+    	this.use_node_arena = value;
+    }
+    
+    public boolean getUseNodeArena(){
+    	return this.use_node_arena;
+    }
+    
+    /**
+     * Set whether nodes of freed subtrees of the P3CTree are recycled for building the next subtrees,
+     * the generated Nlists are the same. In the parallel way, each thread recycles its nodes in its own pool,
+     * getNodePool() returns their summed statistics.
+     * @param value
+     */
+    public void setUseNodePool(boolean value){
+    	this.use_node_pool = value;
+    }
+    
+    public boolean getUseNodePool(){
+    	return this.use_node_pool;
+    }
+    
+    /**
+     * Return the node pool used by the last P3CTree built, null if no pool was used.
+     * Its nodes are freed, only its statistics are kept.
+     */
+    public PPCNodePool getNodePool(){
+    	return this.node_pool;
+    }
+    
+    /**
+     * Set the arena to store off-heap the Nlists of selectors built by the P3CTree methods
+     * (fetch_information_with_memory_efficiency and its parallel version).
+     * </br>The caller owns the arena, the Nlists can not be used after the arena is closed.
+     * @param arena null for Nlists on the heap
+     */
+    public void setOffHeapArena(OffHeapNlistArena arena){
+    	this.off_heap_arena = arena;
+    }
+    
+    public OffHeapNlistArena getOffHeapArena(){
+    	return this.off_heap_arena;
+    }
+    
+    /**
+     * Set a heap byte budget for building the top part of the P3CTree, instead of the efficiency.
+     * A leaf node is split further while the estimated footprint of its subtree exceeds the budget.
+     * The resulting split plan is available by getSplitPlan() after fetching information.
+     * @param budget_bytes a non-positive value means the efficiency is used
+     */
+    public void setMemoryBudget(long budget_bytes){
+    	this.memory_budget = budget_bytes;
+    }
+    
+    public long getMemoryBudget(){
+    	return this.memory_budget;
+    }
+    
+    /**
+     * Set a split plan to be replayed by the next fetchings to build the top part of the P3CTree,
+     * the plan must be made from the same dataset. Set null to build by the memory budget (or the efficiency) again.
+     * @param plan
+     */
+    public void setSplitPlan(SplitPlan plan){
+    	this.split_plan = plan;
+    	this.replay_split_plan = (plan != null);
+    }
+    
+    /**
+     * Return the split plan used by the last fetching with a P3CTree, made under the memory budget or given by setSplitPlan,
+     * null if the top part was built by the efficiency
+     */
+    public SplitPlan getSplitPlan(){
+    	return this.split_plan;
+    }
+    
+    /**
+     * Set the max number of pre-codes per node in the range of pre-codes of an Nlist of a selector, for which
+     * the fetching methods build a bitmap of pre-codes on the Nlist. The bitmap costs span*1.5 bits,
+     * at most as much as the Nlist itself (12 bytes per node) for the default of 64.
+     * @param max_span_per_node non-positive to disable the bitmaps
+     */
+    public void setPreBitmapSpan(int max_span_per_node){
+    	this.pre_bitmap_span = max_span_per_node;
+    }
+    
+    public int getPreBitmapSpan(){
+    	return this.pre_bitmap_span;
+    }
+    
+    /**
+     * Set whether the P3CTree methods code nodes with 64-bit pre-codes and pos-codes (the Nlists are WideNodelists).
+     * </br>Wide codes are used anyway if the tree can have more than Integer.MAX_VALUE nodes.
+     * @param force_wide_codes
+     */
+    public void setWideCodes(boolean force_wide_codes){
+    	this.force_wide_codes = force_wide_codes;
+    }
+    
+    /**
+     * Return true if the P3CTree for the preprocessed dataset needs 64-bit codes (or they are forced).
+     * </br>A record adds at most its length of nodes, so the tree has at most the sum of frequencies of the selectors
+     * plus one (the root) nodes.
+     */
+    public boolean needWideCodes(){
+    	if(this.force_wide_codes) return true;
+    	long node_count = 1;
+    	for(Selector s : this.constructing_selectors) node_count += s.frequency;
+    	return node_count > Integer.MAX_VALUE;
+    }
+    
+    /**
+     * Cache the Nlists of the prefixes of the itemsets queried by create_nlist_for_itemset(int[]), up to 'max_bytes' bytes.
+     * </br>The cache is cleared when a dataset is fetched, it can be shared by query threads.
+     * @param max_bytes non-positive to disable the cache
+     * @param policy
+     */
+    public void setNlistCache(long max_bytes, NlistCache.EVICTION policy){
+    	this.nlist_cache = (max_bytes > 0) ? new NlistCache(max_bytes, policy) : null;
+    }
+    
+    /**
+     * Return the cache of Nlists of itemsets with its hit, miss and eviction counters, null if there is no cache
+     */
+    public NlistCache getNlistCache(){
+    	return this.nlist_cache;
+    }
+    
     ///////////////////////////////////////////////FUNCTIONALITY METHODS//////////////////////////////////////////////
     
     /**
@@ -335,6 +545,19 @@ public class InfoBase {
         
         times[0] = this.preprocessing();
         
+        if (this.use_node_arena){
+        	ArenaPPCTree arenaTree = new ArenaPPCTree();
+        	times[1] = this.construct_tree(arenaTree);
+        	
+        	long start = System.currentTimeMillis();
+        	this.selector_nlists = arenaTree.create_Nlist_for_selectors_arr(this.constructing_selector_count);
+        	this.selector_nlist_map = arenaTree.create_selector_Nlist_map(this.selector_nlists);
+        	this.build_pre_bitmaps(this.pre_bitmap_span);
+        	times[2] = System.currentTimeMillis() - start;
+        	
+        	return times;
+        }
+        
         PPCTree ppcTree = new PPCTree(); 
         times[1] = this.construct_tree(ppcTree);
         
@@ -344,12 +567,48 @@ public class InfoBase {
         long start = System.currentTimeMillis();
         this.selector_nlists = ppcTree.create_Nlist_for_selectors_arr(this.constructing_selector_count);
         this.selector_nlist_map = ppcTree.create_selector_Nlist_map(this.selector_nlists);
+        this.build_pre_bitmaps(this.pre_bitmap_span);
         
         times[2] = System.currentTimeMillis() - start;
         
         return times;
     }
     
+    /**
+     * Fetch information from the input dataset, the same as fetch_information 
+     * but the global PPCTree is built by 'thread_count' threads.
+     * </br>Records are partitioned by their most frequent selector, the subtree of each child node of the root
+     * is built on a worker thread, then pre-order and post-order codes are assigned once for the whole tree.
+     * The generated Nlists are identical to the ones of fetch_information.
+     * @param file_name The input dataset file name
+     * @return running time of the three stages: [0] preprocessing, [1] read records and build tree, [2] Nlist for each distinct selector
+     * @throws IOException
+     * @throws DataFormatException
+     * @throws InterruptedException
+     */
+    public long[] fetch_information_parallel(String file_name) throws IOException, DataFormatException, InterruptedException {
+    	long[] times = new long[3];
+    	
+        this.data_filename = file_name;
+        
+        times[0] = this.preprocessing();
+        
+        long start = System.currentTimeMillis();
+        this.read_records();
+        PPCTree ppcTree = new PPCTree();
+        ppcTree.build_parallel(this.selectorID_records, this.constructing_selector_count, this.thread_count);
+        ppcTree.assignPrePosOrderCode();
+        times[1] = System.currentTimeMillis() - start;
+        
+        start = System.currentTimeMillis();
+        this.selector_nlists = ppcTree.create_Nlist_for_selectors_arr(this.constructing_selector_count);
+        this.selector_nlist_map = ppcTree.create_selector_Nlist_map(this.selector_nlists);
+        this.build_pre_bitmaps(this.pre_bitmap_span);
+        times[2] = System.currentTimeMillis() - start;
+        
+        return times;
+    }
+    
     /**
      * Fetch information from the input dataset. Use this method when the input data is big and
      * the available memory is not enough to render the global PPCTree built from dataset.
@@ -374,30 +633,58 @@ public class InfoBase {
         times[0] = this.preprocessing();
         
         // Build the top part of the global PPCtree
-        P3CTree p3ctree = new P3CTree(this.constructing_selector_count); 
+        P3CTree p3ctree = new P3CTree(this.constructing_selector_count, this.off_heap_arena, this.needWideCodes());
+        if (!this.use_node_pool) p3ctree.setNodePool(null);
         times[1] = this.construct_tree_top_part(p3ctree);
         
         // Build subtrees and update Nlist for each selector
         long start = System.currentTimeMillis();
         
         List<PPCNode> leaf_nodes = p3ctree.getLeafNodes();
-        for (PPCNode leaf_node : leaf_nodes){
-        	// Build a subtree with root at leaf_node
-        	p3ctree.buildSubtree(leaf_node);
-        	
-        	// Assign pre-order and post-order codes
-        	p3ctree.assignPrePosOrderCodeSubTree(leaf_node);
-        	
-        	// Update Nlist of selectors and free the subtree
-        	p3ctree.update_nlists_from_subtree(leaf_node);
-        	
-        	// Free the subtree with root at leaf_node for memory
-        	p3ctree.freeSubTrees(leaf_node);
+        if (this.use_node_arena){
+        	// the arena is recycled for all subtrees
+        	NodeArena arena = new NodeArena();
+        	for (PPCNode leaf_node : leaf_nodes){
+        		p3ctree.buildSubtree(leaf_node, arena);
+        		p3ctree.assignPrePosOrderCodeSubTree(leaf_node, arena);
+        		p3ctree.update_nlists_from_subtree(leaf_node, arena);
+        		p3ctree.freeSubTrees(leaf_node);
+        	}
+        	arena.free();
+        }else if (this.split_plan != null){
+        	// subtrees of a work unit are built together, their total estimated footprint is within the budget
+        	for (int unit=0; unit<this.split_plan.getUnitCount(); unit++){
+        		int unit_start = this.split_plan.getUnitStart(unit), unit_end = this.split_plan.getUnitEnd(unit);
+        		for (int i=unit_start; i<unit_end; i++) p3ctree.buildSubtree(leaf_nodes.get(i));
+        		
+        		for (int i=unit_start; i<unit_end; i++){
+        			PPCNode leaf_node = leaf_nodes.get(i);
+        			p3ctree.assignPrePosOrderCodeSubTree(leaf_node);
+        			p3ctree.update_nlists_from_subtree(leaf_node);
+        			p3ctree.freeSubTrees(leaf_node);
+        		}
+        	}
+        }else{
+        	for (PPCNode leaf_node : leaf_nodes){
+        		// Build a subtree with root at leaf_node
+        		p3ctree.buildSubtree(leaf_node);
+        		
+        		// Assign pre-order and post-order codes
+        		p3ctree.assignPrePosOrderCodeSubTree(leaf_node);
+        		
+        		// Update Nlist of selectors and free the subtree
+        		p3ctree.update_nlists_from_subtree(leaf_node);
+        		
+        		// Free the subtree with root at leaf_node for memory
+        		p3ctree.freeSubTrees(leaf_node);
+        	}
         }
+        this.release_node_pool(p3ctree);
         
         p3ctree.shrink_nlists();
         this.selector_nlists = p3ctree.get_selector_nlists();
         this.selector_nlist_map = p3ctree.create_selector_Nlist_map(this.selector_nlists);
+        this.build_pre_bitmaps(this.pre_bitmap_span);
     	
         times[2] = System.currentTimeMillis() - start;
         
@@ -408,11 +695,159 @@ public class InfoBase {
         for(PPCNode node : leaf_nodes){
         	if (max_inst_count < node.count) max_inst_count = node.count;
         }
-        this.furtherEfficiency = this.row_count/(max_inst_count/2);
+        this.furtherEfficiency = this.row_count/Math.max(1, max_inst_count/2);
         
         return times;
     }
-  
+    
+    /**
+     * Fetch information from the input dataset, the same as fetch_information_with_memory_efficiency
+     * but subtrees at leaf nodes of the top part are built and coded by 'thread_count' threads in parallel.
+     * The generated Nlists are identical to the ones of the sequential way.
+     * </br><b>Note that:</b> up to thread_count*4 subtrees are alive at the same time, instead of one.
+     * Under a memory budget (or a replayed split plan), they are also admitted only while their estimated footprints
+     * stay within the budget.
+     * @param file_name The input dataset file name
+     * @return running time of the three stages: [0] preprocessing, [1] build tree top part, [2] Build subtrees and update Nlist for each distinct selector
+     * @throws IOException
+     * @throws DataFormatException
+     * @throws InterruptedException
+     */
+    public long[] fetch_information_with_memory_efficiency_parallel(String file_name) throws IOException, DataFormatException, InterruptedException {
+    	long[] times = new long[3];
+        
+        this.data_filename = file_name;
+        
+        times[0] = this.preprocessing();
+        
+        // Build the top part of the global PPCtree
+        P3CTree p3ctree = new P3CTree(this.constructing_selector_count, this.off_heap_arena, this.needWideCodes());
+        if (!this.use_node_pool) p3ctree.setNodePool(null);
+        times[1] = this.construct_tree_top_part(p3ctree, this.thread_count);
+        
+        // Build subtrees and update Nlist for each selector
+        long start = System.currentTimeMillis();
+        
+        // under a split plan, the alive subtrees are also bounded by the budget of the plan
+        long budget_bytes = (this.split_plan != null) ? this.split_plan.getBudgetBytes() : -1;
+        p3ctree.build_subtrees_parallel(this.thread_count, budget_bytes);
+        this.release_node_pool(p3ctree);
+        
+        p3ctree.shrink_nlists();
+        this.selector_nlists = p3ctree.get_selector_nlists();
+        this.selector_nlist_map = p3ctree.create_selector_Nlist_map(this.selector_nlists);
+        this.build_pre_bitmaps(this.pre_bitmap_span);
+        
+        times[2] = System.currentTimeMillis() - start;
+        
+        // recommend a further efficiency coefficient based on
+        // the max number of instances used to build a subtree
+        int max_inst_count = 0;
+        for(PPCNode node : p3ctree.getLeafNodes()){
+        	if (max_inst_count < node.count) max_inst_count = node.count;
+        }
+        this.furtherEfficiency = this.row_count/Math.max(1, max_inst_count/2);
+        
+        return times;
+    }
+    
+    
+    /**
+     * Fetch information from the input dataset without building any tree. Records are sorted in lexicographic order
+     * of their reversed sequences (in parallel), then the Nlists of selectors are created by one sweep over the sorted records.
+     * The generated Nlists are identical to the ones of fetch_information.
+     * </br>1. Do data preprocessing
+     * </br>2. Read and sort the records
+     * </br>3. Sweep the sorted records to create Nlist for each distinct selector
+     * @param file_name The input dataset file name
+     * @return running time of the three stages: [0] preprocessing, [1] read and sort the records, [2] create Nlist for each distinct selector
+     * @throws IOException
+     * @throws DataFormatException
+     * @throws InterruptedException
+     */
+    public long[] fetch_information_with_sorted_records(String file_name) throws IOException, DataFormatException, InterruptedException {
+    	long[] times = new long[3];
+    	
+        this.data_filename = file_name;
+        
+        times[0] = this.preprocessing();
+        
+        long start = System.currentTimeMillis();
+        this.read_records();
+        SortedRecordNlistBuilder builder = new SortedRecordNlistBuilder(this.selectorID_records, this.constructing_selector_count);
+        builder.sort(this.thread_count);
+        times[1] = System.currentTimeMillis() - start;
+        
+        start = System.currentTimeMillis();
+        this.selector_nlists = builder.create_Nlist_for_selectors_arr(this.thread_count);
+        this.selector_nlist_map = builder.create_selector_Nlist_map(this.selector_nlists);
+        this.build_pre_bitmaps(this.pre_bitmap_span);
+        times[2] = System.currentTimeMillis() - start;
+        
+        return times;
+    }
+    
+    /**
+     * Fetch information from the input dataset whose encoded records do not fit in memory, without building any tree.
+     * Records are sorted in runs of 'run_size' records which are spilled to temporary files, then the runs are merged
+     * and streamed to create the Nlists of selectors. The generated Nlists are identical to the ones of fetch_information.
+     * </br><b>Note that:</b> the records are not kept, 'selectorID_records' is null afterward.
+     * @param file_name The input dataset file name
+     * @param run_size the max number of records kept in memory
+     * @return running time of the three stages: [0] preprocessing, [1] read records and spill sorted runs, [2] merge runs and create Nlist for each distinct selector
+     * @throws IOException
+     * @throws DataFormatException
+     */
+    public long[] fetch_information_out_of_core(String file_name, int run_size) throws IOException, DataFormatException {
+    	return this.fetch_information_out_of_core(file_name, run_size, null);
+    }
+    
+    /**
+     * The same as fetch_information_out_of_core(String, int), temporary run files are created in 'temp_dir'
+     * @param file_name The input dataset file name
+     * @param run_size the max number of records kept in memory
+     * @param temp_dir directory of the temporary files, null for the default temporary-file directory
+     * @return running time of the three stages: [0] preprocessing, [1] read records and spill sorted runs, [2] merge runs and create Nlist for each distinct selector
+     * @throws IOException
+     * @throws DataFormatException
+     */
+    public long[] fetch_information_out_of_core(String file_name, int run_size, File temp_dir) throws IOException, DataFormatException {
+    	long[] times = new long[3];
+    	
+        this.data_filename = file_name;
+        
+        times[0] = this.preprocessing();
+        
+        long start = System.currentTimeMillis();
+        ExternalSortNlistBuilder builder = new ExternalSortNlistBuilder(this.constructing_selector_count, run_size, temp_dir);
+        
+        DataReader dr = DataReader.getDataReader(this.data_filename);
+		dr.bind_datasource(this.data_filename);
+		
+		String[] value_record;
+		int[] id_buffer = new int[this.attr_count];
+		int[] id_record;
+		while((value_record = dr.next_record()) != null){
+			// convert value_record to a record of selectorIDs in ascending order
+			id_record = this.convert_instance(value_record, id_buffer);
+			Arrays.sort(id_record);
+			builder.add(id_record);
+		}
+		this.selectorID_records = null;
+        times[1] = System.currentTimeMillis() - start;
+        
+        start = System.currentTimeMillis();
+        this.selector_nlists = builder.create_Nlist_for_selectors_arr();
+        this.selector_nlist_map = new HashMap<String, INlist>(this.selector_nlists.length);
+        for(int i=0; i<this.selector_nlists.length; i++){
+        	this.selector_nlist_map.put("["+i+"]", this.selector_nlists[i]);
+        }
+        this.build_pre_bitmaps(this.pre_bitmap_span);
+        times[2] = System.currentTimeMillis() - start;
+        
+        return times;
+    }
+    
     
     /**
      * Read the input dataset to extract information about attributes, distinct values, selectors, etc.
@@ -422,6 +857,7 @@ public class InfoBase {
      */
 	protected long preprocessing() throws IOException, DataFormatException {
     	long start = System.currentTimeMillis();
+    	if(this.nlist_cache != null) this.nlist_cache.clear();
     	
     	DataReader dr = DataReader.getDataReader(this.data_filename);
     	if(dr == null){
@@ -472,34 +908,27 @@ public class InfoBase {
 	protected long construct_tree(PPCTree tree) throws IOException, DataFormatException {
 		long start = System.currentTimeMillis();  
 		
-		int[][] result = new int[this.row_count][];
-		int index = 0;
+		this.read_records();
+		// the order of ids to insert to the tree is from right to left
+		for (int[] id_record : this.selectorID_records) tree.insert_record(id_record);
 	    
-		DataReader dr = DataReader.getDataReader(this.data_filename);
-		dr.bind_datasource(this.data_filename);
-		
-		String[] value_record;
-		
-		int[] id_buffer = new int[this.attr_count];
-		int[] id_record;
+		// Assign a pair of pre-order and pos-order codes for each tree node.
+		tree.assignPrePosOrderCode();
 		
-		while((value_record = dr.next_record()) != null){
-			// convert value_record to a record of selectorIDs
-			result[index] = id_record = this.convert_instance(value_record, id_buffer);
-			index++;
-			
-			// selectors with higher frequencies have greater selector ID
-			// only support ascending sort, so the order of ids to insert to the tree is from right to left
-			// since id of a target selector is always greater than id of predictive selector
-			// sorting id_record will NOT blend the IDs of two kinds of selectors together	
-			Arrays.sort(id_record);
-			
-			// System.out.println(Arrays.toString(id_record));	// for testing
-			
-			tree.insert_record(id_record);
-		}
+	    return System.currentTimeMillis() - start;
+	}
+	
+	/**
+	 * Read the input dataset the second time to build a tree, whose nodes are stored in a NodeArena, to construct N-list structures
+	 * @return running time
+	 * @throws IOException
+	 * @throws DataFormatException 
+	 */
+	protected long construct_tree(ArenaPPCTree tree) throws IOException, DataFormatException {
+		long start = System.currentTimeMillis();  
 		
-		this.selectorID_records = result;
+		this.read_records();
+		for (int[] id_record : this.selectorID_records) tree.insert_record(id_record);
 	    
 		// Assign a pair of pre-order and pos-order codes for each tree node.
 		tree.assignPrePosOrderCode();
@@ -507,6 +936,14 @@ public class InfoBase {
 	    return System.currentTimeMillis() - start;
 	}
 	
+	/**
+	 * Keep the node pool of 'tree' for its statistics and free its nodes
+	 */
+	protected void release_node_pool(P3CTree tree){
+		this.node_pool = tree.getNodePool();
+		if (this.node_pool != null) this.node_pool.clear();
+	}
+	
 	/**
 	 * Read the input dataset to build the top part of the global tree
 	 * @return running time
@@ -514,6 +951,51 @@ public class InfoBase {
 	 * @throws DataFormatException 
 	 */
 	protected long construct_tree_top_part(P3CTree tree) throws IOException, DataFormatException {
+		try {
+			return this.construct_tree_top_part(tree, 1);
+		} catch (InterruptedException e) {
+			// no thread is created to build with one thread
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Read the input dataset to build the top part of the global tree, 
+	 * the top part is grown by 'thread_count' threads if it is built by the efficiency
+	 * @return running time
+	 * @throws IOException
+	 * @throws DataFormatException 
+	 * @throws InterruptedException 
+	 */
+	protected long construct_tree_top_part(P3CTree tree, int thread_count) throws IOException, DataFormatException, InterruptedException {
+		long start = System.currentTimeMillis();
+		
+		this.read_records();
+		int[][] data_instances = this.selectorID_records;
+		
+		if (this.replay_split_plan){
+			tree.buildTopPart(data_instances, this.split_plan);
+		}else if (this.memory_budget > 0){
+			// a new plan for each fetching, a plan made from a previous dataset or budget is not replayed
+			this.split_plan = tree.buildTopPart(data_instances, this.memory_budget);
+		}else{
+			this.split_plan = null;
+			// The max number of instances to build a sub tree with its root at a leaf node of the top part
+			int max_inst_count = this.row_count/this.efficiency;
+			if (thread_count > 1) tree.buildTopPart(data_instances, max_inst_count, thread_count);
+			else tree.buildTopPart(data_instances, max_inst_count);
+		}
+		
+	    return System.currentTimeMillis() - start;
+	}
+	
+	/**
+	 * Read the input dataset into 'selectorID_records', each record is converted to selector IDs in ascending order
+	 * @return running time
+	 * @throws IOException
+	 * @throws DataFormatException 
+	 */
+	protected long read_records() throws IOException, DataFormatException {
 		long start = System.currentTimeMillis();
 		
 		int[][] data_instances = new int[this.row_count][];
@@ -538,11 +1020,7 @@ public class InfoBase {
 		}
 		this.selectorID_records = data_instances;
 		
-		// The max number of instances to build a sub tree with its root at a leaf node of the top part
-		int max_inst_count = this.row_count/this.efficiency;
-		tree.buildTopPart(data_instances, max_inst_count);
-		
-	    return System.currentTimeMillis() - start;
+		return System.currentTimeMillis() - start;
 	}
 	
 	/**
@@ -588,15 +1066,277 @@ public class InfoBase {
     	w.close();
     }
 	
+	/**
+	 * Replace the Nlists of selectors by CompressedNodelists (delta and variable-byte encoded blocks),
+	 * the following queries run on the compressed Nlists.
+	 * @return the number of bytes of the compressed Nlists
+	 */
+	public long compress_nlists(){
+		long bytes = 0;
+		for(int i=0; i<this.selector_nlists.length; i++){
+			CompressedNodelist nlist = new CompressedNodelist(this.selector_nlists[i]);
+			bytes += nlist.getByteSize();
+			this.selector_nlists[i] = nlist;
+			this.selector_nlist_map.put("["+i+"]", nlist);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Pack the Nlists of selectors into one contiguous array of (pre, pos, count) triples,
+	 * the Nlist of each selector is replaced by a read-only view (FrozenNlist) over the array.
+	 * </br>Call this after the Nlists are constructed, no node can be added to the Nlists afterward.
+	 * @return the number of bytes of the packed Nlists
+	 */
+	public long freeze(){
+		FrozenNlists frozen = new FrozenNlists(this.selector_nlists);
+		for(int i=0; i<this.selector_nlists.length; i++){
+			this.selector_nlists[i] = frozen.get(i);
+			this.selector_nlist_map.put("["+i+"]", this.selector_nlists[i]);
+		}
+		return frozen.getByteSize();
+	}
+	
+	/**
+	 * The same as freeze(), but the Nlists are packed off-heap into chunks of 'arena'
+	 * @param arena
+	 * @return the number of bytes allocated by the arena
+	 */
+	public long freeze(OffHeapNlistArena arena){
+		OffHeapNlist[] frozen = arena.freeze(this.selector_nlists);
+		for(int i=0; i<this.selector_nlists.length; i++){
+			this.selector_nlists[i] = frozen[i];
+			this.selector_nlist_map.put("["+i+"]", frozen[i]);
+		}
+		return arena.getAllocatedBytes();
+	}
+	
+	/**
+	 * Build skip indexes on the Nlists of selectors (Nodelists) having at least 'min_size' nodes,
+	 * the intersections of such an Nlist with a much shorter one jump over blocks of its nodes.
+	 * @param min_size
+	 * @return the number of Nlists with a skip index
+	 */
+	public int build_skip_indexes(int min_size){
+		int count = 0;
+		for(INlist nlist : this.selector_nlists){
+			if(nlist instanceof Nodelist && nlist.size() >= min_size){
+				((Nodelist) nlist).buildSkipIndex();
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * Build bitmaps of pre-codes on the dense Nlists of selectors (Nodelists), which have at most 'max_span_per_node'
+	 * pre-codes per node, e.g. the Nlists of the most frequent selectors.
+	 * </br>A node is then checked against such an Nlist as the ancestor side by one rank lookup instead of a merge.
+	 * @param max_span_per_node non-positive to build nothing
+	 * @return the number of Nlists with a bitmap
+	 */
+	public int build_pre_bitmaps(int max_span_per_node){
+		if(max_span_per_node < 1) return 0;
+		int count = 0;
+		for(INlist nlist : this.selector_nlists){
+			if(nlist instanceof Nodelist && ((Nodelist) nlist).buildPreBitmap(max_span_per_node)) count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Write the information about the dataset (attributes, selectors, class IDs, counts) and the Nlists of selectors
+	 * to a versioned binary file, which is loaded by fetch_information_from_store(...) without reading the dataset again.
+	 * @param file_name
+	 * @return the number of written bytes
+	 * @throws IOException
+	 */
+	public long save_store(String file_name) throws IOException{
+		return NlistStore.save(this, file_name);
+	}
+	
+	/**
+	 * Fetch information from a file written by save_store(...).
+	 * </br>The Nlists of selectors are read-only views over the memory-mapped file, nothing is copied into the heap.
+	 * @param file_name
+	 * @return running time of loading the store
+	 * @throws IOException
+	 */
+	public long fetch_information_from_store(String file_name) throws IOException{
+		long start = System.currentTimeMillis();
+		if(this.nlist_cache != null) this.nlist_cache.clear();
+		NlistStore.load(this, file_name);
+		return System.currentTimeMillis() - start;
+	}
+	
+	/**
+	 * Return the Nlist of 'itemset', by one k-way pass over the Nlists of its selectors (Supporter.create_nlist(INlist[]))
+	 * </br>With a cache (setNlistCache), the pass starts from the Nlist of the longest cached prefix of 'itemset',
+	 * and the Nlists of 'itemset' and its prefix without the last selector are cached. The returned Nlist can be shared then,
+	 * it must not be changed.
+	 * @param itemset selector IDs in ascending order
+	 */
 	public INlist create_nlist_for_itemset(int[] itemset){
-		INlist nlist = this.selector_nlists[itemset[0]];
+		if(this.nlist_cache == null || itemset.length < 3) return Supporter.create_nlist(this.get_selector_nlists(itemset));
+		
+		// the longest cached prefix, then its extension without the last selector is cached,
+		// so the next itemsets with the same prefix (e.g. refinements of a rule) are one intersection
+		NlistCache cache = this.nlist_cache;
+		int k = itemset.length, length = k;
+		INlist nlist = null;
+		while(length > 1 && (nlist = cache.get(itemset, length)) == null) length--;
+		if(length == k) return nlist;
+		if(length == 1) nlist = this.selector_nlists[itemset[0]];
 		
-		for(int i = 1; i < itemset.length; i++){
-			nlist = Supporter.create_nlist(nlist, this.selector_nlists[itemset[i]]);
+		if(length < k-1){
+			INlist[] nlists = new INlist[k-length];
+			nlists[0] = nlist;
+			long cost = nlist.size();
+			for(int i=1; i<nlists.length; i++){
+				nlists[i] = this.selector_nlists[itemset[length+i-1]];
+				cost += nlists[i].size();
+			}
+			nlist = Supporter.create_nlist(nlists).shrink();
+			cache.put(itemset, k-1, nlist, cost);
 		}
+		INlist last = this.selector_nlists[itemset[k-1]];
+		long cost = nlist.size() + last.size();
+		nlist = Supporter.create_nlist(nlist, last).shrink();
+		cache.put(itemset, k, nlist, cost);
 		return nlist;
 	}
 	
+	/**
+	 * Return the support count of 'itemset' without materializing its Nlist (Supporter.support_count(INlist[], int[])),
+	 * nothing is allocated if the Nlists of selectors are Nodelists
+	 * @param itemset selector IDs in ascending order
+	 */
+	public int support_count(int[] itemset){
+		return Supporter.support_count(this.selector_nlists, itemset);
+	}
+	
+	/**
+	 * Return a value >= 'min_count' if and only if the support count of 'itemset' >= 'min_count',
+	 * the intersection stops as soon as this is known (Supporter.support_count_bounded(INlist[], int[], int))
+	 * @param itemset selector IDs in ascending order
+	 * @param min_count
+	 */
+	public int support_count_bounded(int[] itemset, int min_count){
+		return Supporter.support_count_bounded(this.selector_nlists, itemset, min_count);
+	}
+	
+	/**
+	 * Return true if the support count of 'itemset' >= 'min_count', with early termination
+	 * @param itemset selector IDs in ascending order
+	 * @param min_count
+	 */
+	public boolean is_frequent(int[] itemset, int min_count){
+		return Supporter.support_count_bounded(this.selector_nlists, itemset, min_count) >= min_count;
+	}
+	
+	/**
+	 * Return true if the support count of 'itemset' >= the minimum support count of the dataset (or set by setMinSupCount)
+	 * @param itemset selector IDs in ascending order
+	 */
+	public boolean is_frequent(int[] itemset){
+		return this.is_frequent(itemset, this.min_sup_count);
+	}
+	
+	/**
+	 * Return the support counts of a batch of itemsets, in the order of 'itemsets'.
+	 * </br>The itemsets are visited in lexicographic order, which is a depth-first traversal of the trie of the batch:
+	 * a stack keeps the Nlists of the prefixes of the current itemset which are shared with the next one,
+	 * so the Nlist of a shared prefix is computed once for all its itemsets. The remaining selectors of each itemset
+	 * are intersected count-only from the deepest prefix on the stack (Supporter.support_count(INlist[])).
+	 * @param itemsets non-empty arrays of selector IDs in ascending order
+	 */
+	public int[] support_counts(int[][] itemsets){
+		int n = itemsets.length, max_length = 0;
+		for(int[] itemset : itemsets) max_length = Math.max(max_length, itemset.length);
+		int[] order = Supporter.sort_itemsets(itemsets, this.selector_nlists.length);
+		
+		// prefix_lengths[i]: the length of the prefix shared by the i-th and the (i-1)-th itemsets in the order
+		int[] prefix_lengths = new int[n+1];
+		for(int i=1; i<n; i++) prefix_lengths[i] = common_prefix_length(itemsets[order[i-1]], itemsets[order[i]]);
+		
+		int[] support_counts = new int[n];
+		// stack of the Nlists of shared prefixes, in ascending order of their lengths
+		INlist[] stack_nlists = new INlist[max_length];
+		int[] stack_lengths = new int[max_length];
+		int top = -1;
+		// buffers[m] for a k-way intersection of m Nlists
+		INlist[][] buffers = new INlist[max_length+1][];
+		
+		int[] itemset;
+		int k, length, shared, j;
+		INlist nlist;
+		for(int i=0; i<n; i++){
+			itemset = itemsets[order[i]];
+			k = itemset.length;
+			
+			// pop the prefixes not shared with the previous itemset, the deepest one left is the start
+			while(top > -1 && stack_lengths[top] > prefix_lengths[i]) top--;
+			if(top > -1){
+				nlist = stack_nlists[top];
+				length = stack_lengths[top];
+			}else{
+				nlist = this.selector_nlists[itemset[0]];
+				length = 1;
+			}
+			
+			// compute the longest prefix shared by the next itemsets once, if it is longer than the start
+			// and shared by enough itemsets to pay for materializing its Nlist
+			for(shared = Math.min(k-1, prefix_lengths[i+1]); shared > length; shared--){
+				for(j = i+1; j < n && j-i < MIN_SHARING_ITEMSETS && prefix_lengths[j] >= shared; j++);
+				if(j-i == MIN_SHARING_ITEMSETS) break;
+			}
+			if(shared > length){
+				nlist = Supporter.create_nlist(this.fill_buffer(buffers, nlist, itemset, length, shared));
+				length = shared;
+				top++;
+				stack_nlists[top] = nlist;
+				stack_lengths[top] = length;
+			}
+			
+			support_counts[order[i]] = (length == k) ? nlist.supportCount()
+										: Supporter.support_count(this.fill_buffer(buffers, nlist, itemset, length, k));
+		}
+		return support_counts;
+	}
+	
+	/**
+	 * Fill a buffer of Nlists with 'prefix_nlist' (of itemset[0], ..., itemset[from-1]) and the Nlists of itemset[from], ..., itemset[to-1]
+	 */
+	private INlist[] fill_buffer(INlist[][] buffers, INlist prefix_nlist, int[] itemset, int from, int to){
+		int m = to-from+1;
+		if(buffers[m] == null) buffers[m] = new INlist[m];
+		INlist[] nlists = buffers[m];
+		nlists[0] = prefix_nlist;
+		for(int i=from; i<to; i++) nlists[i-from+1] = this.selector_nlists[itemset[i]];
+		return nlists;
+	}
+	
+	private static int common_prefix_length(int[] itemset1, int[] itemset2){
+		int length = Math.min(itemset1.length, itemset2.length), i = 0;
+		while(i < length && itemset1[i] == itemset2[i]) i++;
+		return i;
+	}
+	
+	/**
+	 * Return the Nlist of the disjunction of selectors, e.g. the selectors of the values of an attribute
+	 * in "attribute in {v1, v2, v3}", by one k-way merge (Supporter.create_nlist_disj(INlist[]))
+	 * @param selector_ids
+	 */
+	public INlist create_nlist_for_disjunction(int[] selector_ids){
+		return Supporter.create_nlist_disj(this.get_selector_nlists(selector_ids));
+	}
+	
+	private INlist[] get_selector_nlists(int[] selector_ids){
+		INlist[] nlists = new INlist[selector_ids.length];
+		for(int i = 0; i < selector_ids.length; i++) nlists[i] = this.selector_nlists[selector_ids[i]];
+		return nlists;
+	}
+	
 	
 	///////////////////////////////////////////////BENCHMARK METHODS//////////////////////////////////////////////
 	
@@ -615,6 +1355,7 @@ public class InfoBase {
         
         // Build the top part of P3Ctree
         P3CTree p3ctree = new P3CTree(this.constructing_selector_count); 
+        if (!this.use_node_pool) p3ctree.setNodePool(null);
         times[1] = this.construct_tree_top_part(p3ctree);
         
         // Print list of instances/transactions in the dataset
@@ -635,8 +1376,8 @@ public class InfoBase {
         	StringBuilder sb = new StringBuilder(200);
         	P3CNode top_ppc_node  = (P3CNode) leaf_node;
         	sb.append("\n\tlevel: ").append(top_ppc_node.instGroup.level);
-        	for(int[] instance : top_ppc_node.instGroup.instances){
-				sb.append("\n\t").append(Arrays.toString(instance));
+        	for(int i=0; i<top_ppc_node.instGroup.length; i++){
+				sb.append("\n\t").append(Arrays.toString(p3ctree.getInstance(top_ppc_node.instGroup, i)));
 			}
     		String instances = sb.toString();
     		
@@ -687,19 +1428,49 @@ public class InfoBase {
         
         this.preprocessing();
         
-        PPCTree ppcTree = new PPCTree(); 
-        this.construct_tree(ppcTree);
+        double mb = 1024*1024;
+        long tree_time, nlist_time, nlist_bytes;
+        MemoryHistogramer.get_memory_sum();	// GC before the peak is measured
+        MemoryHistogramer.reset_peak_heap();
         
-        System.out.println("Total nodes of the PPCtree: " + ppcTree.countNodes());
+        PPCTree ppcTree = null;
+        ArenaPPCTree arenaTree = null;
+        if (this.use_node_arena){
+        	arenaTree = new ArenaPPCTree();
+        	tree_time = this.construct_tree(arenaTree);
+        	
+        	System.out.println("Total nodes of the PPCtree (node arena): " + arenaTree.countNodes());
+        	System.out.println("Allocated bytes of the node arena: " + arenaTree.getArena().allocatedBytes());
+        	
+        	nlist_time = System.currentTimeMillis();
+        	nlist_bytes = MemoryHistogramer.get_allocated_bytes();
+        	this.selector_nlists = arenaTree.create_Nlist_for_selectors_arr(this.constructing_selector_count);
+        	nlist_bytes = MemoryHistogramer.get_allocated_bytes() - nlist_bytes;
+        	nlist_time = System.currentTimeMillis() - nlist_time;
+        	this.selector_nlist_map = arenaTree.create_selector_Nlist_map(this.selector_nlists);
+        }else{
+        	ppcTree = new PPCTree(); 
+        	tree_time = this.construct_tree(ppcTree);
+        	
+        	System.out.println("Total nodes of the PPCtree: " + ppcTree.countNodes());
+        	
+        	nlist_time = System.currentTimeMillis();
+        	nlist_bytes = MemoryHistogramer.get_allocated_bytes();
+        	this.selector_nlists = ppcTree.create_Nlist_for_selectors_arr(this.constructing_selector_count);
+        	nlist_bytes = MemoryHistogramer.get_allocated_bytes() - nlist_bytes;
+        	nlist_time = System.currentTimeMillis() - nlist_time;
+        	this.selector_nlist_map = ppcTree.create_selector_Nlist_map(this.selector_nlists);
+        }
         
-        this.selector_nlists = ppcTree.create_Nlist_for_selectors_arr(this.constructing_selector_count);
-        this.selector_nlist_map = ppcTree.create_selector_Nlist_map(this.selector_nlists);
+        System.out.println("Time to build the tree: " + tree_time + " ms");
+        System.out.println("Time to create the Nlists: " + nlist_time + " ms");
+        System.out.println("Allocated bytes to create the Nlists (garbage included): " + nlist_bytes/mb + " MB");
+        System.out.println("Peak heap while building the tree and the Nlists: " + MemoryHistogramer.get_peak_heap()/mb + " MB");
         
         System.out.println("\n\nBenchmark memory for PPCtree, encoded instances from data, Nlists");
         
         String[] outputs;
         double prv_memory, memory;
-        double mb = 1024*1024;
         
         System.out.println("\nBegin:");
         outputs = MemoryHistogramer.get_memory_histogram("core");
@@ -707,8 +1478,10 @@ public class InfoBase {
         System.out.println(outputs[1]);
         prv_memory = get_total_memory(outputs[2]);
         
-        ppcTree.free();
+        if (ppcTree != null) ppcTree.free();
+        if (arenaTree != null) arenaTree.free();
         ppcTree = null;
+        arenaTree = null;
         System.out.println("\nWithout PPCtree:");
         outputs = MemoryHistogramer.get_memory_histogram("core");
         System.out.println(outputs[0]);
@@ -756,6 +1529,7 @@ public class InfoBase {
         
         System.out.println("\n\nBenchmark memory for P3CTree");
         System.out.println("Memory efficiency: " + this.efficiency);
+        if (this.use_node_arena) System.out.println("Subtrees are stored in a node arena");
         
         String[] outputs;
         double begin_memory, mem_diff, max_mem_diff;
@@ -771,6 +1545,7 @@ public class InfoBase {
         // Build the top part of the global PPCtree
         // Encoded instances are also created
         P3CTree p3ctree = new P3CTree(this.constructing_selector_count); 
+        if (!this.use_node_pool) p3ctree.setNodePool(null);
         this.construct_tree_top_part(p3ctree);
         
         System.out.println("\nWith top part of the global tree and instances from data:");
@@ -784,17 +1559,32 @@ public class InfoBase {
         int subtree_number = 1;
         double min_count = 0.2* this.row_count/this.efficiency;
         int max_node_count = 0;
+        long nlist_time = 0, nlist_bytes = 0, start;
+        NodeArena arena = (this.use_node_arena) ? new NodeArena() : null;
+        MemoryHistogramer.reset_peak_heap();
         for (PPCNode leaf_node : leaf_nodes){
         	int level = ((P3CNode) leaf_node).instGroup.level;
         	
-        	// Build a subtree with root at leaf_node
-        	p3ctree.buildSubtree(leaf_node);
-        	
-        	// Assign pre-order and post-order codes
-        	p3ctree.assignPrePosOrderCodeSubTree(leaf_node);
-        	
-        	// Update Nlist of selectors and free the subtree
-        	p3ctree.update_nlists_from_subtree(leaf_node); 
+        	if (arena != null){
+        		p3ctree.buildSubtree(leaf_node, arena);
+        		p3ctree.assignPrePosOrderCodeSubTree(leaf_node, arena);
+        		start = System.nanoTime();
+        		nlist_bytes -= MemoryHistogramer.get_allocated_bytes();
+        		p3ctree.update_nlists_from_subtree(leaf_node, arena);
+        	}else{
+        		// Build a subtree with root at leaf_node
+        		p3ctree.buildSubtree(leaf_node);
+        		
+        		// Assign pre-order and post-order codes
+        		p3ctree.assignPrePosOrderCodeSubTree(leaf_node);
+        		
+        		// Update Nlist of selectors and free the subtree
+        		start = System.nanoTime();
+        		nlist_bytes -= MemoryHistogramer.get_allocated_bytes();
+        		p3ctree.update_nlists_from_subtree(leaf_node); 
+        	}
+        	nlist_bytes += MemoryHistogramer.get_allocated_bytes();
+        	nlist_time += System.nanoTime() - start;
         	
         	if (leaf_node.count > min_count){
         		// Do not need to measure for so small subtrees
@@ -803,7 +1593,8 @@ public class InfoBase {
                 		+ " (level " + level + ") built and the current Nlists updated:");
                 mem_diff = (MemoryHistogramer.get_memory_sum() - begin_memory)/mb;
                 if (max_mem_diff < mem_diff) max_mem_diff = mem_diff;
-                int node_count = p3ctree.countNodes();
+                // the root of the subtree in the arena is a copy of leaf_node
+                int node_count = (arena != null) ? p3ctree.countNodes() + arena.size() - 1 : p3ctree.countNodes();
                 if (max_node_count < node_count) max_node_count = node_count;
                 System.out.println("Memory Difference: " + mem_diff + " MB");
                 System.out.println("Current node count: " + node_count);
@@ -814,6 +1605,8 @@ public class InfoBase {
         	
         	subtree_number++;
         }
+        if (p3ctree.getNodePool() != null) System.out.println("\nNode pool: " + p3ctree.getNodePool());
+        this.release_node_pool(p3ctree);
         
         // recommend a further efficiency coefficient based on 
         // the max number of instances used to build a subtree
@@ -821,9 +1614,14 @@ public class InfoBase {
         for(PPCNode node : leaf_nodes){
         	if (max_inst_count < node.count) max_inst_count = node.count;
         }
-        this.furtherEfficiency = this.row_count/(max_inst_count/2);
+        this.furtherEfficiency = this.row_count/Math.max(1, max_inst_count/2);
         
+        start = System.nanoTime();
+        nlist_bytes -= MemoryHistogramer.get_allocated_bytes();
         p3ctree.shrink_nlists();
+        nlist_bytes += MemoryHistogramer.get_allocated_bytes();
+        nlist_time += System.nanoTime() - start;
+        long peak_heap = MemoryHistogramer.get_peak_heap();
         this.selector_nlists = p3ctree.get_selector_nlists();
         this.selector_nlist_map = p3ctree.create_selector_Nlist_map(this.selector_nlists);
     	
@@ -831,6 +1629,9 @@ public class InfoBase {
         System.out.println("The number of subtrees: " + leaf_nodes.size());
         System.out.println("Max node count: " + max_node_count);
     	System.out.println("Max Memory Difference: " + max_mem_diff + " MB (include: a subtree built upon the top part, current Nlists, instances from data)");
+    	System.out.println("Peak heap while building the subtrees: " + peak_heap/mb + " MB");
+    	System.out.println("Time to update and shrink the Nlists: " + nlist_time/1000000 + " ms");
+    	System.out.println("Allocated bytes to update and shrink the Nlists (garbage included): " + nlist_bytes/mb + " MB");
     	System.out.println("Max instance count used to build a subtree: " + max_inst_count);
     	System.out.println("Used efficiency: " + this.efficiency);
     	System.out.println("Further recommended efficiency: " + this.furtherEfficiency);
@@ -9,6 +9,9 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -113,4 +116,37 @@ public class MemoryHistogramer {
 			e.printStackTrace();
 		}
 	}
+	
+	/**
+	 * Reset the peak usage of the heap memory pools, e.g. right before a structure is built
+	 */
+	public static void reset_peak_heap(){
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if(pool.getType() == MemoryType.HEAP) pool.resetPeakUsage();
+		}
+	}
+	
+	/**
+	 * @return Return the sum of the peak usages of the heap memory pools since the last reset_peak_heap(), in bytes.
+	 * It includes garbage not collected yet, so it depends on the max heap size and the GC.
+	 */
+	public static long get_peak_heap(){
+		long bytes = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()){
+			if(pool.getType() == MemoryType.HEAP) bytes += pool.getPeakUsage().getUsed();
+		}
+		return bytes;
+	}
+	
+	/**
+	 * @return Return the bytes allocated on the heap by the current thread so far, -1 if the JVM does not support it.
+	 * The difference of two calls is the bytes allocated in between, garbage included, and does not depend on the GC.
+	 */
+	public static long get_allocated_bytes(){
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		if(bean instanceof com.sun.management.ThreadMXBean){
+			return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
 }
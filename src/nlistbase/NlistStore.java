@@ -0,0 +1,249 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package nlistbase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import core.prepr.Attribute;
+import core.prepr.Selector;
+import core.structure.INlist;
+import core.structure.MappedNlists;
+
+/**
+ * NlistStore writes the information of an InfoBase (attributes, selectors, class IDs, counts)
+ * and the Nlists of selectors to a versioned binary file, and loads it back.
+ * </br>File layout:
+ * </br> [0] int MAGIC, [4] int VERSION, [8] long position of the Nlists section, [16] int length of the metadata
+ * </br> [20] the metadata (DataOutputStream format)
+ * </br> the Nlists section (MappedNlists format) at a position aligned to 8 bytes
+ * </br>The loaded Nlists are served directly from the memory-mapped file, so a warm start costs only a page-in.
+ */
+public class NlistStore {
+	public static final int MAGIC = 0x4E4C5354;	// "NLST"
+	public static final int VERSION = 1;
+	private static final int HEADER_BYTES = 20;
+	
+	/**
+	 * Write the information and the Nlists of 'ibase' to the file 'file_name'
+	 * @param ibase an InfoBase whose Nlists are constructed
+	 * @param file_name
+	 * @return the number of written bytes
+	 * @throws IOException
+	 */
+	public static long save(InfoBase ibase, String file_name) throws IOException{
+		ByteArrayOutputStream metadata_bytes = new ByteArrayOutputStream(1 << 16);
+		DataOutputStream out = new DataOutputStream(metadata_bytes);
+		write_metadata(ibase, out);
+		out.flush();
+		byte[] metadata = metadata_bytes.toByteArray();
+		
+		long nlists_position = (HEADER_BYTES + metadata.length + 7L) & ~7L;
+		ByteBuffer head = ByteBuffer.allocate((int) nlists_position);
+		head.putInt(MAGIC).putInt(VERSION).putLong(nlists_position).putInt(metadata.length).put(metadata);
+		head.clear();
+		
+		RandomAccessFile file = new RandomAccessFile(file_name, "rw");
+		try{
+			FileChannel channel = file.getChannel();
+			channel.truncate(0);
+			while(head.hasRemaining()) channel.write(head);
+			long bytes = nlists_position + MappedNlists.write(ibase.selector_nlists, channel);
+			channel.force(false);
+			return bytes;
+		}finally{
+			file.close();
+		}
+	}
+	
+	/**
+	 * Load the information and the Nlists stored in the file 'file_name' into 'ibase'.
+	 * The Nlists are read-only views over the mapped file.
+	 * @param ibase
+	 * @param file_name
+	 * @return the number of mapped bytes of the Nlists
+	 * @throws IOException if the file is not a store or is written by another version
+	 */
+	public static long load(InfoBase ibase, String file_name) throws IOException{
+		RandomAccessFile file = new RandomAccessFile(file_name, "r");
+		try{
+			FileChannel channel = file.getChannel();
+			ByteBuffer head = ByteBuffer.allocate(HEADER_BYTES);
+			while(head.hasRemaining()){
+				if(channel.read(head) < 0) throw new IOException("Not an Nlist store: " + file_name);
+			}
+			head.flip();
+			if(head.getInt() != MAGIC) throw new IOException("Not an Nlist store: " + file_name);
+			int version = head.getInt();
+			if(version != VERSION) throw new IOException("Unsupported version of Nlist store: " + version);
+			long nlists_position = head.getLong();
+			byte[] metadata = new byte[head.getInt()];
+			file.readFully(metadata);
+			
+			read_metadata(ibase, new DataInputStream(new ByteArrayInputStream(metadata)));
+			
+			MappedNlists mapped = new MappedNlists(channel, nlists_position, ibase.constructing_selector_count);
+			ibase.selector_nlists = new INlist[mapped.size()];
+			ibase.selector_nlist_map = new HashMap<String, INlist>(mapped.size());
+			for(int i=0; i<mapped.size(); i++){
+				ibase.selector_nlists[i] = mapped.get(i);
+				ibase.selector_nlist_map.put("["+i+"]", ibase.selector_nlists[i]);
+			}
+			return mapped.getByteSize();
+		}finally{
+			// the mapped regions stay valid
+			file.close();
+		}
+	}
+	
+	private static void write_metadata(InfoBase ibase, DataOutputStream out) throws IOException{
+		write_string(out, ibase.data_filename);
+		out.writeInt(ibase.row_count);
+		out.writeInt(ibase.min_sup_count);
+		out.writeInt(ibase.attr_count);
+		out.writeInt(ibase.predict_attr_count);
+		out.writeInt(ibase.target_attr_count);
+		out.writeInt(ibase.numeric_attr_count);
+		out.writeInt(ibase.distinct_value_count);
+		out.writeInt(ibase.constructing_selector_count);
+		out.writeInt(ibase.predict_constructing_selector_count);
+		out.writeInt(ibase.target_selector_count);
+		
+		// Selectors are shared by the attributes and the constructing selectors, each one is written once
+		Map<Selector, Integer> selector_indexes = new IdentityHashMap<Selector, Integer>();
+		List<Selector> selectors = new ArrayList<Selector>();
+		for(Attribute attr : ibase.attributes){
+			if(attr.distinct_values == null) continue;
+			for(Selector s : attr.distinct_values.values()) add_selector(s, selector_indexes, selectors);
+		}
+		for(Selector s : ibase.constructing_selectors) add_selector(s, selector_indexes, selectors);
+		
+		out.writeInt(selectors.size());
+		for(Selector s : selectors){
+			out.writeInt(s.attributeID);
+			write_string(out, s.attributeName);
+			out.writeInt(s.frequency);
+			write_string(out, s.distinctValue);
+			out.writeInt(s.distinctValueID);
+			write_string(out, s.condition);
+			out.writeInt(s.selectorID);
+		}
+		
+		out.writeInt(ibase.attributes.size());
+		for(Attribute attr : ibase.attributes){
+			out.writeInt(attr.index);
+			write_string(out, attr.name);
+			out.writeInt(attr.type.ordinal());
+			if(attr.discretized_values == null){
+				out.writeInt(-1);
+			}else{
+				out.writeInt(attr.discretized_values.length);
+				for(double v : attr.discretized_values) out.writeDouble(v);
+			}
+			if(attr.distinct_values == null){
+				out.writeInt(-1);
+			}else{
+				out.writeInt(attr.distinct_values.size());
+				for(Map.Entry<String, Selector> entry : attr.distinct_values.entrySet()){
+					write_string(out, entry.getKey());
+					out.writeInt(selector_indexes.get(entry.getValue()));
+				}
+			}
+		}
+		
+		out.writeInt(ibase.constructing_selectors.size());
+		for(Selector s : ibase.constructing_selectors) out.writeInt(selector_indexes.get(s));
+		
+		out.writeInt(ibase.classIDs.size());
+		for(int classID : ibase.classIDs) out.writeInt(classID);
+	}
+	
+	private static void add_selector(Selector s, Map<Selector, Integer> selector_indexes, List<Selector> selectors){
+		if(selector_indexes.containsKey(s)) return;
+		selector_indexes.put(s, selectors.size());
+		selectors.add(s);
+	}
+	
+	private static void read_metadata(InfoBase ibase, DataInputStream in) throws IOException{
+		ibase.data_filename = read_string(in);
+		ibase.row_count = in.readInt();
+		ibase.min_sup_count = in.readInt();
+		ibase.attr_count = in.readInt();
+		ibase.predict_attr_count = in.readInt();
+		ibase.target_attr_count = in.readInt();
+		ibase.numeric_attr_count = in.readInt();
+		ibase.distinct_value_count = in.readInt();
+		ibase.constructing_selector_count = in.readInt();
+		ibase.predict_constructing_selector_count = in.readInt();
+		ibase.target_selector_count = in.readInt();
+		
+		Selector[] selectors = new Selector[in.readInt()];
+		for(int i=0; i<selectors.length; i++){
+			int attributeID = in.readInt();
+			String attributeName = read_string(in);
+			int frequency = in.readInt();
+			Selector s = new Selector(attributeID, attributeName, read_string(in), frequency);
+			s.distinctValueID = in.readInt();
+			s.condition = read_string(in);
+			s.selectorID = in.readInt();
+			selectors[i] = s;
+		}
+		
+		int attribute_count = in.readInt();
+		ibase.attributes = new ArrayList<Attribute>(attribute_count);
+		for(int i=0; i<attribute_count; i++){
+			int index = in.readInt();
+			String name = read_string(in);
+			Attribute attr = new Attribute(index, name, Attribute.DATA_TYPE.values()[in.readInt()]);
+			
+			int length = in.readInt();
+			double[] discretized_values = null;
+			if(length > -1){
+				discretized_values = new double[length];
+				for(int j=0; j<length; j++) discretized_values[j] = in.readDouble();
+			}
+			
+			int value_count = in.readInt();
+			if(value_count > -1){
+				attr.distinct_values = new HashMap<String, Selector>(value_count);
+				for(int j=0; j<value_count; j++){
+					String value = read_string(in);
+					attr.distinct_values.put(value, selectors[in.readInt()]);
+				}
+			}
+			attr.set_discretized_values(discretized_values);
+			ibase.attributes.add(attr);
+		}
+		
+		int selector_count = in.readInt();
+		ibase.constructing_selectors = new ArrayList<Selector>(selector_count);
+		for(int i=0; i<selector_count; i++) ibase.constructing_selectors.add(selectors[in.readInt()]);
+		
+		int class_count = in.readInt();
+		ibase.classIDs = new ArrayList<Integer>(class_count);
+		for(int i=0; i<class_count; i++) ibase.classIDs.add(in.readInt());
+	}
+	
+	private static void write_string(DataOutputStream out, String s) throws IOException{
+		out.writeBoolean(s != null);
+		if(s != null) out.writeUTF(s);
+	}
+	
+	private static String read_string(DataInputStream in) throws IOException{
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package zbenchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.zip.DataFormatException;
+
+import nlistbase.InfoBase;
+
+/**
+ * Runtime benchmark of a batch of itemset queries: the loop of InfoBase.support_count(int[]) per itemset
+ * against InfoBase.support_counts(int[][]), which computes the Nlist of each prefix shared in the batch once.
+ * </br>Both run some warm-up rounds before the measured rounds, and the results of the batch are checked against the loop.
+ */
+public class BatchQueryBenchmark {
+	
+	public static void main(String[] args) throws IOException, DataFormatException {
+		String output_dir = "data/output/";
+		
+		String[] data_filenames = new String[]{
+				"data/input/connect-4.csv"
+		};
+		
+		// Using list of arguments: an optional number of random itemsets, then followed with file paths
+		if (args.length > 0) data_filenames = args;
+		
+		int n_itemsets = 1000000;
+		int min_length = 2;
+		int max_length = 8;
+		int seed = 0;	// for reproducibility
+		for (String str_data : data_filenames){
+			try{
+				n_itemsets = Integer.parseInt(str_data);
+				continue;
+			}catch(NumberFormatException e){}
+			// str_data is a file path to a dataset
+			run(str_data, n_itemsets, min_length, max_length, seed, output_dir);
+		}
+	}
+	
+	private static void run(String data_filename,
+							int n_itemsets,
+							int min_length,
+							int max_length,
+							int seed,
+							String output_dir) throws IOException, DataFormatException{
+		String name = (Paths.get(data_filename).getFileName().toString().split("\\."))[0] + "_batch_queries.txt";
+		String output_filename = Paths.get(output_dir, name).toString();
+		
+		PrintStream out = new PrintStream(new FileOutputStream(output_filename));
+		System.setOut(out);
+		
+		InfoBase ibase = new InfoBase();
+		ibase.fetch_information(data_filename);
+		System.out.println(data_filename);
+		
+		int[][] itemsets = ItemsetGenerator.gen_random_itemsets(ibase.getSelectorIDRecords(),
+																n_itemsets, min_length, max_length, seed);
+		
+		int warmup_rounds = 2, rounds = 5;
+		for (int i=0; i<warmup_rounds; i++){
+			run_loop(ibase, itemsets);
+			ibase.support_counts(itemsets);
+		}
+		long loop_time = 0, batch_time = 0;
+		int[] loop_counts = null, batch_counts = null;
+		for (int i=0; i<rounds; i++){
+			long start = System.nanoTime();
+			loop_counts = run_loop(ibase, itemsets);
+			loop_time += System.nanoTime() - start;
+			
+			start = System.nanoTime();
+			batch_counts = ibase.support_counts(itemsets);
+			batch_time += System.nanoTime() - start;
+		}
+		
+		int mismatch_count = 0;
+		for (int i=0; i<itemsets.length; i++){
+			if (loop_counts[i] != batch_counts[i]) mismatch_count++;
+		}
+		
+		System.out.println("Mismatched support counts: " + mismatch_count);
+		System.out.println("Average time of support_count for " + itemsets.length + " itemsets: " + loop_time/rounds/1000000 + " ms");
+		System.out.println("Average time of support_counts for the batch: " + batch_time/rounds/1000000 + " ms");
+		out.flush();
+	}
+	
+	private static int[] run_loop(InfoBase ibase, int[][] itemsets){
+		int[] support_counts = new int[itemsets.length];
+		for (int i=0; i<itemsets.length; i++){
+			support_counts[i] = ibase.support_count(itemsets[i]);
+		}
+		return support_counts;
+	}
+}
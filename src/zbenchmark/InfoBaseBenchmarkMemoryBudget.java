@@ -0,0 +1,62 @@
+package zbenchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.zip.DataFormatException;
+
+import nlistbase.InfoBase;
+
+/**
+ * Build Nlists with a P3CTree under a heap byte budget instead of an efficiency value,
+ * report the split plan and write it to a file so it can be replayed by InfoBase.setSplitPlan(SplitPlan.read(file)).
+ */
+public class InfoBaseBenchmarkMemoryBudget {
+	
+	public static void main(String[] args) throws IOException, DataFormatException {
+		String output_dir = "data/output/";
+		
+		String[] data_filenames = new String[]{
+//				"data/input/adult.arff",
+				"data/input/connect-4.csv"
+		};
+		long budget_mb = 64;
+		
+		// Using list of arguments: budget in MB, then followed with file paths
+		if (args.length > 1){
+			budget_mb = Long.parseLong(args[0]);
+			data_filenames = new String[args.length-1];
+			for(int i=1; i<args.length; i++){
+				data_filenames[i-1] = args[i];
+			}
+		}
+		
+		for (String data_filename : data_filenames){
+			run(data_filename, budget_mb*1024*1024, output_dir);
+		}
+	}
+	
+	private static void run(String data_filename, long budget_bytes, String output_dir) throws IOException, DataFormatException{
+		String prefix = (Paths.get(data_filename).getFileName().toString().split("\\."))[0];
+		String output_filename = Paths.get(output_dir, prefix + "_memory_budget_benchmark.txt").toString();
+		String plan_filename = Paths.get(output_dir, prefix + "_split_plan.txt").toString();
+		
+		PrintStream out = new PrintStream(new FileOutputStream(output_filename));
+		System.setOut(out);
+		
+		long start = System.currentTimeMillis();
+		InfoBase ibase = new InfoBase();
+		ibase.setMemoryBudget(budget_bytes);
+		long[] times = ibase.fetch_information_with_memory_efficiency(data_filename);
+		long runtime = System.currentTimeMillis() - start;
+		
+		System.out.println(data_filename);
+		System.out.println("P3CTrees runtime: " + runtime + " ms (preprocessing " + times[0] + " ms, top part " + times[1] + " ms, subtrees " + times[2] + " ms)");
+		System.out.println("Split plan: " + ibase.getSplitPlan());
+		
+		ibase.getSplitPlan().write(plan_filename);
+		System.out.println("Split plan written to: " + plan_filename);
+		out.flush();
+	}
+}
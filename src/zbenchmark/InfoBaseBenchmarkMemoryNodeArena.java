@@ -0,0 +1,67 @@
+package zbenchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.zip.DataFormatException;
+
+import nlistbase.InfoBase;
+
+/**
+ * Memory benchmark for PPCTree and P3CTree whose nodes are stored in a NodeArena.
+ * </br>Compare the outputs with the ones of InfoBaseBenchmarkMemoryPPCTree and InfoBaseBenchmarkMemoryP3CTree.
+ */
+public class InfoBaseBenchmarkMemoryNodeArena {
+	
+	public static void main(String[] args) throws IOException, DataFormatException{
+		String output_dir = "data/output/";
+		
+		String[] data_filenames = new String[]{
+//				"data/input/adult.arff",
+				"data/input/connect-4.csv"
+		};
+		int efficiency = 10;
+		
+		// Using list of arguments: efficiency value, then followed with file paths
+		if (args.length > 1){
+			efficiency = Integer.parseInt(args[0]);
+			data_filenames = new String[args.length-1];
+			for(int i=1; i<args.length; i++){
+				data_filenames[i-1] = args[i];
+			}
+		}
+		
+		for (String data_filename : data_filenames){
+			run_ppctree(data_filename, output_dir);
+			run_p3ctree(data_filename, efficiency, output_dir);
+		}
+	}
+	
+	private static void run_ppctree(String data_filename, String output_dir) throws IOException, DataFormatException{
+		String name = (Paths.get(data_filename).getFileName().toString().split("\\."))[0] + "_memory_benchmark_ppctree_arena.txt";
+		String output_filename = Paths.get(output_dir, name).toString();
+		
+		PrintStream out = new PrintStream(new FileOutputStream(output_filename));
+		System.setOut(out);
+		
+		InfoBase ibase = new InfoBase();
+		ibase.setUseNodeArena(true);
+		ibase.benchmark_memory_for_ppctree(data_filename);
+		out.flush();
+	}
+	
+	private static void run_p3ctree(String data_filename, int efficiency, String output_dir) throws IOException, DataFormatException{
+		String name = (Paths.get(data_filename).getFileName().toString().split("\\."))[0] + "_memory_benchmark_p3ctree_arena_effc" + efficiency + ".txt";
+		String output_filename = Paths.get(output_dir, name).toString();
+		
+		PrintStream out = new PrintStream(new FileOutputStream(output_filename));
+		System.setOut(out);
+		
+		InfoBase ibase = new InfoBase();
+		ibase.setEfficiency(efficiency);
+		ibase.setUseNodeArena(true);
+		ibase.benchmark_memory_for_p3ctree(data_filename);
+		out.flush();
+	}
+}
@@ -69,6 +69,9 @@ public class InfoBaseBenchmarkTime {
 			System.out.println("PPCTree was overflow!");
 		}
 		
+		run_sorted_records(data_filename, nlists);
+		run_parallel_ppctree(data_filename, nlists);
+		
 		System.out.println("\n--------------------------------------------------\n");
 		
 		for (int efficiency : efficiencies){
@@ -92,6 +95,8 @@ public class InfoBaseBenchmarkTime {
 				System.out.println("No NLists matching because PPCTree was overflow!");
 			}
 			
+			run_parallel(data_filename, efficiency, nlists2);
+			
 			System.out.println("\n--------------------------------------------------");
 		}
 	}
@@ -117,12 +122,15 @@ public class InfoBaseBenchmarkTime {
 			System.out.println(data_filename);
 			System.out.println(output_filename);
 			System.out.println("PPCTree runtime: " + ppctree_runtime + " ms");
-			System.out.println("\n--------------------------------------------------\n");
 			//ibase1.export_nlists("data/output/nlists1.txt");
 		}catch (OutOfMemoryError e){
 			System.out.println("PPCTree was overflow!");
 		}
 		
+		run_sorted_records(data_filename, nlists);
+		run_parallel_ppctree(data_filename, nlists);
+		System.out.println("\n--------------------------------------------------\n");
+		
 		
 		int efficiency = start_efficiency;
 		while(true){
@@ -146,6 +154,8 @@ public class InfoBaseBenchmarkTime {
 				System.out.println("No NLists matching because PPCTree was overflow!");
 			}
 			
+			run_parallel(data_filename, efficiency, nlists2);
+			
 			int eff = ibase2.getFurtherEfficiency();
 			if (eff <= efficiency){
 				efficiency = efficiency*2;
@@ -158,6 +168,64 @@ public class InfoBaseBenchmarkTime {
 		}
 	}
 	
+	private static void run_parallel(String data_filename, int efficiency, INlist[] nlists) throws IOException, DataFormatException{
+		try{
+			long start = System.currentTimeMillis();
+			InfoBase ibase = new InfoBase();
+			ibase.setEfficiency(efficiency);
+			ibase.fetch_information_with_memory_efficiency_parallel(data_filename);
+			long runtime = System.currentTimeMillis() - start;
+			
+			System.out.println("Parallel P3CTrees runtime (" + ibase.getThreadCount() + " threads): " + runtime + " ms");
+			if (is_identical(nlists, ibase.getSelectorNlists()))
+				System.out.println("Nlists of the parallel P3CTrees are identical");
+			else
+				System.out.println("Nlists of the parallel P3CTrees are NOT identical");
+		}catch (InterruptedException e){
+			System.out.println("Parallel P3CTrees was interrupted!");
+		}
+	}
+	
+	private static void run_sorted_records(String data_filename, INlist[] nlists) throws IOException, DataFormatException{
+		try{
+			long start = System.currentTimeMillis();
+			InfoBase ibase = new InfoBase();
+			ibase.fetch_information_with_sorted_records(data_filename);
+			long runtime = System.currentTimeMillis() - start;
+			
+			System.out.println("Sorted records runtime (" + ibase.getThreadCount() + " threads): " + runtime + " ms");
+			if (nlists != null){
+				if (is_identical(nlists, ibase.getSelectorNlists()))
+					System.out.println("Nlists of the sorted records are identical");
+				else
+					System.out.println("Nlists of the sorted records are NOT identical");
+			}
+		}catch (InterruptedException e){
+			System.out.println("Sorting records was interrupted!");
+		}
+	}
+	
+	private static void run_parallel_ppctree(String data_filename, INlist[] nlists) throws IOException, DataFormatException{
+		try{
+			long start = System.currentTimeMillis();
+			InfoBase ibase = new InfoBase();
+			ibase.fetch_information_parallel(data_filename);
+			long runtime = System.currentTimeMillis() - start;
+			
+			System.out.println("Parallel PPCTree runtime (" + ibase.getThreadCount() + " threads): " + runtime + " ms");
+			if (nlists != null){
+				if (is_identical(nlists, ibase.getSelectorNlists()))
+					System.out.println("Nlists of the parallel PPCTree are identical");
+				else
+					System.out.println("Nlists of the parallel PPCTree are NOT identical");
+			}
+		}catch (InterruptedException e){
+			System.out.println("Parallel PPCTree was interrupted!");
+		}catch (OutOfMemoryError e){
+			System.out.println("Parallel PPCTree was overflow!");
+		}
+	}
+	
 	private static boolean is_identical(INlist[] nlists1, INlist[] nlists2){
 		if (nlists1.length != nlists2.length) return false;
 		
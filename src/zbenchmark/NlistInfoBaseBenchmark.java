@@ -105,5 +105,27 @@ public class NlistInfoBaseBenchmark {
 		}
 		long duration = System.currentTimeMillis() - start;
 		System.out.println("\nTime for generating NLISTs for " + itemsets.length + " random itemsets: " + duration + " ms");
+		
+		// the same itemsets on the frozen basic Nlists
+		long nlist_bytes = 0;
+		for(INlist basic_nlist : ibase.getSelectorNlists()) nlist_bytes += 12L*basic_nlist.capacity();
+		long frozen_bytes = ibase.freeze();
+		start = System.currentTimeMillis();
+		for(int[] itemset : itemsets){
+			ibase.create_nlist_for_itemset(itemset);
+		}
+		duration = System.currentTimeMillis() - start;
+		System.out.println("\nBytes of basic Nlists: " + nlist_bytes + ", frozen: " + frozen_bytes);
+		System.out.println("Time for generating NLISTs for " + itemsets.length + " random itemsets on the frozen Nlists: " + duration + " ms");
+		
+		// the same itemsets on the compressed basic Nlists
+		long compressed_bytes = ibase.compress_nlists();
+		System.out.println("\nBytes of compressed Nlists: " + compressed_bytes);
+		start = System.currentTimeMillis();
+		for(int[] itemset : itemsets){
+			ibase.create_nlist_for_itemset(itemset);
+		}
+		duration = System.currentTimeMillis() - start;
+		System.out.println("Time for generating NLISTs for " + itemsets.length + " random itemsets on the compressed Nlists: " + duration + " ms");
 	}
 }
@@ -0,0 +1,119 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package zbenchmark;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.zip.DataFormatException;
+
+import nlistbase.InfoBase;
+import core.structure.INlist;
+import core.structure.Supporter;
+
+/**
+ * Runtime benchmark of the merge kernels of Nodelists: the scalar loop against the block scan (Supporter.setUseBlockScan).
+ * </br>Each kernel runs some warm-up rounds before the measured rounds, so both are compiled by the JIT compiler.
+ * The Nlist of an itemset is folded pair by pair with Supporter.create_nlist(INlist, INlist), since the k-way intersection
+ * does not use the block scan, and no bitmaps of pre-codes are built, so the pairs are not merged by rank.
+ * Run it on a dense dataset (e.g. connect-4) and a sparse one.
+ */
+public class NlistMergeKernelBenchmark {
+	
+	public static void main(String[] args) throws IOException, DataFormatException {
+		String output_dir = "data/output/";
+		
+		String[] data_filenames = new String[]{
+				"data/input/connect-4.csv"
+		};
+		
+		// Using list of arguments: an optional number of random itemsets, then followed with file paths
+		if (args.length > 0) data_filenames = args;
+		
+		int n_itemsets = 200000;
+		int min_length = 2;
+		int max_length = 8;
+		int seed = 0;	// for reproducibility
+		for (String str_data : data_filenames){
+			try{
+				n_itemsets = Integer.parseInt(str_data);
+				continue;
+			}catch(NumberFormatException e){}
+			// str_data is a file path to a dataset
+			run(str_data, n_itemsets, min_length, max_length, seed, output_dir);
+		}
+	}
+	
+	private static void run(String data_filename,
+							int n_itemsets,
+							int min_length,
+							int max_length,
+							int seed,
+							String output_dir) throws IOException, DataFormatException{
+		String name = (Paths.get(data_filename).getFileName().toString().split("\\."))[0] + "_merge_kernels.txt";
+		String output_filename = Paths.get(output_dir, name).toString();
+		
+		PrintStream out = new PrintStream(new FileOutputStream(output_filename));
+		System.setOut(out);
+		
+		InfoBase ibase = new InfoBase();
+		ibase.setPreBitmapSpan(0);
+		ibase.fetch_information(data_filename);
+		System.out.println(data_filename);
+		
+		int[][] itemsets = ItemsetGenerator.gen_random_itemsets(ibase.getSelectorIDRecords(),
+																n_itemsets, min_length, max_length, seed);
+		
+		boolean block_scan = Supporter.getUseBlockScan();
+		int warmup_rounds = 3, rounds = 5;
+		for (boolean value : new boolean[]{false, true}){
+			Supporter.setUseBlockScan(value);
+			String kernel = value ? "block scan" : "scalar";
+			
+			for (int i=0; i<warmup_rounds; i++) run_itemsets(ibase, itemsets);
+			long nlist_time = 0, conj_time = 0, checksum = 0;
+			for (int i=0; i<rounds; i++){
+				long start = System.nanoTime();
+				checksum += run_itemsets(ibase, itemsets);
+				nlist_time += System.nanoTime() - start;
+				
+				start = System.nanoTime();
+				checksum += run_conjunctions(ibase, itemsets);
+				conj_time += System.nanoTime() - start;
+			}
+			
+			System.out.println("\nKernel: " + kernel + " (checksum " + checksum + ")");
+			System.out.println("Average time of pairwise create_nlist for " + itemsets.length + " itemsets: " + nlist_time/rounds/1000000 + " ms");
+			System.out.println("Average time of create_nlist_conj for " + itemsets.length + " pairs: " + conj_time/rounds/1000000 + " ms");
+		}
+		Supporter.setUseBlockScan(block_scan);
+		out.flush();
+	}
+	
+	private static long run_itemsets(InfoBase ibase, int[][] itemsets){
+		INlist[] nlists = ibase.getSelectorNlists();
+		long checksum = 0;
+		INlist nlist;
+		for(int[] itemset : itemsets){
+			nlist = nlists[itemset[0]];
+			for(int i = 1; i < itemset.length; i++){
+				nlist = Supporter.create_nlist(nlist, nlists[itemset[i]]);
+			}
+			checksum += nlist.supportCount();
+		}
+		return checksum;
+	}
+	
+	private static long run_conjunctions(InfoBase ibase, int[][] itemsets){
+		INlist[] nlists = ibase.getSelectorNlists();
+		long checksum = 0;
+		for(int[] itemset : itemsets){
+			checksum += Supporter.create_nlist_conj(nlists[itemset[0]], nlists[itemset[itemset.length-1]]).size();
+		}
+		return checksum;
+	}
+}
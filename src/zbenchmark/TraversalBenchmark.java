@@ -0,0 +1,124 @@
+/*
+ * @author Van Quoc Phuong Huynh, FAW JKU
+ *
+ */
+
+package zbenchmark;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import core.structure.INlist;
+import core.structure.PPCTree;
+
+/**
+ * Throughput benchmark of the iterative (explicit stack) traversals against the recursive ones on a PPCTree
+ * built from random records. Long records give a deep tree, the recursive traversals may throw StackOverflowError.
+ * </br>Arguments (optional): record count, record length, selector count, number of rounds
+ */
+public class TraversalBenchmark {
+	
+	public static void main(String[] args){
+		int record_count = 200000;
+		int record_length = 50;
+		int selector_count = 1000;
+		int rounds = 5;
+		if (args.length > 0) record_count = Integer.parseInt(args[0]);
+		if (args.length > 1) record_length = Integer.parseInt(args[1]);
+		if (args.length > 2) selector_count = Integer.parseInt(args[2]);
+		if (args.length > 3) rounds = Integer.parseInt(args[3]);
+		
+		PPCTree tree = new PPCTree();
+		Random random = new Random(0);	// for reproducibility
+		for(int i=0; i<record_count; i++){
+			tree.insert_record(random_record(random, record_length, selector_count));
+		}
+		System.out.println("Records: " + record_count + ", record length: " + record_length + 
+							", selectors: " + selector_count + ", nodes: " + tree.countNodes());
+		
+		long start, recursive_time, iterative_time;
+		for(int round=0; round<rounds; round++){
+			System.out.println("Round " + round);
+			
+			// assign pre-order and post-order codes
+			try{
+				start = System.nanoTime();
+				tree.assignPrePosOrderCode_recursive();
+				recursive_time = System.nanoTime() - start;
+			}catch(StackOverflowError e){
+				recursive_time = -1;
+			}
+			start = System.nanoTime();
+			tree.assignPrePosOrderCode();
+			iterative_time = System.nanoTime() - start;
+			print("assignPrePosOrderCode", recursive_time, iterative_time);
+			
+			// create Nlists of selectors
+			INlist[] recursive_nlists = null;
+			try{
+				start = System.nanoTime();
+				recursive_nlists = tree.create_Nlist_for_selectors_arr_recursive(selector_count);
+				recursive_time = System.nanoTime() - start;
+			}catch(StackOverflowError e){
+				recursive_time = -1;
+			}
+			start = System.nanoTime();
+			INlist[] iterative_nlists = tree.create_Nlist_for_selectors_arr(selector_count);
+			iterative_time = System.nanoTime() - start;
+			print("create_Nlist_for_selectors_arr", recursive_time, iterative_time);
+			if (recursive_nlists != null) System.out.println("\tidentical Nlists: " + identical(recursive_nlists, iterative_nlists));
+			
+			// count nodes
+			int recursive_count = -1;
+			try{
+				start = System.nanoTime();
+				recursive_count = tree.countNodes_recursive();
+				recursive_time = System.nanoTime() - start;
+			}catch(StackOverflowError e){
+				recursive_time = -1;
+			}
+			start = System.nanoTime();
+			int iterative_count = tree.countNodes();
+			iterative_time = System.nanoTime() - start;
+			print("countNodes", recursive_time, iterative_time);
+			if (recursive_count != -1) System.out.println("\tidentical counts: " + (recursive_count == iterative_count));
+		}
+	}
+	
+	/**
+	 * Return a sorted record of distinct selector IDs
+	 */
+	private static int[] random_record(Random random, int record_length, int selector_count){
+		int[] record = new int[record_length];
+		int length = 0;
+		while(length < record_length){
+			int id = random.nextInt(selector_count);
+			boolean exists = false;
+			for(int i=0; i<length; i++){
+				if(record[i] == id){
+					exists = true;
+					break;
+				}
+			}
+			if(!exists) record[length++] = id;
+		}
+		Arrays.sort(record);
+		return record;
+	}
+	
+	private static boolean identical(INlist[] nlists1, INlist[] nlists2){
+		for(int i=0; i<nlists1.length; i++){
+			if(!nlists1[i].isIdentical(nlists2[i])) return false;
+		}
+		return true;
+	}
+	
+	private static void print(String name, long recursive_time, long iterative_time){
+		StringBuilder sb = new StringBuilder(100);
+		sb.append('\t').append(name).append(": recursive ");
+		if (recursive_time < 0) sb.append("StackOverflowError");
+		else sb.append(recursive_time/1000000).append(" ms");
+		sb.append(", iterative ").append(iterative_time/1000000).append(" ms");
+		System.out.println(sb.toString());
+	}
+}